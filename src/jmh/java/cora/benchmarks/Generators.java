@@ -0,0 +1,165 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.benchmarks;
+
+import java.util.ArrayList;
+import java.util.TreeSet;
+import cora.exceptions.ParserException;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.FunctionSymbol;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+import cora.parsers.LcTrsInputReader;
+import cora.parsers.TrsInputReader;
+import cora.terms.FunctionalTerm;
+import cora.terms.Var;
+import cora.types.Sort;
+
+/**
+ * This class generates the terms and rewriting systems that the benchmarks work on: deep, wide and
+ * balanced terms over a Peano signature, rule sets with many overlaps, and constraints of a given
+ * size for an LCTRS.
+ */
+public class Generators {
+  private Generators() {}
+
+  private static final Sort NAT = new Sort("Nat");
+
+  /**
+   * Returns a many-sorted TRS for addition and multiplication on Peano numbers, which also has a
+   * symbol "wide" taking width arguments.
+   */
+  public static TRS peano(int width) throws ParserException {
+    StringBuilder wide = new StringBuilder();
+    for (int i = 0; i < width; i++) wide.append("Nat ");
+    return TrsInputReader.readTrsFromString(
+      "(SIG\n" +
+      "  (0 -> Nat)\n" +
+      "  (s Nat -> Nat)\n" +
+      "  (add Nat Nat -> Nat)\n" +
+      "  (mul Nat Nat -> Nat)\n" +
+      "  (wide " + wide + "-> Nat)\n" +
+      ")\n" +
+      "(RULES\n" +
+      "  add(0, y) -> y\n" +
+      "  add(s(x), y) -> s(add(x, y))\n" +
+      "  mul(0, y) -> 0\n" +
+      "  mul(s(x), y) -> add(y, mul(x, y))\n" +
+      ")");
+  }
+
+  /** Returns a fresh variable of sort Nat. */
+  public static Variable natVar(String name) {
+    return new Var(name, NAT);
+  }
+
+  /** Returns s(s(...s(base)...)) with n occurrences of s. */
+  public static Term deep(TRS trs, int n, Term base) {
+    FunctionSymbol s = trs.lookupSymbol("s");
+    Term ret = base;
+    for (int i = 0; i < n; i++) ret = new FunctionalTerm(s, ret);
+    return ret;
+  }
+
+  /** Returns the numeral for n. */
+  public static Term numeral(TRS trs, int n) {
+    return deep(trs, n, trs.lookupSymbol("0"));
+  }
+
+  /**
+   * Returns wide(x1,...,xn) if pattern is true, and wide(s(0),...,s(0)) otherwise; here n is the
+   * width the TRS was created with.
+   */
+  public static Term wide(TRS trs, int width, boolean pattern) {
+    ArrayList<Term> args = new ArrayList<Term>();
+    for (int i = 0; i < width; i++) args.add(pattern ? natVar("x" + i) : numeral(trs, 1));
+    return new FunctionalTerm(trs.lookupSymbol("wide"), args);
+  }
+
+  /**
+   * Returns a complete binary tree of add-symbols of the given depth; the leaves are distinct
+   * variables if pattern is true, and the numeral 2 otherwise.
+   */
+  public static Term balanced(TRS trs, int depth, boolean pattern) {
+    int[] counter = new int[1];
+    return balanced(trs.lookupSymbol("add"), depth, pattern ? null : numeral(trs, 2), counter);
+  }
+
+  private static Term balanced(FunctionSymbol add, int depth, Term leaf, int[] counter) {
+    if (depth == 0) return leaf == null ? natVar("y" + counter[0]++) : leaf;
+    return new FunctionalTerm(add, balanced(add, depth - 1, leaf, counter),
+                                   balanced(add, depth - 1, leaf, counter));
+  }
+
+  /**
+   * Returns a TRS with 3n + 1 rules where many left-hand sides overlap: for every i there are rules
+   * f_i(g(x)) -> f_{i+1}(x), f_i(h(x)) -> g(x) and f_i(g(h(x))) -> x, and there is the rule
+   * g(h(x)) -> x, all of sort o.
+   */
+  public static TRS overlapping(int n) throws ParserException {
+    StringBuilder sig = new StringBuilder("(SIG\n  (g o -> o)\n  (h o -> o)\n");
+    StringBuilder rules = new StringBuilder("(RULES\n  g(h(x)) -> x\n");
+    for (int i = 0; i < n; i++) {
+      sig.append("  (f" + i + " o -> o)\n");
+      rules.append("  f" + i + "(g(x)) -> f" + ((i + 1) % n) + "(x)\n");
+      rules.append("  f" + i + "(h(x)) -> g(x)\n");
+      rules.append("  f" + i + "(g(h(x))) -> x\n");
+    }
+    return TrsInputReader.readTrsFromString(sig + ")\n" + rules + ")");
+  }
+
+  /**
+   * Returns an LCTRS with n rules f_i(x) -> f_{i+1}(x - 1) [x > i], and a rule f_n(x) -> x.
+   */
+  public static TRS lctrs(int n) throws ParserException {
+    StringBuilder sig = new StringBuilder("(SIG\n");
+    StringBuilder rules = new StringBuilder("(RULES\n");
+    for (int i = 0; i <= n; i++) sig.append("  (" + letters("f", i) + " Int -> Int)\n");
+    for (int i = 0; i < n; i++) {
+      rules.append("  " + letters("f", i) + "(x) -> " + letters("f", i + 1) + "(x - 1) " +
+                   "[x > " + i + "]\n");
+    }
+    rules.append("  " + letters("f", n) + "(x) -> x\n");
+    return LcTrsInputReader.readLcTrsFromString(sig + ")\n" + rules + ")");
+  }
+
+  /** Returns a name for the ith symbol or variable, as the LCTRS syntax does not allow digits. */
+  private static String letters(String prefix, int i) {
+    StringBuilder ret = new StringBuilder(prefix);
+    do {
+      ret.append((char)('a' + i % 26));
+      i /= 26;
+    } while (i > 0);
+    return ret.toString();
+  }
+
+  /**
+   * Returns the constraint x0 < x1 /\ x1 < x2 /\ ... /\ x{n-1} < xn for the given LCTRS, if
+   * conclusion is false; if it is true, returns the (valid) formula which states that this
+   * constraint implies x0 < xn. (The variables are named xa, xb, ... rather than x0, x1, ...)
+   */
+  public static Term chain(TRS lctrs, int n, boolean conclusion) throws ParserException {
+    StringBuilder str = new StringBuilder();
+    for (int i = 0; i < n; i++) {
+      if (i > 0) str.append(" /\\ ");
+      str.append(letters("x", i) + " < " + letters("x", i + 1));
+    }
+    String constraint = conclusion ?
+      "~(" + str + ") \\/ " + letters("x", 0) + " < " + letters("x", n) : str.toString();
+    return LcTrsInputReader.readLogicalTermFromStringWithEnv("[" + constraint + "]", lctrs,
+                                                             new TreeSet<Variable>());
+  }
+}
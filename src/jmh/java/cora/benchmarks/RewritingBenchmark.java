@@ -0,0 +1,65 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.Term;
+import cora.provingstrategies.CriticalPairs;
+
+/**
+ * Benchmarks for rewriting: reducing mul(n, n) over the Peano numbers to normal form with
+ * leftmost-innermost steps, and computing the critical pairs of a rule set with many overlaps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RewritingBenchmark {
+  @Param({"4", "16"})
+  public int size;
+
+  private TRS _peano;
+  private Term _start;
+  private TRS _overlapping;
+
+  @Setup
+  public void setup() throws Exception {
+    _peano = Generators.peano(1);
+    Term n = Generators.numeral(_peano, size);
+    _start = _peano.lookupSymbol("mul").apply(n).apply(n);
+    _overlapping = Generators.overlapping(size);
+  }
+
+  /** Reduces mul(n, n) to normal form, one leftmost-innermost step at a time. */
+  @Benchmark
+  public Term leftmostInnermostReduce() {
+    Term current = _start;
+    for (Term next = _peano.leftmostInnermostReduce(current); next != null;
+         next = _peano.leftmostInnermostReduce(current)) {
+      current = next;
+    }
+    return current;
+  }
+
+  @Benchmark
+  public CriticalPairs criticalPairs() {
+    return new CriticalPairs(_overlapping);
+  }
+}
@@ -0,0 +1,96 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.Position;
+import cora.interfaces.terms.Substitution;
+import cora.interfaces.terms.Term;
+
+/**
+ * Benchmarks for the basic operations on terms: matching, unification, substitution and
+ * replacing a subterm. Each is measured on a deep term s(...s(x)...) of depth size, a wide term
+ * wide(x1,...,xsize) and a balanced binary tree with size leaves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TermBenchmark {
+  @Param({"deep", "wide", "balanced"})
+  public String shape;
+
+  @Param({"8", "64"})
+  public int size;
+
+  private Term _pattern;
+  private Term _instance;
+  private Substitution _gamma;
+  private Position _deepest;
+  private Term _replacement;
+
+  @Setup
+  public void setup() throws Exception {
+    TRS trs = Generators.peano(size);
+    switch (shape) {
+      case "deep":
+        _pattern = Generators.deep(trs, size, Generators.natVar("x"));
+        _instance = Generators.numeral(trs, 2 * size);
+        break;
+      case "wide":
+        _pattern = Generators.wide(trs, size, true);
+        _instance = Generators.wide(trs, size, false);
+        break;
+      default:
+        int depth = 31 - Integer.numberOfLeadingZeros(size);
+        _pattern = Generators.balanced(trs, depth, true);
+        _instance = Generators.balanced(trs, depth, false);
+    }
+    _gamma = _pattern.match(_instance);
+    if (_gamma == null) throw new IllegalStateException("Pattern does not match instance.");
+    List<Position> positions = _pattern.queryAllPositions();
+    _deepest = positions.get(0);
+    for (Position pos : positions) {
+      if (pos.toString().length() > _deepest.toString().length()) _deepest = pos;
+    }
+    _replacement = Generators.numeral(trs, 1);
+  }
+
+  @Benchmark
+  public Substitution match() {
+    return _pattern.match(_instance);
+  }
+
+  @Benchmark
+  public Substitution unify() {
+    return _pattern.unify(_instance);
+  }
+
+  @Benchmark
+  public Term substitute() {
+    return _pattern.substitute(_gamma);
+  }
+
+  @Benchmark
+  public Term replaceSubterm() {
+    return _instance.replaceSubterm(_deepest, _replacement);
+  }
+}
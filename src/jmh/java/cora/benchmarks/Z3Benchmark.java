@@ -0,0 +1,75 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import com.microsoft.z3.Expr;
+import org.openjdk.jmh.annotations.*;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.Term;
+import cora.z3.Z3QueryCache;
+import cora.z3.Z3SessionPool;
+import cora.z3.Z3TermHandler;
+
+/**
+ * Benchmarks for the bridge to Z3: translating a constraint to a Z3 expression, and checking the
+ * validity of a formula.  Both go through a handler from the Z3SessionPool, as user commands do, so
+ * translations after the first one are answered from the Z3Helper of the session.  The
+ * Z3QueryCache is disabled, so that every validity check goes to the solver.  JMH runs setup,
+ * benchmark and teardown on the same worker thread, so the session is released at the end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Z3Benchmark {
+  @Param({"4", "32"})
+  public int size;
+
+  private TRS _lctrs;
+  private Term _constraint;
+  private Term _formula;
+
+  @Setup
+  public void setup() throws Exception {
+    _lctrs = Generators.lctrs(size);
+    _constraint = Generators.chain(_lctrs, size, false);
+    _formula = Generators.chain(_lctrs, size, true);
+    Z3QueryCache.getInstance().setEnabled(false);
+  }
+
+  @TearDown
+  public void tearDown() {
+    Z3SessionPool.release();
+    Z3QueryCache.getInstance().setEnabled(true);
+  }
+
+  @Benchmark
+  public Expr<?> deconstruct() {
+    try (Z3TermHandler handler = Z3SessionPool.acquire(_lctrs)) {
+      return handler.deconstruct(_constraint);
+    }
+  }
+
+  @Benchmark
+  public boolean validity() {
+    try (Z3TermHandler handler = Z3SessionPool.acquire(_lctrs)) {
+      return handler.validity(_formula);
+    }
+  }
+}
@@ -0,0 +1,328 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import cora.exceptions.CancelledError;
+import cora.interfaces.provingstrategies.Result;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+import cora.parsers.LcTrsInputReader;
+import cora.rewriting.CancellationToken;
+import cora.smt.Equation;
+import cora.smt.EquivalenceProof;
+import cora.z3.Z3Helper;
+import cora.z3.Z3SessionPool;
+
+/**
+ * The BatchRunner handles a directory of problems without the graphical interface, and reports
+ * the results as JSON lines, one per job, so that they can be compared between versions.
+ *
+ * Every file with extension .lctrs, .mstrs or .trs is a problem. Proof scripts, as written by
+ * EquivalenceProof.saveStateToFile, belong to a problem if they are called <name>.prf or
+ * <name>.<label>.prf, where <name>.<extension> is the problem file and the label contains no dots.
+ * A script belongs to at most one problem: if both <name>.<label>.lctrs and <name>.lctrs exist (say),
+ * then <name>.<label>.prf belongs to the former. Every script is a job: the initial equations are
+ * read from its first line, and the commands are replayed on them. A problem without scripts is a
+ * single job, which runs the chosen strategy on it.
+ *
+ * Jobs are run in parallel, each on a single thread (so that the number of Z3 calls can be counted
+ * per job). Every job gets its own CancellationToken for the timeout: strategies check it and stop
+ * by themselves, reporting how many critical pairs they handled, and scripts check it between
+ * commands. Only a job that is stopped this way is reported as TIMEOUT; a job that finishes just
+ * after its deadline keeps its result.
+ */
+public class BatchRunner {
+  private static final List<String> PROBLEM_EXTENSIONS = Arrays.asList("lctrs", "mstrs", "trs");
+  private static final String SCRIPT_EXTENSION = ".prf";
+
+  private final String _strategy;
+  private final boolean _terminating;
+  private final int _timeout;
+  private final int _jobs;
+
+  /** A single problem, possibly with a proof script to replay on it. */
+  public static class Job {
+    private final File _problem;
+    private final File _script;
+
+    Job(File problem, File script) {
+      _problem = problem;
+      _script = script;
+    }
+
+    public File queryProblem() { return _problem; }
+    /** Returns the proof script of this job, or null if a strategy should be run instead. */
+    public File queryScript() { return _script; }
+  }
+
+  /** The outcome of a job. */
+  public static class JobResult {
+    private final Job _job;
+    private final String _result;
+    private final long _time;
+    private final long _z3calls;
+    private final String _error;
+    private Result _strategyResult;
+
+    JobResult(Job job, String result, long time, long z3calls, String error) {
+      _job = job;
+      _result = result;
+      _time = time;
+      _z3calls = z3calls;
+      _error = error;
+    }
+
+    public String queryResult() { return _result; }
+    public long queryTime() { return _time; }
+    public long queryZ3Calls() { return _z3calls; }
+    /** Returns the result of the strategy, if this job ran one and it finished; otherwise null. */
+    public Result queryStrategyResult() { return _strategyResult; }
+
+    /** Returns the result as a single line of JSON. */
+    public String toJson() {
+      StringBuilder ret = new StringBuilder("{");
+      ret.append("\"problem\": ").append(quote(_job._problem.getName()));
+      ret.append(", \"script\": ").append(_job._script == null ? "null" : quote(_job._script.getName()));
+      ret.append(", \"result\": ").append(quote(_result));
+      ret.append(", \"time\": ").append(_time);
+      ret.append(", \"z3calls\": ").append(_z3calls);
+      if (_strategyResult != null) {
+        ret.append(", \"checkedPairs\": ").append(_strategyResult.getCheckedPairs());
+        ret.append(", \"totalPairs\": ").append(_strategyResult.getTotalPairs());
+        ret.append(", \"eliminatedPairs\": ").append(_strategyResult.getEliminatedPairs());
+      }
+      if (_error != null) ret.append(", \"error\": ").append(quote(_error));
+      return ret.append("}").toString();
+    }
+
+    private static String quote(String str) {
+      StringBuilder ret = new StringBuilder("\"");
+      for (int i = 0; i < str.length(); i++) {
+        char c = str.charAt(i);
+        if (c == '"' || c == '\\') ret.append('\\').append(c);
+        else if (c == '\n') ret.append("\\n");
+        else if (c == '\t') ret.append("\\t");
+        else if (c < 0x20) ret.append(String.format("\\u%04x", (int)c));
+        else ret.append(c);
+      }
+      return ret.append('"').toString();
+    }
+  }
+
+  /**
+   * Creates a runner which uses the given strategy (orthogonal, lc or lce) for problems without a
+   * script, gives every job at most timeout seconds, and runs the given number of jobs at once.
+   */
+  public BatchRunner(String strategy, boolean terminating, int timeout, int jobs) {
+    _strategy = strategy;
+    _terminating = terminating;
+    _timeout = timeout;
+    _jobs = Math.max(1, jobs);
+  }
+
+  /** Returns the jobs for the problems in the given directory, ordered by file name. */
+  public List<Job> collectJobs(File directory) throws IOException {
+    File[] files = directory.listFiles();
+    if (files == null) throw new IOException("Cannot read directory " + directory + ".");
+    Arrays.sort(files);
+    ArrayList<File> problemFiles = new ArrayList<File>();
+    HashMap<String,File> problems = new HashMap<String,File>();
+    for (File problem : files) {
+      String name = problem.getName();
+      int dot = name.lastIndexOf('.');
+      if (dot < 0 || !problem.isFile() ||
+          !PROBLEM_EXTENSIONS.contains(name.substring(dot + 1))) continue;
+      problemFiles.add(problem);
+      problems.put(name.substring(0, dot), problem);
+    }
+    HashMap<File,ArrayList<File>> scripts = new HashMap<File,ArrayList<File>>();
+    for (File script : files) {
+      File problem = problemForScript(script.getName(), problems);
+      if (problem == null) continue;
+      scripts.computeIfAbsent(problem, p -> new ArrayList<File>()).add(script);
+    }
+    ArrayList<Job> ret = new ArrayList<Job>();
+    for (File problem : problemFiles) {
+      ArrayList<File> mine = scripts.get(problem);
+      if (mine == null) ret.add(new Job(problem, null));
+      else for (File script : mine) ret.add(new Job(problem, script));
+    }
+    return ret;
+  }
+
+  /**
+   * Returns the problem that the script with the given file name belongs to, or null if it is not a
+   * script or belongs to no problem.  Here, problems maps the names of the problem files without
+   * their extension to the problem files.
+   */
+  private static File problemForScript(String name, HashMap<String,File> problems) {
+    if (!name.endsWith(SCRIPT_EXTENSION)) return null;
+    String stem = name.substring(0, name.length() - SCRIPT_EXTENSION.length());
+    File ret = problems.get(stem);
+    if (ret != null) return ret;
+    int dot = stem.lastIndexOf('.');
+    if (dot < 0) return null;
+    return problems.get(stem.substring(0, dot));
+  }
+
+  /**
+   * Runs all jobs for the given directory, prints their results to out in order, and returns the
+   * results.
+   */
+  public List<JobResult> run(File directory, PrintStream out) throws IOException {
+    List<JobResult> ret = run(collectJobs(directory));
+    for (JobResult result : ret) out.println(result.toJson());
+    out.flush();
+    return ret;
+  }
+
+  /** Runs the given jobs in parallel, and returns their results in the same order. */
+  public List<JobResult> run(List<Job> jobs) {
+    ExecutorService executor = Executors.newFixedThreadPool(_jobs, r -> new Thread(() -> {
+      try { r.run(); }
+      finally { Z3SessionPool.release(); }
+    }));
+    try {
+      ArrayList<Future<JobResult>> futures = new ArrayList<Future<JobResult>>();
+      for (Job job : jobs) futures.add(executor.submit(() -> runJob(job)));
+      ArrayList<JobResult> ret = new ArrayList<JobResult>();
+      for (int i = 0; i < jobs.size(); i++) {
+        try { ret.add(futures.get(i).get()); }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          ret.add(new JobResult(jobs.get(i), "ERROR", 0, 0, "interrupted"));
+        }
+        catch (ExecutionException e) {
+          ret.add(new JobResult(jobs.get(i), "ERROR", 0, 0, String.valueOf(e.getCause())));
+        }
+      }
+      return ret;
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Runs a single job on the current thread, cancelling it when the timeout passes. */
+  private JobResult runJob(Job job) {
+    CancellationToken token = CancellationToken.withTimeout(_timeout * 1000L);
+    Z3Helper.resetCheckCount();
+    long start = System.currentTimeMillis();
+    String result, error = null;
+    Result strategyResult = null;
+    try {
+      TRS trs = Main.readInput(job._problem.getPath());
+      if (job._script == null) {
+        strategyResult = Main.getStrategy(trs, _strategy, _terminating).apply(token);
+        result = strategyResult.getResult().toString();
+      }
+      else result = replayScript(trs, job._script, token);
+    }
+    catch (CancelledError e) {
+      result = "TIMEOUT";
+    }
+    catch (Exception | Error e) {
+      if (e instanceof VirtualMachineError && !(e instanceof StackOverflowError)) throw (Error)e;
+      result = "ERROR";
+      error = String.valueOf(e.getMessage() == null ? e : e.getMessage());
+    }
+    long time = System.currentTimeMillis() - start;
+    JobResult ret = new JobResult(job, result, time, Z3Helper.getCheckCount(), error);
+    ret._strategyResult = strategyResult;
+    return ret;
+  }
+
+  /**
+   * Replays the given proof script on the TRS, and returns PROVEN or DISPROVEN if the proof is
+   * finished afterwards, and OPEN if not.
+   */
+  public static String replayScript(TRS trs, File script) throws Exception {
+    return replayScript(trs, script, CancellationToken.NONE);
+  }
+
+  /**
+   * Same as replayScript(trs, script), but the token is checked before every command; a
+   * CancelledError is thrown if it is cancelled.
+   */
+  public static String replayScript(TRS trs, File script, CancellationToken token)
+      throws Exception {
+    List<String> lines = Files.readAllLines(script.toPath());
+    if (lines.isEmpty()) throw new Exception("Empty proof script " + script.getName() + ".");
+    EquivalenceProof proof = null;
+    for (Equation eq : readEquations(lines.get(0), trs)) {
+      if (proof == null) proof = new EquivalenceProof(trs, eq.getLeft(), eq.getRight(),
+                                                      eq.getConstraint());
+      else proof.addEquation(eq);
+    }
+    for (int i = 1; i < lines.size(); i += 2) {
+      token.check("replay of " + script.getName());
+      proof.applyNewUserCommand(lines.get(i));
+    }
+    switch (proof.proofIsFinished()) {
+      case 1: return "PROVEN";
+      case 2: return "DISPROVEN";
+      default: return "OPEN";
+    }
+  }
+
+  /**
+   * Reads the equations from a line of a proof script; this has the form
+   * s1 TAB t1 TAB c1, s2 TAB t2 TAB c2, ...
+   * (the proof history leaves out the brackets around the constraints).
+   */
+  static List<Equation> readEquations(String line, TRS trs) throws Exception {
+    String[] parts = line.split("\t");
+    if (parts.length < 3 || parts.length % 2 == 0) {
+      throw new Exception("Cannot read equations from \"" + line + "\".");
+    }
+    ArrayList<Equation> ret = new ArrayList<Equation>();
+    String left = parts[0];
+    for (int i = 1; i + 1 < parts.length; i += 2) {
+      String constraint = parts[i+1];
+      String next = null;
+      if (i + 2 < parts.length) {
+        int k = constraint.indexOf(", ");
+        if (k < 0) throw new Exception("Cannot read equations from \"" + line + "\".");
+        next = constraint.substring(k + 2);
+        constraint = constraint.substring(0, k);
+      }
+      TreeSet<Variable> vars = new TreeSet<Variable>();
+      Term s = LcTrsInputReader.readTermFromStringWithEnv(left, trs, vars);
+      vars.addAll(s.vars().getVars());
+      Term t = LcTrsInputReader.readTermFromStringWithEnv(parts[i], trs, vars);
+      vars.addAll(t.vars().getVars());
+      Term c = LcTrsInputReader.readLogicalTermFromStringWithEnv("[" + constraint + "]", trs,
+                                                                vars);
+      ret.add(new Equation(s, t, c));
+      left = next;
+    }
+    return ret;
+  }
+}
@@ -29,7 +29,11 @@ import cora.provingstrategies.Orthogonality;
 import cora.provingstrategies.StrategyInherit;
 import hci.InputPresenter;
 import hci.InputModel;
+import cora.z3.Z3QueryCache;
 import hci.InputView;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -47,7 +51,7 @@ class CliArgs {
   /**
    * Parameter for the path of the input file of a TRS
    */
-  @Parameter(names = { "-i", "--input", "--lctrs"}, description = "Input file", required = true)
+  @Parameter(names = { "-i", "--input", "--lctrs"}, description = "Input file")
   String inputFilePath;
 
   /**
@@ -67,6 +71,30 @@ class CliArgs {
    */
   @Parameter(names = {"--terminating"}, description = "All systems are terminating")
   boolean terminating = false;
+
+  /**
+   * File in which the results of Z3 queries are stored, so that later runs can reuse them
+   */
+  @Parameter(names = {"--z3-cache"}, description = "File to store Z3 query results in")
+  String z3CacheFile = null;
+
+  /**
+   * Directory of problems (and proof scripts) to run without the graphical interface
+   */
+  @Parameter(names = {"--batch"}, description = "Directory of problems to run headless")
+  String batchDirectory = null;
+
+  /**
+   * Number of problems that are handled at the same time in batch mode
+   */
+  @Parameter(names = {"-j", "--jobs"}, description = "Number of problems run in parallel")
+  int jobs = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * File to write the JSON results of batch mode to; by default they are printed
+   */
+  @Parameter(names = {"-o", "--output"}, description = "Output file for batch results")
+  String outputFile = null;
 }
 
 public class Main {
@@ -76,7 +104,7 @@ public class Main {
     return "";
   }
 
-  private static TRS readInput(String file) throws Exception {
+  static TRS readInput(String file) throws Exception {
     String extension = getExtension(file);
     if (extension.equals("trs") || extension.equals("mstrs")) {
       return TrsInputReader.readTrsFromFile(file);
@@ -91,16 +119,49 @@ public class Main {
   }
 
   private static StrategyInherit getStrategy(CliArgs args) throws Exception {
-    TRS trs = readInput(args.inputFilePath);
-    switch (args.strategy) {
+    return getStrategy(readInput(args.inputFilePath), args.strategy, args.terminating);
+  }
+
+  static StrategyInherit getStrategy(TRS trs, String strategy, boolean terminating)
+      throws Exception {
+    switch (strategy) {
       case "orthogonal":
         return new Orthogonality(trs);
       case "lc":
-        return new LocalConfluence(trs, args.terminating);
+        return new LocalConfluence(trs, terminating);
       case "lce":
-        return new LocalConfluenceExtended(trs, args.terminating);
+        return new LocalConfluenceExtended(trs, terminating);
       default:
-        throw new Exception("Unknown strategy: " + args.strategy);
+        throw new Exception("Unknown strategy: " + strategy);
+    }
+  }
+
+  /**
+   * Runs batch mode without the graphical interface, and returns the exit code: 0 if all jobs ran,
+   * 1 if some job ended with an error, and 2 if the batch itself could not be run.
+   */
+  private static int runBatch(CliArgs cliArgs) {
+    PrintStream out = System.out;
+    try {
+      if (cliArgs.z3CacheFile != null) {
+        Z3QueryCache.getInstance().attachStore(new File(cliArgs.z3CacheFile));
+      }
+      if (cliArgs.outputFile != null) out = new PrintStream(new FileOutputStream(cliArgs.outputFile));
+      BatchRunner runner = new BatchRunner(cliArgs.strategy, cliArgs.terminating,
+                                           cliArgs.timeout, cliArgs.jobs);
+      int ret = 0;
+      for (BatchRunner.JobResult result : runner.run(new File(cliArgs.batchDirectory), out)) {
+        if (result.queryResult().equals("ERROR")) ret = 1;
+      }
+      return ret;
+    }
+    catch (Exception e) {
+      System.err.println("Batch run failed: " + (e.getMessage() == null ? e : e.getMessage()));
+      return 2;
+    }
+    finally {
+      if (out != System.out) out.close();
+      else out.flush();
     }
   }
 
@@ -116,6 +177,10 @@ public class Main {
       JCommander.newBuilder().addObject(cliArgs).build().parse(args);
 
       new Logger(new ConsoleLogger());
+      if (cliArgs.batchDirectory != null) System.exit(runBatch(cliArgs));
+      if (cliArgs.z3CacheFile != null) {
+        Z3QueryCache.getInstance().attachStore(new File(cliArgs.z3CacheFile));
+      }
       /*
       StrategyInherit strat = getStrategy(cliArgs);
       Result result = strat.apply(cliArgs.timeout);
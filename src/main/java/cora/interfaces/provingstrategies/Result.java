@@ -10,4 +10,26 @@ public interface Result {
 
     void setTime(long time);
 
+    /**
+     * Returns the number of critical pairs the strategy had handled when it produced this result.
+     * For a TIMEOUT, this shows how far the strategy got before its deadline.
+     */
+    int getCheckedPairs();
+
+    /**
+     * Returns the total number of critical pairs, or -1 if this is not known (for instance because
+     * the deadline passed while the critical pairs were being computed).
+     */
+    int getTotalPairs();
+
+    void setProgress(int checked, int total);
+
+    /**
+     * Returns the number of critical pairs that were not checked because they are variants of a pair
+     * that was (equal modulo renaming of variables and swapping the sides).
+     */
+    int getEliminatedPairs();
+
+    void setEliminatedPairs(int eliminated);
+
 }
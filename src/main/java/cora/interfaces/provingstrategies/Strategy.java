@@ -1,9 +1,16 @@
 package cora.interfaces.provingstrategies;
 
 import cora.interfaces.rewriting.TRS;
+import cora.rewriting.CancellationToken;
 
 public interface Strategy {
 
     Result apply();
 
+    /**
+     * Applies the strategy, checking the token regularly. If the token is cancelled, a TIMEOUT
+     * result is returned which records how far the strategy got.
+     */
+    Result apply(CancellationToken token);
+
 }
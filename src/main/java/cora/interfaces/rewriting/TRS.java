@@ -19,6 +19,7 @@ import cora.interfaces.terms.FunctionSymbol;
 import cora.interfaces.terms.Term;
 import cora.interfaces.terms.Position;
 import cora.interfaces.terms.Variable;
+import cora.rewriting.CancellationToken;
 
 import java.util.List;
 
@@ -39,6 +40,12 @@ public interface TRS {
    */
   FunctionSymbol lookupSymbol(String name);
 
+  /**
+   * Returns the rules which might be applicable to t at the top (in the order in which they occur
+   * in the system); all other rules are certainly not applicable to t.
+   */
+  List<Rule> queryCandidateRules(Term t);
+
   /**
    * Returns the leftmost, innermost position where a rule may be applied, or null if no such
    * position exists.
@@ -57,8 +64,33 @@ public interface TRS {
    */
   List<Term> breadthFirstReduce(Term s);
 
+  /**
+   * Same as breadthFirstReduce(s), but checks the given token between redex positions, and
+   * throws a CancelledError if it is cancelled.
+   */
+  List<Term> breadthFirstReduce(Term s, CancellationToken token);
+
+  /**
+   * Returns the normal form of s obtained by innermost reduction, or null if no normal form is
+   * found within a reasonable number of steps.
+   */
+  Term normalize(Term s);
+
+  /**
+   * Returns the normal form of s obtained by innermost reduction, or null if this takes more than
+   * maxSteps steps. The token is checked before every step, and a CancelledError is thrown if it
+   * is cancelled.
+   */
+  Term normalize(Term s, int maxSteps, CancellationToken token);
+
   void addRule(Rule r);
 
+  /**
+   * Removes all rules with index count or higher, so that only the first count rules remain.
+   * This is used to undo addRule.
+   */
+  void truncateRules(int count);
+
   List<FunctionSymbol> querySymbols();
 
   List<FunctionSymbol> queryTheorySymbols();
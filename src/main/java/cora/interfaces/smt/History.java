@@ -2,16 +2,16 @@ package cora.interfaces.smt;
 
 import cora.interfaces.rewriting.TRS;
 
-import java.util.ArrayList;
+import java.util.List;
 
 public interface History {
     String toString();
 
     IProofState getProofState();
 
-    ArrayList<ProofEquation> getEquations();
+    List<ProofEquation> getEquations();
 
-    ArrayList<ProofEquation> getCompletenessEquations();
+    List<ProofEquation> getCompletenessEquations();
 
     boolean getCompleteness();
 
@@ -20,4 +20,6 @@ public interface History {
     boolean getBottom();
 
     TRS getLcTrs();
+
+    int getRuleCount();
 }
@@ -4,11 +4,11 @@ import cora.interfaces.terms.Term;
 import cora.interfaces.terms.Variable;
 import cora.rewriting.FirstOrderRule;
 
-import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeSet;
 
 public interface IProofState {
-    ArrayList<ProofEquation> getE();
+    List<ProofEquation> getE();
     
     Term getS();
     
@@ -16,13 +16,13 @@ public interface IProofState {
     
     Term getC();
 
-   ArrayList<ProofEquation> getCompletenessE();
+   List<ProofEquation> getCompletenessE();
 
-   void setCompletenessE(ArrayList<ProofEquation> eqs);
+   void setCompletenessE(List<ProofEquation> eqs);
    
    void emptyCompletenessSet();
 
-    ArrayList<FirstOrderRule> getH();
+    List<FirstOrderRule> getH();
 
     ProofEquation getCurrentEquation();
 
@@ -34,7 +34,13 @@ public interface IProofState {
 
     void removeCurrentEquation();
 
-    void addEquations(ArrayList<ProofEquation> eqs);
+    void addEquations(List<ProofEquation> eqs);
+
+    boolean containsEquation(ProofEquation eq);
+
+    void setEquation(int index, ProofEquation eq);
+
+    void swapEquations(int i, int j);
 
     void setC(Term c);
 
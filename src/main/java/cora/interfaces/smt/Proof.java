@@ -11,7 +11,7 @@ import cora.smt.ProofHistory;
 import cora.terms.Var;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeSet;
 
 public interface Proof {
@@ -39,7 +39,7 @@ public interface Proof {
 
     ProofEquation getCurrentEquation();
 
-    ArrayList<ProofEquation> getEquations();
+    List<ProofEquation> getEquations();
 
     Var getFreshVar(Type expectedType);
 
@@ -67,6 +67,10 @@ public interface Proof {
 
     void deleteLastState();
 
+    int getHistorySize();
+
+    IProofState restoreStep(int step);
+
     int proofIsFinished();
 
     IProofState getProofState();
@@ -0,0 +1,17 @@
+package cora.interfaces.smt;
+
+import cora.smt.AutoProver;
+import cora.smt.ProofSearchResult;
+
+/**
+ * A ProofSearchStrategy decides in which order the AutoProver explores the applications of user
+ * commands to an equivalence proof.
+ */
+public interface ProofSearchStrategy {
+    /**
+     * Searches for a proof (or disproof) starting from the current state of the prover. If one is
+     * found, the prover is left in the final state, so that its script leads there; otherwise, the
+     * state of the prover is unspecified.
+     */
+    ProofSearchResult.Outcome search(AutoProver prover);
+}
@@ -0,0 +1,30 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.interfaces.terms;
+
+import cora.terms.positions.MutablePath;
+
+/**
+ * A SubtermTransformer is passed to Term::transformPostOrder, and is called on every subterm of
+ * the term being rebuilt, after the arguments of that subterm have been transformed.
+ */
+public interface SubtermTransformer {
+  /**
+   * Returns the term that should replace the given subterm (which may be subterm itself); the
+   * result must have the same type.  The path is only valid during the call.
+   */
+  Term transform(Term subterm, MutablePath path);
+}
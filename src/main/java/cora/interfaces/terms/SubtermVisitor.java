@@ -0,0 +1,30 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.interfaces.terms;
+
+import cora.terms.positions.MutablePath;
+
+/**
+ * A SubtermVisitor is passed to Term::visitPreOrder or Term::visitPostOrder, and is called on
+ * every subterm that the traversal passes.
+ */
+public interface SubtermVisitor {
+  /**
+   * Called for the given subterm, which occurs at the given path in the term being traversed.
+   * The path is only valid during the call.  If false is returned, the traversal is aborted.
+   */
+  boolean visit(Term subterm, MutablePath path);
+}
@@ -44,6 +44,22 @@ public interface Term {
   /** Returns whether or not the current term has the form x(s1,...,sn) with n ≥ 0. */
   boolean isVarTerm();
 
+  /**
+   * Returns a 64-bit hash of the structure of the term, which is computed once for every term.
+   * Equal terms always have the same structural hash, so terms with distinct structural hashes
+   * are certainly not equal.
+   */
+  long queryStructuralHash();
+
+  /** Returns the number of positions in the term (that is, the number of nodes in its tree). */
+  int querySize();
+
+  /** Returns the length of the longest position in the term (so 0 for variables and constants). */
+  int queryDepth();
+
+  /** Returns whether the term does not contain any variables. */
+  boolean isGround();
+
   /** Returns the number of immediate subterms (that is, n for a term f(s1,...,sn)). */
   int numberImmediateSubterms();
   
@@ -94,6 +110,29 @@ public interface Term {
    */
   List<Position> queryAllPositions();
 
+  /**
+   * Calls visitor on every subterm of the current term, in pre-order: each subterm is visited
+   * before its arguments, and arguments are visited from left to right.  The path passed to the
+   * visitor is reused throughout the traversal, so no positions are created for the subterms.
+   * If the visitor returns false, the traversal is aborted and false is returned; otherwise true.
+   */
+  boolean visitPreOrder(SubtermVisitor visitor);
+
+  /**
+   * Calls visitor on every subterm of the current term, in post-order: each subterm is visited
+   * after its arguments.  This is the leftmost innermost order, as used by queryAllPositions.
+   * If the visitor returns false, the traversal is aborted and false is returned; otherwise true.
+   */
+  boolean visitPostOrder(SubtermVisitor visitor);
+
+  /**
+   * Rebuilds the current term bottom-up: for every subterm, its arguments are transformed first,
+   * and then the subterm (with the transformed arguments) is replaced by the result of the
+   * transformer.  Subterms that are not changed are not copied.
+   * If the transformer changes the type of a subterm, a TypingError is thrown.
+   */
+  Term transformPostOrder(SubtermTransformer transformer);
+
   /** Returns the set of all variables that occur in the current term. */
   Environment vars();
 
@@ -14,8 +14,7 @@ import cora.usercommands.*;
 import cora.terms.Constant;
 import cora.terms.FunctionalTerm;
 import cora.terms.Var;
-import cora.terms.positions.ArgumentPosition;
-import cora.terms.positions.EmptyPosition;
+import cora.terms.positions.ArrayPosition;
 import cora.types.ArrowType;
 import cora.types.Sort;
 import org.antlr.v4.runtime.CharStream;
@@ -656,17 +655,19 @@ public class LcTrsInputReader extends InputReader{
     }**/
 
     private Position parsePosition(ParseTree tree, boolean subtree) throws ParserException {
-        if (tree.getChild(0).getText().equals("ε")) return new EmptyPosition();
-        verifyChildIsToken(tree, 0, "NUM", "numeral in position");
-        if (tree.getChildCount() > 1) {
-            verifyChildIsToken(tree, 1, "DOT", "dot in between position numerals");
-            verifyChildIsRule(tree, 2, "pos", "position rule");
-            return new ArgumentPosition(Integer.parseInt(tree.getChild(0).getText()),
-                    parsePosition(tree.getChild(2), true));
-        } else if (Integer.parseInt(tree.getChild(0).getText()) != 0) {
-            throw new InvalidPositionException(tree.getText());
-        }
-        return new EmptyPosition();
+        ArrayList<Integer> indexes = new ArrayList<>();
+        while (!tree.getChild(0).getText().equals("ε")) {
+            verifyChildIsToken(tree, 0, "NUM", "numeral in position");
+            if (tree.getChildCount() > 1) {
+                verifyChildIsToken(tree, 1, "DOT", "dot in between position numerals");
+                verifyChildIsRule(tree, 2, "pos", "position rule");
+                indexes.add(Integer.parseInt(tree.getChild(0).getText()));
+                tree = tree.getChild(2);
+            } else if (Integer.parseInt(tree.getChild(0).getText()) != 0) {
+                throw new InvalidPositionException(tree.getText());
+            } else break;
+        }
+        return new ArrayPosition(indexes);
     }
 
     private Substitution parseSubstitution(ParseTree tree, ParseData ruleData, ParseData equationData)
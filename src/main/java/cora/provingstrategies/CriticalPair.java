@@ -1,21 +1,30 @@
 package cora.provingstrategies;
 
 import cora.interfaces.terms.Term;
-
-import java.util.Objects;
+import cora.terms.Variants;
 
 public class CriticalPair {
 
     private final Term left;
     private final Term right;
+    private final Term constraint;
 
     /**
      * Constructor for a CriticalPair. Creates a unmodifiable critical pair for the
      * given left and right term.
      */
     public CriticalPair(Term left, Term right) {
+        this(left, right, null);
+    }
+
+    /**
+     * Creates a constrained critical pair, which only needs to be joinable for instances that
+     * satisfy the constraint. A null constraint means the pair is unconstrained.
+     */
+    public CriticalPair(Term left, Term right, Term constraint) {
         this.left = left;
         this.right = right;
+        this.constraint = constraint;
     }
 
     /**
@@ -32,11 +41,48 @@ public class CriticalPair {
         return right;
     }
 
+    /**
+     * Returns the constraint of the critical pair, or null if it is unconstrained.
+     */
+    public Term getConstraint() {
+        return constraint;
+    }
+
+    /**
+     * Returns whether the other pair equals this one modulo renaming of variables and swapping the
+     * two sides; such pairs are joinable exactly when this one is.
+     */
+    public boolean isVariantOf(CriticalPair other) {
+        if ((constraint == null) != (other.constraint == null)) return false;
+        Term[] mine = tuple(left, right);
+        return Variants.areVariants(mine, other.tuple(other.left, other.right)) ||
+               Variants.areVariants(mine, other.tuple(other.right, other.left));
+    }
+
+    /** Returns [s, t], followed by the constraint if there is one. */
+    private Term[] tuple(Term s, Term t) {
+        if (constraint == null) return new Term[] { s, t };
+        return new Term[] { s, t, constraint };
+    }
+
+    /**
+     * Returns a hash code that does not depend on the names of the variables or the orientation of
+     * the pair, so pairs that are variants of each other (see isVariantOf) have the same one.
+     */
+    public int variantHash() {
+        return Variants.variantHash(tuple(left, right)) + Variants.variantHash(tuple(right, left));
+    }
+
     @Override
     public String toString() {
-        return "[" + left.toString() + ", " + right.toString() + "]";
+        if (constraint == null) return "[" + left.toString() + ", " + right.toString() + "]";
+        return "[" + left.toString() + ", " + right.toString() + " | " + constraint.toString() + "]";
     }
 
+    /**
+     * Critical pairs are compared on the precomputed structural hashes of both sides first, so
+     * that most unequal pairs are rejected without walking the terms.
+     */
     @Override
     public boolean equals(Object o) {
         if (o == null)
@@ -44,13 +90,18 @@ public class CriticalPair {
         if (!(o instanceof CriticalPair))
             return false;
         CriticalPair cp = (CriticalPair) o;
+        if (this.left.queryStructuralHash() != cp.getLeft().queryStructuralHash() ||
+            this.right.queryStructuralHash() != cp.getRight().queryStructuralHash())
+            return false;
         if (!this.left.equals(cp.getLeft()))
             return false;
-        return this.right.equals(cp.getRight());
+        if (!this.right.equals(cp.getRight()))
+            return false;
+        return constraint == null ? cp.getConstraint() == null : constraint.equals(cp.getConstraint());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(left.hashCode(), right.hashCode());
+        return Long.hashCode(31 * left.queryStructuralHash() + right.queryStructuralHash());
     }
 }
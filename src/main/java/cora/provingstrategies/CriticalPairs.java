@@ -1,24 +1,350 @@
 package cora.provingstrategies;
 
+import cora.exceptions.CancelledError;
+import cora.interfaces.rewriting.Rule;
 import cora.interfaces.rewriting.TRS;
 import cora.interfaces.terms.Position;
 import cora.interfaces.terms.Substitution;
 import cora.interfaces.terms.Term;
 import cora.interfaces.terms.Variable;
-import cora.rewriting.FirstOrderRule;
+import cora.rewriting.CancellationToken;
+import cora.terms.FunctionalTerm;
 import cora.terms.Subst;
+import cora.terms.Unifier;
 import cora.terms.Var;
+import cora.z3.SatisfiabilityEnum;
+import cora.z3.Z3SessionPool;
+import cora.z3.Z3TermHandler;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
+/**
+ * Computes the critical pairs of a TRS. Every pair of rules (i, j) is handled independently, so the
+ * n * n matrix of rule pairs is split into blocks which are handled in parallel on the common
+ * ForkJoinPool. Terms are immutable and fresh variables get their indexes from an atomic counter,
+ * so the blocks do not need to synchronise.
+ *
+ * The constructor collects all pairs in a list, in the same order as a sequential computation
+ * (row by row through the matrix). To handle pairs as soon as they are found, use stream (in no
+ * particular order) or pipeline (in the same order as the list) instead.
+ *
+ * The list and the pipeline leave out pairs which are variants of an earlier pair: equal modulo
+ * renaming of variables, possibly with the sides swapped (see CriticalPair.isVariantOf). Such pairs
+ * arise, for instance, when two rules overlap each other at the root. queryEliminated() reports how
+ * many were left out. Pairs passed to stream are not deduplicated.
+ *
+ * For an LCTRS, the critical pair of rules l1 -> r1 [c1] and l2 -> r2 [c2] is constrained by
+ * (c1 /\ c2) under the unifier. The list and the pipeline leave out pairs whose constraint Z3 finds
+ * unsatisfiable, since no instance of them exists; queryInfeasible() reports how many. The
+ * constraints are checked in batches (all at once for the list, a row at a time for the pipeline)
+ * on a single Z3 context, which is only created if some pair has a constraint.
+ */
 public class CriticalPairs {
 
+    /** Blocks of at most this many rule pairs are not split further. */
+    private static final int THRESHOLD = 16;
+
     private final List<CriticalPair> criticalPairs;
+    private boolean complete;
+    private int eliminated;
+    private int infeasible;
 
     public CriticalPairs(TRS trs) {
-        this.criticalPairs = this.criticalPairs(trs);
+        this(trs, CancellationToken.NONE);
+    }
+
+    /**
+     * Computes the critical pairs of the given TRS, checking the token after every pair of rules. If
+     * the token is cancelled, the computation stops: the pairs found until then are kept, and
+     * isComplete() returns false.
+     */
+    public CriticalPairs(TRS trs, CancellationToken token) {
+        int n = trs.queryRuleCount();
+        List<List<CriticalPair>> found = new ArrayList<>(Collections.nCopies(n * n, null));
+        // every block writes only its own entries; run() returns after all blocks are done
+        this.complete = run(trs, token, (pairs, k) -> found.set(k, pairs));
+        this.criticalPairs = new ArrayList<>();
+        VariantSet seen = new VariantSet();
+        for (List<CriticalPair> pairs : found) {
+            if (pairs == null) continue;
+            for (CriticalPair pair : pairs) {
+                if (seen.add(pair)) this.criticalPairs.add(pair);
+                else this.eliminated++;
+            }
+        }
+        List<CriticalPair> feasible = retainFeasible(trs, this.criticalPairs);
+        this.infeasible = this.criticalPairs.size() - feasible.size();
+        this.criticalPairs.retainAll(feasible);
+    }
+
+    /**
+     * Returns the pairs which are unconstrained, or whose constraint is satisfiable (or might be, if
+     * Z3 does not know), in the same order. The constraints are checked in the pooled Z3 session of
+     * the current thread, which is only acquired if there is a constrained pair.
+     */
+    private static List<CriticalPair> retainFeasible(TRS trs, List<CriticalPair> pairs) {
+        boolean constrained = false;
+        for (CriticalPair pair : pairs) constrained |= pair.getConstraint() != null;
+        if (!constrained) return pairs;
+        List<CriticalPair> ret = new ArrayList<>();
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(trs)) {
+            for (CriticalPair pair : pairs) {
+                if (pair.getConstraint() != null &&
+                        z3.satisfiable(pair.getConstraint()) == SatisfiabilityEnum.UNSAT) continue;
+                ret.add(pair);
+            }
+        }
+        return ret;
+    }
+
+    /** A set of critical pairs modulo renaming of variables and orientation. */
+    private static class VariantSet {
+        private final HashSet<Key> pairs = new HashSet<>();
+
+        /** Adds the pair, and returns false if a variant of it was already present. */
+        boolean add(CriticalPair pair) {
+            return pairs.add(new Key(pair));
+        }
+
+        private static class Key {
+            private final CriticalPair pair;
+            private final int hash;
+
+            private Key(CriticalPair pair) {
+                this.pair = pair;
+                this.hash = pair.variantHash();
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                return o instanceof Key && ((Key) o).hash == hash && ((Key) o).pair.isVariantOf(pair);
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+        }
+    }
+
+    /**
+     * Computes the critical pairs of the given TRS in parallel, and passes every pair to the consumer
+     * as soon as it is found. The consumer may be called from several threads at once, and the pairs
+     * arrive in no particular order. Returns false if the token was cancelled before all pairs were
+     * found.
+     */
+    public static boolean stream(TRS trs, CancellationToken token, Consumer<CriticalPair> consumer) {
+        return run(trs, token, (pairs, k) -> {
+            for (CriticalPair pair : pairs) consumer.accept(pair);
+        });
+    }
+
+    /**
+     * Returns the critical pairs of the given TRS as a lazy sequence, in the same order as
+     * getCriticalPairs. The rows of the rule-pair matrix are computed in parallel, ahead of the
+     * consumer; next() only waits for the row it needs. The pipeline should be closed when it is no
+     * longer needed, so that rows which have not been computed yet are skipped.
+     */
+    public static Pipeline pipeline(TRS trs, CancellationToken token) {
+        return new Pipeline(trs, token);
+    }
+
+    /**
+     * A lazy sequence of critical pairs, as returned by pipeline. If the token is cancelled while
+     * the pairs are computed, hasNext and next throw a CancelledError.
+     */
+    public static class Pipeline implements Iterator<CriticalPair>, AutoCloseable {
+        private final CancellationToken token;
+        private final AtomicBoolean cancelled;
+        private final List<Row> rows;
+        private final VariantSet seen;
+        private final TRS trs;
+        private int row;
+        private int eliminated;
+        private int infeasible;
+        private Iterator<CriticalPair> current;
+        private CriticalPair next;
+
+        private Pipeline(TRS trs, CancellationToken token) {
+            int n = trs.queryRuleCount();
+            this.token = token;
+            this.cancelled = new AtomicBoolean();
+            this.rows = new ArrayList<>();
+            this.seen = new VariantSet();
+            this.trs = trs;
+            this.row = 0;
+            this.eliminated = 0;
+            this.infeasible = 0;
+            this.current = Collections.emptyIterator();
+            this.next = null;
+            Thread caller = Thread.currentThread();
+            for (int i = 0; i < n; i++) {
+                Row r = new Row(trs, i, token, caller, cancelled);
+                rows.add(r);
+                r.fork();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                while (!current.hasNext()) {
+                    if (row == rows.size()) return false;
+                    if (token.isCancelled()) cancelled.set(true);
+                    List<CriticalPair> pairs = cancelled.get() ? null : rows.get(row).join();
+                    if (cancelled.get()) throw new CancelledError("computation of critical pairs");
+                    List<CriticalPair> fresh = new ArrayList<>();
+                    for (CriticalPair pair : pairs) {
+                        if (seen.add(pair)) fresh.add(pair);
+                        else eliminated++;
+                    }
+                    List<CriticalPair> feasible = retainFeasible(trs, fresh);
+                    infeasible += fresh.size() - feasible.size();
+                    current = feasible.iterator();
+                    row++;
+                }
+                next = current.next();
+            }
+            return true;
+        }
+
+        @Override
+        public CriticalPair next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            CriticalPair ret = next;
+            next = null;
+            return ret;
+        }
+
+        /** Returns how many of the pairs passed so far were left out as variants of earlier ones. */
+        public int queryEliminated() {
+            return eliminated;
+        }
+
+        /** Returns how many of the pairs passed so far were left out as their constraint is unsatisfiable. */
+        public int queryInfeasible() {
+            return infeasible;
+        }
+
+        /**
+         * Returns the number of critical pairs (including those that are left out as variants or as
+         * infeasible) if all rows have been computed, and -1 if not (yet).
+         */
+        public int queryTotal() {
+            int total = 0;
+            for (Row r : rows) {
+                if (cancelled.get() || !r.isDone()) return -1;
+                total += r.join().size();
+            }
+            return total;
+        }
+
+        /** Stops the computation of the rows that have not been finished yet. */
+        @Override
+        public void close() {
+            cancelled.set(true);
+            for (Row r : rows) r.cancel(false);
+        }
+    }
+
+    /** Computes the critical pairs of the ith row of the rule-pair matrix, in order. */
+    private static class Row extends RecursiveTask<List<CriticalPair>> {
+        private static final long serialVersionUID = 1L;
+
+        private final TRS trs;
+        private final int index;
+        private final CancellationToken token;
+        private final Thread caller;
+        private final AtomicBoolean cancelled;
+
+        private Row(TRS trs, int index, CancellationToken token, Thread caller, AtomicBoolean cancelled) {
+            this.trs = trs;
+            this.index = index;
+            this.token = token;
+            this.caller = caller;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected List<CriticalPair> compute() {
+            int n = trs.queryRuleCount();
+            List<List<CriticalPair>> found = new ArrayList<>(Collections.nCopies(n, null));
+            new Block(trs, index * n, (index + 1) * n, token, caller,
+                      (pairs, k) -> found.set(k - index * n, pairs), cancelled).invoke();
+            List<CriticalPair> ret = new ArrayList<>();
+            for (List<CriticalPair> pairs : found) {
+                if (pairs != null) ret.addAll(pairs);
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * Computes the critical pairs for all rule pairs, and passes those of the kth pair (i, j) (with
+     * k = i * n + j) to sink. Returns false if the token was cancelled.
+     */
+    private static boolean run(TRS trs, CancellationToken token, ObjIntConsumer<List<CriticalPair>> sink) {
+        int n = trs.queryRuleCount();
+        Block block = new Block(trs, 0, n * n, token, Thread.currentThread(), sink, new AtomicBoolean());
+        // small systems are not worth handing over to the pool
+        if (n * n <= THRESHOLD) block.compute();
+        else ForkJoinPool.commonPool().invoke(block);
+        return !block.cancelled.get();
+    }
+
+    /** Handles the rule pairs from (inclusive) to (exclusive), splitting them if there are many. */
+    private static class Block extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TRS trs;
+        private final int from;
+        private final int to;
+        private final CancellationToken token;
+        private final Thread caller;
+        private final ObjIntConsumer<List<CriticalPair>> sink;
+        private final AtomicBoolean cancelled;
+
+        private Block(TRS trs, int from, int to, CancellationToken token, Thread caller,
+                      ObjIntConsumer<List<CriticalPair>> sink, AtomicBoolean cancelled) {
+            this.trs = trs;
+            this.from = from;
+            this.to = to;
+            this.token = token;
+            this.caller = caller;
+            this.sink = sink;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Block(trs, from, middle, token, caller, sink, cancelled),
+                          new Block(trs, middle, to, token, caller, sink, cancelled));
+                return;
+            }
+            int n = trs.queryRuleCount();
+            for (int k = from; k < to; k++) {
+                // the pool threads are not interrupted along with the thread that started the
+                // computation, so that one is checked as well
+                if (cancelled.get() || token.isCancelled() || caller.isInterrupted()) {
+                    cancelled.set(true);
+                    return;
+                }
+                sink.accept(criticalPair(trs, k / n, k % n), k);
+            }
+        }
     }
 
     /**
@@ -26,71 +352,113 @@ public class CriticalPairs {
      * match the complete terms. Else we try to match t2 with a non-variable subterm of t1. No matching results in
      * it returning null, as there is no overlap.
      */
-    private List<Substitution> overlap(Term t1, Term t2) {
+    private static List<Substitution> overlap(Term t1, Term t2) {
         List<Substitution> substitutions = new ArrayList<>();
-        List<Position> positions = t1.queryAllPositions();
-        for (Position pos : positions) {
-            if (!t1.querySubterm(pos).isVariable()) {
-                Substitution s = t1.querySubterm(pos).unify(t2);
-                if (s != null) {
-                    substitutions.add(t1.querySubterm(pos).unify(t2));
-                }
+        t1.visitPostOrder((sub, path) -> {
+            if (!sub.isVariable()) {
+                Substitution s = Unifier.unify(sub, t2);
+                if (s != null) substitutions.add(s);
             }
-        }
+            return true;
+        });
         return substitutions;
     }
 
     /**
-     * Replaces all variables in rule r with fresh variables.
+     * Replaces all variables in rule r (including those that only occur in its right-hand side or
+     * constraint) with fresh variables of the same type.
      */
-    private Substitution freshVariables(FirstOrderRule r) {
+    private static Substitution freshVariables(Rule r) {
         Subst s = new Subst();
         int var_counter = 0;
-        for (Variable v : r.queryLeftSide().vars()) {
-            Var fresh = new Var("x" + var_counter);
-            s.extend(v, fresh);
-            var_counter++;
+        List<Term> parts = new ArrayList<>(List.of(r.queryLeftSide(), r.queryRightSide()));
+        if (r.queryConstraint() != null) parts.add(r.queryConstraint());
+        for (Term part : parts) {
+            for (Variable v : part.vars()) {
+                if (s.get(v) != null) continue;
+                Var fresh = new Var("x" + var_counter, v.queryType());
+                s.extend(v, fresh);
+                var_counter++;
+            }
         }
         return s;
     }
 
+    /** Returns whether c is absent or the constant TRUE, so that it does not restrict anything. */
+    private static boolean trivial(Term c) {
+        return c == null || (c.isConstant() && c.queryRoot().queryName().equals("TRUE"));
+    }
+
+    /**
+     * Returns the conjunction of the two constraints, leaving out those which are trivial; null if
+     * both are.
+     */
+    private static Term conjunction(TRS trs, Term c1, Term c2) {
+        if (trivial(c1)) return trivial(c2) ? null : c2;
+        if (trivial(c2)) return c1;
+        return new FunctionalTerm(trs.lookupSymbol("/\\"), c1, c2);
+    }
+
+    /**
+     * Returns the last position (in leftmost innermost order) where t2 occurs as a subterm of t1,
+     * or null if there is no such position.
+     */
+    private static Position lastOccurrence(Term t1, Term t2) {
+        Position[] ret = new Position[1];
+        t1.visitPostOrder((sub, path) -> {
+            if (sub.equals(t2)) ret[0] = path.toPosition();
+            return true;
+        });
+        return ret[0];
+    }
+
     /**
      * Finds all the critical pairs for the two given rules. Leaves out trivial critical pairs (l = r),
      * since these don't influence the results of the proving strategies.
      */
-    private List<CriticalPair> criticalPair(TRS trs, int r1index, int r2index) {
+    private static List<CriticalPair> criticalPair(TRS trs, int r1index, int r2index) {
         List<CriticalPair> pairs = new ArrayList<>();
-        FirstOrderRule temp = new FirstOrderRule(trs.queryRule(r1index).queryLeftSide(), trs.queryRule(r1index).queryRightSide());
-        Substitution fresh_vars = freshVariables(temp);
+        Rule r1 = trs.queryRule(r1index);
+        Rule r2 = trs.queryRule(r2index);
+        Substitution fresh_vars = freshVariables(r1);
+        Term c1 = trivial(r1.queryConstraint()) ? null : r1.queryConstraint().substitute(fresh_vars);
         List<Substitution> substitutions = overlap(trs.queryRule(r1index).queryLeftSide().substitute(fresh_vars), trs.queryRule(r2index).queryLeftSide());
         for (Substitution s : substitutions) {
             Term t1 = (trs.queryRule(r1index).queryLeftSide().substitute(fresh_vars).substitute(s));
             Term t2 = (trs.queryRule(r2index).queryLeftSide()).substitute(s);
             Term left = null;
             Term right = trs.queryRule(r1index).queryRightSide().substitute(fresh_vars).substitute(s);
-            for (Position pos : t1.queryAllPositions()) {
-                if (t1.querySubterm(pos).equals(t2))
-                    left = t1.replaceSubterm(pos, trs.queryRule(r2index).queryRightSide().substitute(s));
+            Position pos = lastOccurrence(t1, t2);
+            if (pos != null) {
+                left = t1.replaceSubterm(pos, trs.queryRule(r2index).queryRightSide().substitute(s));
             }
             if (left != null && !left.equals(right)) {
-                pairs.add(new CriticalPair(left, right));
+                Term d1 = c1 == null ? null : c1.substitute(s);
+                Term d2 = trivial(r2.queryConstraint()) ? null : r2.queryConstraint().substitute(s);
+                // the constraint of the rule with the lower index goes first, so that the pairs for
+                // (i, j) and (j, i) can be recognised as variants
+                Term constraint = r1index <= r2index ? conjunction(trs, d1, d2) : conjunction(trs, d2, d1);
+                pairs.add(new CriticalPair(left, right, constraint));
             }
         }
         return pairs;
     }
 
     /**
-     * Finds a list of all the non-trivial critical pairs (t is not equivalent to s).
+     * Returns whether all critical pairs were found; this is false if the computation was cancelled.
      */
-    private List<CriticalPair> criticalPairs(TRS trs) {
-        List<CriticalPair> pairs = new ArrayList<>();
-        for (int i = 0; i < trs.queryRuleCount(); i++) {
-            for (int j = 0; j < trs.queryRuleCount(); j++) {
-                List<CriticalPair> rule_pairs = criticalPair(trs, i, j);
-                pairs.addAll(rule_pairs);
-            }
-        }
-        return pairs;
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /** Returns how many critical pairs were left out because they are variants of earlier ones. */
+    public int queryEliminated() {
+        return eliminated;
+    }
+
+    /** Returns how many critical pairs were left out because their constraint is unsatisfiable. */
+    public int queryInfeasible() {
+        return infeasible;
     }
 
     /**
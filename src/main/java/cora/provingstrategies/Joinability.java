@@ -0,0 +1,183 @@
+package cora.provingstrategies;
+
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.FunctionSymbol;
+import cora.interfaces.terms.Term;
+import cora.rewriting.CancellationToken;
+import cora.terms.FunctionalTerm;
+import cora.types.Sort;
+import cora.z3.Z3SessionPool;
+import cora.z3.Z3TermHandler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Searches for common reducts of two terms. The terms reachable from either side are computed
+ * separately, breadth-first, and kept in hash sets, so every term is expanded at most once per
+ * side. In every round the side with the smaller frontier is expanded by one step; as soon as a
+ * term is reached from both sides, the search stops and returns it.
+ *
+ * The one-step reducts of every expanded term are remembered, and shared between all searches
+ * done with the same Joinability object. Since the critical pairs of a TRS tend to reach the same
+ * terms, one object should be used for all critical pairs of the TRS. The cache is thread-safe.
+ *
+ * A search may be given a constraint (for a constrained critical pair of an LCTRS). Then two
+ * reducts also meet if they differ only in subterms of sort Int or Bool, and Z3 shows that the
+ * constraint implies that these subterms are equal; for instance, g(x) and g(1) meet under the
+ * constraint x = 1. The reduction steps themselves do not take the constraint into account (and,
+ * as elsewhere, do not check the constraints of the rules), so this is an approximation of
+ * joinability in LCTRSs.
+ */
+public class Joinability {
+
+    /** The cache stops growing once it holds this many terms. */
+    public static final int DEFAULT_CACHE_CAPACITY = 100000;
+
+    private final TRS trs;
+    private final int capacity;
+    private final Map<Term, List<Term>> reducts;
+
+    public Joinability(TRS trs) {
+        this(trs, DEFAULT_CACHE_CAPACITY);
+    }
+
+    public Joinability(TRS trs, int capacity) {
+        this.trs = trs;
+        this.capacity = capacity;
+        this.reducts = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns a term that both s and t reduce to, or null if the terms reachable from s and t are
+     * all found and none of them is reachable from both. The search does not end if infinitely many
+     * terms are reachable and there is no common reduct; the token can be used to stop it, in which
+     * case a CancelledError is thrown.
+     */
+    public Term commonReduct(Term s, Term t, CancellationToken token) {
+        return commonReduct(s, t, null, token);
+    }
+
+    /**
+     * Same as commonReduct(s, t, token), but reducts meet when the constraint implies that they are
+     * equal (see the class comment); the reduct of s is returned. A null constraint means none.
+     */
+    public Term commonReduct(Term s, Term t, Term constraint, CancellationToken token) {
+        if (constraint == null) return search(s, t, null, token);
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(trs)) {
+            return search(s, t, new ConstrainedEquality(constraint, z3), token);
+        }
+    }
+
+    /** Does the search for commonReduct; equality is null if reducts only meet when they are equal. */
+    private Term search(Term s, Term t, ConstrainedEquality equality, CancellationToken token) {
+        if (s.equals(t) || (equality != null && equality.holds(s, t))) return s;
+        HashSet<Term> leftSeen = new HashSet<>();
+        HashSet<Term> rightSeen = new HashSet<>();
+        List<Term> leftFrontier = new ArrayList<>();
+        List<Term> rightFrontier = new ArrayList<>();
+        leftSeen.add(s);
+        leftFrontier.add(s);
+        rightSeen.add(t);
+        rightFrontier.add(t);
+        while (!leftFrontier.isEmpty() || !rightFrontier.isEmpty()) {
+            token.check("search for a joining reduct");
+            boolean left = rightFrontier.isEmpty() ||
+                    (!leftFrontier.isEmpty() && leftFrontier.size() <= rightFrontier.size());
+            List<Term> frontier = left ? leftFrontier : rightFrontier;
+            HashSet<Term> seen = left ? leftSeen : rightSeen;
+            HashSet<Term> other = left ? rightSeen : leftSeen;
+            List<Term> next = new ArrayList<>();
+            for (Term u : frontier) {
+                for (Term v : reducts(u, token)) {
+                    if (!seen.add(v)) continue;
+                    if (other.contains(v)) return v;
+                    if (equality != null) {
+                        for (Term w : other) {
+                            if (equality.holds(v, w)) return left ? v : w;
+                        }
+                    }
+                    next.add(v);
+                }
+            }
+            if (left) leftFrontier = next;
+            else rightFrontier = next;
+        }
+        return null;
+    }
+
+    /** Returns the one-step reducts of u, using the cache if possible. */
+    private List<Term> reducts(Term u, CancellationToken token) {
+        List<Term> ret = reducts.get(u);
+        if (ret == null) {
+            ret = trs.breadthFirstReduce(u, token);
+            if (reducts.size() < capacity) reducts.put(u, ret);
+        }
+        return ret;
+    }
+
+    /** Returns the number of terms whose reducts are cached. */
+    public int queryCacheSize() {
+        return reducts.size();
+    }
+
+    /** Decides whether two terms are equal under a constraint, using Z3. */
+    private class ConstrainedEquality {
+        private final Term constraint;
+        private final Z3TermHandler z3;
+        private final FunctionSymbol intEquality;
+        private final FunctionSymbol boolEquality;
+        private final FunctionSymbol and;
+
+        private ConstrainedEquality(Term constraint, Z3TermHandler z3) {
+            this.constraint = constraint;
+            this.z3 = z3;
+            this.intEquality = trs.lookupSymbol("==i");
+            this.boolEquality = trs.lookupSymbol("==b");
+            this.and = trs.lookupSymbol("/\\");
+        }
+
+        /**
+         * Returns whether u and w differ only in subterms of sort Int or Bool, which the constraint
+         * implies to be equal.
+         */
+        boolean holds(Term u, Term w) {
+            List<Term> equations = new ArrayList<>();
+            if (!differences(u, w, equations)) return false;
+            if (equations.isEmpty()) return true;
+            Term conclusion = equations.get(0);
+            for (int i = 1; i < equations.size(); i++) {
+                conclusion = new FunctionalTerm(and, conclusion, equations.get(i));
+            }
+            return z3.implies(constraint, conclusion);
+        }
+
+        /**
+         * Adds an equation to equations for every outermost position where u and w differ, and
+         * returns false if they differ at a position that does not have sort Int or Bool.
+         */
+        private boolean differences(Term u, Term w, List<Term> equations) {
+            if (u.equals(w)) return true;
+            if (!u.queryType().equals(w.queryType())) return false;
+            FunctionSymbol equality = null;
+            if (u.queryType().equals(Sort.intSort)) equality = intEquality;
+            else if (u.queryType().equals(Sort.boolSort)) equality = boolEquality;
+            if (equality != null && and != null) {
+                equations.add(new FunctionalTerm(equality, u, w));
+                return true;
+            }
+            if (!u.isFunctionalTerm() || !w.isFunctionalTerm() ||
+                    !u.queryRoot().equals(w.queryRoot()) ||
+                    u.numberImmediateSubterms() != w.numberImmediateSubterms()) return false;
+            for (int i = 1; i <= u.numberImmediateSubterms(); i++) {
+                if (!differences(u.queryImmediateSubterm(i), w.queryImmediateSubterm(i), equations)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
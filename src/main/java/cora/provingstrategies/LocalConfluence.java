@@ -4,60 +4,62 @@ import cora.interfaces.provingstrategies.Result;
 import cora.interfaces.provingstrategies.Strategy;
 import cora.interfaces.rewriting.TRS;
 import cora.interfaces.terms.Term;
+import cora.exceptions.CancelledError;
+import cora.rewriting.CancellationToken;
 
-import java.util.*;
-
+/**
+ * Checks whether all critical pairs of a TRS are joinable. The critical pairs are tested as soon as
+ * they are produced (see CriticalPairs.pipeline), and the analysis stops at the first pair that is
+ * not joinable, since that already shows the TRS is not confluent. Joinability is decided by a
+ * Joinability engine, which caches reducts across all critical pairs of the TRS. The constraint of
+ * a constrained critical pair is passed on to the engine, so its reducts may be joined modulo the
+ * theory; this is an approximation (see Joinability), so for an LCTRS, NON_CONFLUENT only means
+ * that some critical pair could not be shown to be joinable.
+ */
 public class LocalConfluence extends StrategyInherit implements Strategy{
 
     protected boolean terminating;
+    private final Joinability joinability;
 
     public LocalConfluence(TRS trs, boolean terminating) {
         super(trs);
         this.terminating = terminating;
+        this.joinability = new Joinability(trs);
     }
 
 
-    private CriticalPair localConvergence(CriticalPair pair) {
-        Queue<CriticalPair> q = new LinkedList<>();
-        q.add(pair);
-        while (!q.isEmpty()) {
-            CriticalPair terms = q.poll();
-            List<Term> left_reductions = trs.breadthFirstReduce(terms.getLeft());
-            List<Term> right_reductions = trs.breadthFirstReduce(terms.getRight());
-            List<CriticalPair> reduce_left = cartesian(terms.getRight(), left_reductions);
-            List<CriticalPair> reduce_right = cartesian(terms.getLeft(), right_reductions);
-            List<CriticalPair> cartesian = new ArrayList<>();
-            cartesian.addAll(reduce_right);
-            cartesian.addAll(reduce_left);
-            for (CriticalPair new_pair : cartesian) {
-                if (new_pair.getLeft().equals(new_pair.getRight())) return new_pair;
-                q.add(new_pair);
-            }
-        }
-        return new CriticalPair(null, null);
-    }
-
-    protected List<CriticalPair> cartesian(Term unreduced, List<Term> reduced) {
-        List<CriticalPair> reductions = new ArrayList<>();
-        for (Term t : reduced) {
-            reductions.add(new CriticalPair(unreduced, t));
-        }
-        return reductions;
+    /**
+     * Searches for a joining reduct of the pair (under its constraint, if it has one), and returns
+     * the joined pair if one is found, or a pair of nulls if the search space is exhausted.
+     */
+    protected CriticalPair localConvergence(CriticalPair pair, CancellationToken token) {
+        Term reduct = joinability.commonReduct(pair.getLeft(), pair.getRight(),
+                pair.getConstraint(), token);
+        return new CriticalPair(reduct, reduct);
     }
 
     @Override
-    public Result apply() {
-        boolean converges = true;
-        for (CriticalPair pair : super.criticalPairs) {
-            CriticalPair local_convergence = localConvergence(pair);
-            if (local_convergence.getLeft() == null || local_convergence.getRight() == null) converges = false;
-        }
-        if (converges) {
-            if (terminating)
-                return new ResultInherit(Result.RESULT.CONFLUENT);
-            return new ResultInherit(Result.RESULT.LOCALLY_CONFLUENT);
+    public Result apply(CancellationToken token) {
+        int checked = 0;
+        Result ret;
+        try (CriticalPairs.Pipeline pairs = CriticalPairs.pipeline(trs, token)) {
+            try {
+                Result.RESULT res = terminating ? Result.RESULT.CONFLUENT : Result.RESULT.LOCALLY_CONFLUENT;
+                while (pairs.hasNext()) {
+                    CriticalPair local_convergence = localConvergence(pairs.next(), token);
+                    checked++;
+                    if (local_convergence.getLeft() == null || local_convergence.getRight() == null) {
+                        res = Result.RESULT.NON_CONFLUENT;
+                        break;
+                    }
+                }
+                ret = result(res, checked, pairs.queryTotal());
+            } catch (CancelledError e) {
+                ret = timeout(checked, pairs.queryTotal());
+            }
+            ret.setEliminatedPairs(pairs.queryEliminated());
         }
-        return new ResultInherit(Result.RESULT.NON_CONFLUENT);
+        return ret;
     }
 
 }
@@ -1,59 +1,16 @@
 package cora.provingstrategies;
 
-import cora.interfaces.provingstrategies.Result;
 import cora.interfaces.provingstrategies.Strategy;
 import cora.interfaces.rewriting.TRS;
-import cora.interfaces.terms.Term;
-
-import java.util.*;
-
 
+/**
+ * LocalConfluenceExtended used to differ from LocalConfluence by remembering the pairs it had
+ * visited while searching for a joining reduct. LocalConfluence now does this (and more) through
+ * the Joinability engine, so the two strategies coincide; this class is kept for the lce option.
+ */
 public class LocalConfluenceExtended extends LocalConfluence implements Strategy{
 
     public LocalConfluenceExtended(TRS trs, boolean terminating) {
         super(trs, terminating);
     }
-
-    private CriticalPair localConvergence(CriticalPair pair) {
-        Queue<CriticalPair> q = new LinkedList<>();
-        HashSet<CriticalPair> previous_pairs = new HashSet<>();
-        previous_pairs.add(pair);
-        q.add(pair);
-        while (!q.isEmpty()) {
-            CriticalPair terms = q.poll();
-            List<Term> left_reductions = trs.breadthFirstReduce(terms.getLeft());
-            List<Term> right_reductions = trs.breadthFirstReduce(terms.getRight());
-            List<CriticalPair> reduce_left = super.cartesian(terms.getRight(), left_reductions);
-            List<CriticalPair> reduce_right = super.cartesian(terms.getLeft(), right_reductions);
-            List<CriticalPair> cartesian = new ArrayList<>();
-            cartesian.addAll(reduce_right);
-            cartesian.addAll(reduce_left);
-            for (CriticalPair new_pair : cartesian) {
-                if (new_pair.getLeft().equals(new_pair.getRight())) return new_pair;
-                if (previous_pairs.add(new_pair)) {
-                    q.add(new_pair);
-                }
-            }
-        }
-        return new CriticalPair(null, null);
-    }
-
-    @Override
-    public Result apply() {
-        boolean converges = true;
-        for (CriticalPair pair : this.criticalPairs) {
-            CriticalPair local_convergence = this.localConvergence(pair);
-            if (local_convergence.getLeft() == null || local_convergence.getRight() == null) {
-                converges = false;
-                break;
-            }
-        }
-        if (converges) {
-            if (super.terminating) {
-                return new ResultInherit(Result.RESULT.CONFLUENT);
-            }
-            return new ResultInherit(Result.RESULT.LOCALLY_CONFLUENT);
-        }
-        return new ResultInherit(Result.RESULT.NON_CONFLUENT);
-    }
 }
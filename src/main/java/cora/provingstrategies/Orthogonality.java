@@ -5,8 +5,11 @@ import cora.interfaces.provingstrategies.Strategy;
 import cora.interfaces.rewriting.TRS;
 import cora.interfaces.terms.*;
 import cora.terms.Var;
+import cora.exceptions.CancelledError;
+import cora.rewriting.CancellationToken;
 
 import java.util.HashSet;
+import java.util.List;
 
 public class Orthogonality extends StrategyInherit implements Strategy{
 
@@ -36,7 +39,13 @@ public class Orthogonality extends StrategyInherit implements Strategy{
      * has only trivial Critical Pairs (which are already discarded)
      */
     @Override
-    public Result apply() {
+    public Result apply(CancellationToken token) {
+        List<CriticalPair> criticalPairs;
+        try {
+            criticalPairs = getCriticalPairs(token);
+        } catch (CancelledError e) {
+            return timeout(0, -1);
+        }
         boolean left_linear = true;
         for (int i = 0; i < trs.queryRuleCount(); i++) {
             HashSet<Var> used_vars = new HashSet<>();
@@ -46,8 +55,8 @@ public class Orthogonality extends StrategyInherit implements Strategy{
             }
         }
         if (left_linear && criticalPairs.isEmpty()) {
-            return new ResultInherit(Result.RESULT.CONFLUENT);
+            return result(Result.RESULT.CONFLUENT, criticalPairs.size(), criticalPairs.size());
         }
-        return new ResultInherit(Result.RESULT.MAYBE);
+        return result(Result.RESULT.MAYBE, criticalPairs.size(), criticalPairs.size());
     }
 }
@@ -6,15 +6,20 @@ public class ResultInherit implements Result {
 
     private RESULT res;
     private long timeout;
+    private int checked;
+    private int total;
+    private int eliminated;
 
     public ResultInherit(RESULT res, long timeout) {
         this.res = res;
         this.timeout = timeout;
+        this.checked = 0;
+        this.total = -1;
+        this.eliminated = 0;
     }
 
     public ResultInherit(RESULT res) {
-        this.res = res;
-        this.timeout = 0;
+        this(res, 0);
     }
 
     @Override
@@ -31,4 +36,30 @@ public class ResultInherit implements Result {
     public long getTime() {
         return timeout;
     }
+
+    @Override
+    public int getCheckedPairs() {
+        return checked;
+    }
+
+    @Override
+    public int getTotalPairs() {
+        return total;
+    }
+
+    @Override
+    public void setProgress(int checked, int total) {
+        this.checked = checked;
+        this.total = total;
+    }
+
+    @Override
+    public int getEliminatedPairs() {
+        return eliminated;
+    }
+
+    @Override
+    public void setEliminatedPairs(int eliminated) {
+        this.eliminated = eliminated;
+    }
 }
@@ -1,8 +1,11 @@
 package cora.provingstrategies;
 
+import cora.exceptions.CancelledError;
 import cora.interfaces.provingstrategies.Result;
 import cora.interfaces.provingstrategies.Strategy;
 import cora.interfaces.rewriting.TRS;
+import cora.rewriting.CancellationToken;
+import cora.z3.Z3SessionPool;
 
 import java.util.List;
 import java.util.concurrent.*;
@@ -10,51 +13,101 @@ import java.util.concurrent.*;
 /**
  * StrategyInherit describes all default functionality for instances of Strategy.
  *
+ * Strategies stop cooperatively: they check a CancellationToken while computing critical pairs
+ * and searching for joining reducts, and return a TIMEOUT result which records how many critical
+ * pairs were handled. apply(int timeout) runs a strategy on a shared, bounded executor with a
+ * token for the deadline, so that timed-out strategies do not keep running in the background.
  */
 public abstract class StrategyInherit implements Strategy {
 
-    public final List<CriticalPair> criticalPairs;
-    protected final TRS trs;
+    /** How long apply(int) waits beyond the deadline for a strategy to notice it, in ms. */
+    public static final long GRACE_PERIOD = 1000;
+
+    private static final ThreadPoolExecutor EXECUTOR;
 
-    public abstract Result apply();
+    static {
+        int threads = Runtime.getRuntime().availableProcessors();
+        EXECUTOR = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    // strategies may check constraints in the Z3 session of their thread
+                    Thread t = new Thread(() -> {
+                        try { r.run(); }
+                        finally { Z3SessionPool.release(); }
+                    }, "cora-strategy");
+                    t.setDaemon(true);
+                    return t;
+                });
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    protected final TRS trs;
+    private List<CriticalPair> criticalPairs;
 
     /**
-     * Constructor for a Strategy. Always takes a TRS and computes the
-     * Critical Pairs associated with it.
+     * Constructor for a Strategy. Always takes a TRS; the Critical Pairs associated with it are
+     * computed when the strategy is applied.
      */
     StrategyInherit(TRS trs) {
         this.trs = trs;
-        this.criticalPairs = this.getCriticalPairs();
+        this.criticalPairs = null;
     }
 
-    /** Gets the list of Critical Pairs for the current TRS. */
-    private List<CriticalPair> getCriticalPairs() {
-        CriticalPairs cp = new CriticalPairs(trs);
-        return cp.getCriticalPairs();
+    /**
+     * Gets the list of Critical Pairs for the current TRS, computing it the first time. Throws a
+     * CancelledError if the token is cancelled before all pairs are found.
+     */
+    protected List<CriticalPair> getCriticalPairs(CancellationToken token) {
+        if (criticalPairs == null) {
+            CriticalPairs cp = new CriticalPairs(trs, token);
+            if (!cp.isComplete()) throw new CancelledError("computation of critical pairs");
+            criticalPairs = cp.getCriticalPairs();
+        }
+        return criticalPairs;
+    }
+
+    /** Applies the strategy without a deadline. */
+    @Override
+    public final Result apply() {
+        return apply(CancellationToken.NONE);
+    }
+
+    /**
+     * Returns a result recording that checked out of total critical pairs were handled (total is -1
+     * if the critical pairs were not all computed).
+     */
+    protected Result result(Result.RESULT res, int checked, int total) {
+        Result r = new ResultInherit(res);
+        r.setProgress(checked, total);
+        return r;
+    }
+
+    /** Returns a TIMEOUT result, recording how many critical pairs were handled. */
+    protected Result timeout(int checked, int total) {
+        return result(Result.RESULT.TIMEOUT, checked, total);
     }
 
     /**
-     * Creates a thread that applies the method of the instantiated Strategy.
+     * Applies the strategy on the shared executor, with a deadline of timeout seconds.
      * Waits for a result and the time.
      * If it is within the timeout, the Result type is given. Otherwise, a
-     * timeout is called.
+     * timeout is returned, with the progress the strategy made.
      */
     public final Result apply (int timeout) throws Exception {
-        ExecutorService ex = Executors.newSingleThreadExecutor();
-        Future<Result> future = ex.submit((Callable<Result>) this::apply);
+        CancellationToken token = CancellationToken.withTimeout(timeout * 1000L);
+        long starttime = System.currentTimeMillis();
+        Future<Result> future = EXECUTOR.submit(() -> apply(token));
         try {
-            long starttime = System.currentTimeMillis();
-            Result r = future.get(timeout, TimeUnit.SECONDS);
-            long time = System.currentTimeMillis() - starttime;
-            r.setTime(time);
+            Result r = future.get(timeout * 1000L + GRACE_PERIOD, TimeUnit.MILLISECONDS);
+            r.setTime(System.currentTimeMillis() - starttime);
             return r;
         } catch (TimeoutException te) {
+            token.cancel();
             future.cancel(true);
             return new ResultInherit(Result.RESULT.TIMEOUT, timeout*1000);
         } catch (InterruptedException | ExecutionException exc) {
+            token.cancel();
+            future.cancel(true);
             throw new Exception(exc.getMessage());
-        } finally {
-            ex.shutdown();
         }
     }
 
@@ -0,0 +1,81 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.rewriting;
+
+import cora.exceptions.CancelledError;
+
+/**
+ * A CancellationToken is passed to long-running computations (such as normalising a term or
+ * searching for a joining reduct), which check it regularly and stop when it is cancelled.
+ * A token is cancelled when cancel() is called on it, when its deadline (if any) has passed, or
+ * when the thread that checks it has been interrupted; the latter makes Future.cancel(true) work
+ * for computations that use a token.
+ *
+ * Tokens may be shared between threads: one thread may cancel a token that another is checking.
+ */
+public class CancellationToken {
+  /** A token that is never cancelled (except by interrupting the thread that checks it). */
+  public static final CancellationToken NONE = new CancellationToken(Long.MAX_VALUE) {
+    @Override
+    public void cancel() {}
+  };
+
+  private final long _deadline;
+  private volatile boolean _cancelled;
+
+  /** Creates a token with the given deadline, in the format of System.currentTimeMillis(). */
+  private CancellationToken(long deadline) {
+    _deadline = deadline;
+    _cancelled = false;
+  }
+
+  /** Creates a token without a deadline, which is only cancelled by calling cancel(). */
+  public CancellationToken() {
+    this(Long.MAX_VALUE);
+  }
+
+  /** Creates a token that is cancelled automatically once the given number of ms has passed. */
+  public static CancellationToken withTimeout(long millis) {
+    long now = System.currentTimeMillis();
+    return new CancellationToken(millis >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + millis);
+  }
+
+  /** Cancels the token: every computation that checks it will stop. */
+  public void cancel() {
+    _cancelled = true;
+  }
+
+  /** Returns whether the token has been cancelled, or its deadline has passed. */
+  public boolean isCancelled() {
+    if (_cancelled) return true;
+    if (Thread.currentThread().isInterrupted()) return true;
+    return _deadline != Long.MAX_VALUE && System.currentTimeMillis() >= _deadline;
+  }
+
+  /** Returns the number of ms left until the deadline, or Long.MAX_VALUE if there is none. */
+  public long queryRemainingTime() {
+    if (_deadline == Long.MAX_VALUE) return Long.MAX_VALUE;
+    return Math.max(0, _deadline - System.currentTimeMillis());
+  }
+
+  /**
+   * Throws a CancelledError if the token has been cancelled; the given description of the
+   * computation is included in the message.
+   */
+  public void check(String computation) {
+    if (isCancelled()) throw new CancelledError(computation);
+  }
+}
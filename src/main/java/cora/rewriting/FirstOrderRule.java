@@ -32,6 +32,8 @@ public class FirstOrderRule extends RuleInherit implements Rule {
    * If the types don't match, a TypingError is thrown.
    */
   private Term _constraint;
+  /** The compiled left-hand side, used to test and apply the rule without building a Subst. */
+  private Matcher _matcher;
 
   public FirstOrderRule(Term left, Term right) {
     super(left, right, false);
@@ -55,11 +57,13 @@ public class FirstOrderRule extends RuleInherit implements Rule {
         throw new IllegalRuleError("FirstOrderRule", "illegal rule [" + left.toString() + " → " +
           right.toString() + "] with a variable as the left-hand side.");
     }
+    _matcher = new Matcher(left);
   }
 
     public FirstOrderRule(FirstOrderRule rule) {
         super(rule._left, rule._right, rule._completenessSet);
         _constraint = rule._constraint;
+        _matcher = rule._matcher;
     }
 
     @Override
@@ -71,19 +75,19 @@ public class FirstOrderRule extends RuleInherit implements Rule {
   public boolean applicable(Term t) {
     //TODO if constraint, throw error
     //if (_constraint != null) return false;
-    return _left.match(t) != null;
+    return _matcher.matches(t);
   }
 
   public boolean applicable(Term t, Term c, Substitution y) {
     if (_constraint.queryRoot().queryName().equals("TRUE")) return true;
     if (_constraint.queryRoot().queryName().equals("FALSE")) return false;
-    return _left.match(t) != null;
+    return _matcher.matches(t);
     //y = rewriteConstraint(_proof, _pos, _ruleIndex);
     //return y != null;
   }
 
   public Term apply(Term t) {
-    Substitution subst = _left.match(t);
+    Substitution subst = _matcher.match(t);
     if (subst == null) return null;
     return _right.substitute(subst);
   }
@@ -106,6 +110,7 @@ public class FirstOrderRule extends RuleInherit implements Rule {
     if (!left.isFunctionalTerm()) {
       throw new IllegalRuleError("FirstOrderRule", "");
     }
+    _matcher = new Matcher(left);
   }
 
   public FirstOrderRule(Term left, Term right, Term constraint, boolean completenessSet) {
@@ -126,6 +131,7 @@ public class FirstOrderRule extends RuleInherit implements Rule {
     if (!left.isFunctionalTerm()) {
       throw new IllegalRuleError("FirstOrderRule", "");
     }
+    _matcher = new Matcher(left);
   }
 
   public String toString() {
@@ -0,0 +1,131 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.rewriting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import cora.interfaces.terms.FunctionSymbol;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Substitution;
+import cora.interfaces.terms.Variable;
+import cora.terms.Subst;
+
+/**
+ * A Matcher is a compiled form of the left-hand side of a first-order rule, which matches terms
+ * against it without allocating anything.  The pattern is flattened in pre-order: every position
+ * holds either a function symbol with its number of arguments, or the slot of a variable.  The
+ * variables get dense slot numbers 0..n-1, and while matching, their values are written into an
+ * array of n terms (which is reused between calls on the same thread).  A Substitution is only
+ * created when the match succeeds and the caller asks for it.
+ */
+class Matcher {
+  /** The binding arrays, shared between all Matchers; a match never starts another match. */
+  private static final ThreadLocal<Term[]> SCRATCH = ThreadLocal.withInitial(() -> new Term[8]);
+
+  private final FunctionSymbol[] _symbols;
+  private final int[] _arity;
+  private final int[] _slot;
+  private final Variable[] _vars;
+
+  /** Compiles the given pattern, which should be a first-order term. */
+  Matcher(Term pattern) {
+    ArrayList<FunctionSymbol> symbols = new ArrayList<FunctionSymbol>();
+    ArrayList<Integer> arity = new ArrayList<Integer>();
+    ArrayList<Integer> slot = new ArrayList<Integer>();
+    ArrayList<Variable> vars = new ArrayList<Variable>();
+    flatten(pattern, symbols, arity, slot, vars);
+    int n = symbols.size();
+    _symbols = symbols.toArray(new FunctionSymbol[n]);
+    _arity = new int[n];
+    _slot = new int[n];
+    for (int i = 0; i < n; i++) {
+      _arity[i] = arity.get(i);
+      _slot[i] = slot.get(i);
+    }
+    _vars = vars.toArray(new Variable[vars.size()]);
+  }
+
+  /** Adds the positions of t in pre-order to the given lists. */
+  private static void flatten(Term t, ArrayList<FunctionSymbol> symbols, ArrayList<Integer> arity,
+                              ArrayList<Integer> slot, ArrayList<Variable> vars) {
+    if (t.isVariable()) {
+      Variable x = t.queryVariable();
+      int k = vars.indexOf(x);
+      if (k < 0) { k = vars.size(); vars.add(x); }
+      symbols.add(null);
+      arity.add(0);
+      slot.add(k);
+      return;
+    }
+    if (!t.isFunctionalTerm()) {
+      throw new IllegalArgumentException("Cannot compile non-first-order pattern " + t + ".");
+    }
+    int n = t.numberImmediateSubterms();
+    symbols.add(t.queryRoot());
+    arity.add(n);
+    slot.add(-1);
+    for (int i = 1; i <= n; i++) flatten(t.queryImmediateSubterm(i), symbols, arity, slot, vars);
+  }
+
+  /** Returns the number of distinct variables in the pattern. */
+  int numberSlots() {
+    return _vars.length;
+  }
+
+  /** Returns the binding array for the current thread, cleared for the first n slots. */
+  private static Term[] scratch(int n) {
+    Term[] ret = SCRATCH.get();
+    if (ret.length < n) {
+      ret = new Term[Math.max(n, 2 * ret.length)];
+      SCRATCH.set(ret);
+    }
+    else Arrays.fill(ret, 0, n, null);
+    return ret;
+  }
+
+  /**
+   * Matches the pattern position pos against t, writing variable values into slots; returns the
+   * position after the subpattern at pos, or -1 if t is not an instance of it.
+   */
+  private int match(int pos, Term t, Term[] slots) {
+    int k = _slot[pos];
+    if (k >= 0) {
+      if (slots[k] == null) slots[k] = t;
+      else if (!slots[k].equals(t)) return -1;
+      return pos + 1;
+    }
+    int n = _arity[pos];
+    if (!t.isFunctionalTerm() || t.numberImmediateSubterms() != n ||
+        !_symbols[pos].equals(t.queryRoot())) return -1;
+    pos++;
+    for (int i = 1; i <= n && pos >= 0; i++) pos = match(pos, t.queryImmediateSubterm(i), slots);
+    return pos;
+  }
+
+  /** Returns whether t is an instance of the pattern. */
+  boolean matches(Term t) {
+    return match(0, t, scratch(_vars.length)) >= 0;
+  }
+
+  /** Returns the substitution gamma with pattern gamma = t, or null if there is none. */
+  Substitution match(Term t) {
+    Term[] slots = scratch(_vars.length);
+    if (match(0, t, slots) < 0) return null;
+    Subst gamma = new Subst();
+    for (int i = 0; i < _vars.length; i++) gamma.extend(_vars[i], slots[i]);
+    return gamma;
+  }
+}
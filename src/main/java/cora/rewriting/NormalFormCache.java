@@ -0,0 +1,81 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.rewriting;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import cora.interfaces.terms.Term;
+
+/**
+ * A NormalFormCache remembers, for a bounded number of terms, the normal form that was computed
+ * for them.  When the cache is full, the least recently used entry is evicted.
+ *
+ * Since terms are hash-consed by the TermFactory, lookups of terms that were constructed
+ * internally usually end at a reference comparison.
+ * All methods are synchronized, so a cache can be shared between threads.
+ */
+class NormalFormCache {
+  private final int _capacity;
+  private final LinkedHashMap<Term,Term> _map;
+  private long _hits;
+  private long _misses;
+
+  /** Creates a cache which holds at most capacity entries (capacity should be positive). */
+  NormalFormCache(int capacity) {
+    _capacity = capacity;
+    _map = new LinkedHashMap<Term,Term>(16, 0.75f, true) {
+      protected boolean removeEldestEntry(Map.Entry<Term,Term> eldest) {
+        return size() > _capacity;
+      }
+    };
+    _hits = 0;
+    _misses = 0;
+  }
+
+  /** Returns the stored normal form of t, or null if it is not (or no longer) in the cache. */
+  synchronized Term lookup(Term t) {
+    Term ret = _map.get(t);
+    if (ret == null) _misses++;
+    else _hits++;
+    return ret;
+  }
+
+  /** Stores that nf is the normal form of t. */
+  synchronized void store(Term t, Term nf) {
+    _map.put(t, nf);
+  }
+
+  /** Removes all entries; this should be done whenever the rules change. */
+  synchronized void clear() {
+    _map.clear();
+  }
+
+  synchronized int querySize() {
+    return _map.size();
+  }
+
+  synchronized int queryCapacity() {
+    return _capacity;
+  }
+
+  synchronized long queryHits() {
+    return _hits;
+  }
+
+  synchronized long queryMisses() {
+    return _misses;
+  }
+}
@@ -0,0 +1,145 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.rewriting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import cora.interfaces.terms.Term;
+import cora.interfaces.rewriting.Rule;
+
+/**
+ * A RuleIndex is a two-level discrimination tree over the left-hand sides of a list of rules: the
+ * first level is the root symbol (with its number of arguments), the second level the root symbol
+ * of the first argument.  Given a term t, it returns the indexes of those rules which might be
+ * applicable to t at the top; all other rules are certainly not applicable.
+ *
+ * Only FirstOrderRules are indexed, since they can only be applied to terms with exactly the same
+ * root and number of arguments as the left-hand side.  Other rules (such as applicative rules,
+ * which may be applied to terms with more arguments) are returned as candidates for every term.
+ */
+class RuleIndex {
+  /** Second-level key used for rules whose left-hand side has a variable as first argument. */
+  private static final String WILDCARD = "";
+
+  private final HashMap<String,HashMap<String,ArrayList<Integer>>> _index;
+  private final ArrayList<Integer> _unindexed;
+  private final ArrayList<ArrayList<Integer>> _owners;
+  private int _size;
+
+  /** Creates an empty index. */
+  RuleIndex() {
+    _index = new HashMap<String,HashMap<String,ArrayList<Integer>>>();
+    _unindexed = new ArrayList<Integer>();
+    _owners = new ArrayList<ArrayList<Integer>>();
+    _size = 0;
+  }
+
+  /** Creates an index for the given rules, where each rule is identified by its position. */
+  RuleIndex(List<Rule> rules) {
+    this();
+    for (int i = 0; i < rules.size(); i++) add(rules.get(i));
+  }
+
+  /** Returns the key that describes the root of t, or null if t does not have a function root. */
+  private static String rootKey(Term t) {
+    if (!t.isFunctionalTerm()) return null;
+    return t.queryRoot().queryName() + "/" + t.numberImmediateSubterms();
+  }
+
+  /**
+   * Adds the given rule to the index, with index queryRuleCount(); thus, rules should be added in
+   * the same order as they occur in the corresponding rule list.
+   */
+  void add(Rule rule) {
+    int index = _size;
+    _size++;
+    Term left = rule.queryLeftSide();
+    String key = rootKey(left);
+    if (!(rule instanceof FirstOrderRule) || key == null) {
+      _unindexed.add(index);
+      _owners.add(_unindexed);
+      return;
+    }
+    String argkey = WILDCARD;
+    if (left.numberImmediateSubterms() > 0) {
+      argkey = rootKey(left.queryImmediateSubterm(1));
+      if (argkey == null) argkey = WILDCARD;
+    }
+    HashMap<String,ArrayList<Integer>> sub = _index.get(key);
+    if (sub == null) {
+      sub = new HashMap<String,ArrayList<Integer>>();
+      _index.put(key, sub);
+    }
+    ArrayList<Integer> lst = sub.get(argkey);
+    if (lst == null) {
+      lst = new ArrayList<Integer>();
+      sub.put(argkey, lst);
+    }
+    lst.add(index);
+    _owners.add(lst);
+  }
+
+  /**
+   * Removes all rules with index count or higher from the index.  Since every rule is the last
+   * element of the list it was added to, this takes time linear in the number of removed rules.
+   */
+  void truncate(int count) {
+    while (_size > count) {
+      _size--;
+      ArrayList<Integer> lst = _owners.remove(_size);
+      lst.remove(lst.size() - 1);
+    }
+  }
+
+  /** Returns the number of rules that have been added to the index. */
+  int queryRuleCount() {
+    return _size;
+  }
+
+  /**
+   * Returns the (ascending) indexes of all rules that might be applicable to t at the top.
+   * The resulting list should not be modified.
+   */
+  List<Integer> queryCandidates(Term t) {
+    String key = rootKey(t);
+    HashMap<String,ArrayList<Integer>> sub = key == null ? null : _index.get(key);
+    if (sub == null) return Collections.unmodifiableList(_unindexed);
+    List<Integer> specific = null;
+    if (t.numberImmediateSubterms() > 0) {
+      String argkey = rootKey(t.queryImmediateSubterm(1));
+      if (argkey != null) specific = sub.get(argkey);
+    }
+    List<Integer> ret = merge(sub.get(WILDCARD), specific);
+    return merge(ret, _unindexed);
+  }
+
+  /** Merges two ascending lists of indexes into a single ascending list. */
+  private static List<Integer> merge(List<Integer> a, List<Integer> b) {
+    if (a == null || a.isEmpty()) return b == null ? Collections.<Integer>emptyList() : b;
+    if (b == null || b.isEmpty()) return a;
+    ArrayList<Integer> ret = new ArrayList<Integer>(a.size() + b.size());
+    int i = 0, j = 0;
+    while (i < a.size() && j < b.size()) {
+      if (a.get(i) < b.get(j)) { ret.add(a.get(i)); i++; }
+      else { ret.add(b.get(j)); j++; }
+    }
+    for (; i < a.size(); i++) ret.add(a.get(i));
+    for (; j < b.size(); j++) ret.add(b.get(j));
+    return ret;
+  }
+}
@@ -18,7 +18,9 @@ package cora.rewriting;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import cora.exceptions.IndexingError;
+import cora.exceptions.NullCallError;
 import cora.exceptions.NullInitialisationError;
 import cora.interfaces.terms.FunctionSymbol;
 import cora.interfaces.terms.Term;
@@ -34,8 +36,28 @@ import cora.interfaces.rewriting.TRS;
  * (typically infinite) set of variables, and R a set of rewrite rules.
  */
 public class TermRewritingSystem implements TRS {
+  /** The number of normal forms that are remembered by default. */
+  public static final int DEFAULT_CACHE_CAPACITY = 10000;
+  /** The maximum number of rewrite steps that normalize(Term) may take. */
+  public static final int DEFAULT_STEP_BUDGET = 10000;
+
+  /** The state of a single call to normalize: the remaining steps, and the terms being reduced. */
+  private static class Normalisation {
+    private int _budget;
+    private final HashSet<Term> _active;
+    private final CancellationToken _token;
+
+    Normalisation(int budget, CancellationToken token) {
+      _budget = budget;
+      _active = new HashSet<Term>();
+      _token = token;
+    }
+  }
+
   private Alphabet _alphabet;
   private List<Rule> _rules;
+  private RuleIndex _index;
+  private NormalFormCache _normalForms;
   private List<FunctionSymbol> _theorySymbols;
 
   /** Create an TermRewritingSystem with the given alphabet and rules. */
@@ -50,6 +72,8 @@ public class TermRewritingSystem implements TRS {
 
     _alphabet = alphabet.copy();
     _rules = new ArrayList<Rule>(rules);
+    _index = new RuleIndex(_rules);
+    _normalForms = new NormalFormCache(DEFAULT_CACHE_CAPACITY);
     _theorySymbols = new ArrayList<>();
     for (FunctionSymbol f : alphabet.queryAlphabetSymbols()) {
       if (f.isTheorySymbol()) _theorySymbols.add(f);
@@ -62,6 +86,8 @@ public class TermRewritingSystem implements TRS {
     for (int i = 0; i < trs.queryRuleCount(); i++) {
       _rules.add(trs.queryRule(i));
     }
+    _index = new RuleIndex(_rules);
+    _normalForms = new NormalFormCache(DEFAULT_CACHE_CAPACITY);
     _theorySymbols = new ArrayList<>();
   }
 
@@ -71,6 +97,8 @@ public class TermRewritingSystem implements TRS {
     for (int i = 0; i < trs.queryRuleCount(); i++) {
       _rules.add(trs.queryRule(i));
     }
+    _index = new RuleIndex(_rules);
+    _normalForms = new NormalFormCache(DEFAULT_CACHE_CAPACITY);
     _theorySymbols = new ArrayList<>();
     _theorySymbols.addAll(tSymbs);
   }
@@ -106,20 +134,34 @@ public class TermRewritingSystem implements TRS {
     return _alphabet.infix(name);
   }
 
+  /**
+   * Returns the rules which might be applicable to t at the top, in the order in which they occur
+   * in the system.  All rules which are not returned are certainly not applicable to t.
+   */
+  public List<Rule> queryCandidateRules(Term t) {
+    List<Integer> indexes = _index.queryCandidates(t);
+    List<Rule> ret = new ArrayList<Rule>(indexes.size());
+    for (int i = 0; i < indexes.size(); i++) ret.add(_rules.get(indexes.get(i)));
+    return ret;
+  }
+
   /**
    * Returns the leftmost, innermost position where a rule may be applied, or null if no such
    * position exists.
    */
   public Position leftmostInnermostRedexPosition(Term s) {
-    List<Position> positions = s.queryAllPositions();
-    for (int i = 0; i < positions.size(); i++) {
-      Position pos = positions.get(i);
-      Term sub = s.querySubterm(pos);
-      for (int j = 0; j < _rules.size(); j++) {
-        if (_rules.get(j).applicable(sub)) return pos;
+    Position[] ret = new Position[1];
+    s.visitPostOrder((sub, path) -> {
+      List<Integer> candidates = _index.queryCandidates(sub);
+      for (int j = 0; j < candidates.size(); j++) {
+        if (_rules.get(candidates.get(j)).applicable(sub)) {
+          ret[0] = path.toPosition();
+          return false;
+        }
       }
-    }
-    return null;
+      return true;
+    });
+    return ret[0];
   }
 
   /** 
@@ -128,11 +170,11 @@ public class TermRewritingSystem implements TRS {
    * If multiple rules match, an arbitrary one is chosen.
    */
   public Term leftmostInnermostReduce(Term s) {
-    List<Rule> tmp = new ArrayList<Rule>(_rules);
-    Collections.shuffle(tmp);
     Position pos = leftmostInnermostRedexPosition(s);
     if (pos == null) return null;
     Term subterm = s.querySubterm(pos);
+    List<Rule> tmp = queryCandidateRules(subterm);
+    Collections.shuffle(tmp);
     for (int j = 0; j < tmp.size(); j++) {
       Term result = tmp.get(j).apply(subterm);
       if (result != null) return s.replaceSubterm(pos, result);
@@ -145,25 +187,145 @@ public class TermRewritingSystem implements TRS {
    * if no such positions exist returns the empty list.
    */
   public List<Term> breadthFirstReduce(Term s) {
+    return breadthFirstReduce(s, CancellationToken.NONE);
+  }
+
+  /**
+   * Same as breadthFirstReduce(s), but checks the given token at every position, and throws a
+   * CancelledError if it is cancelled.
+   */
+  public List<Term> breadthFirstReduce(Term s, CancellationToken token) {
     List<Term> reductions = new ArrayList<>();
-    List<Position> positions = s.queryAllPositions();
-    for (int i = 0; i < positions.size(); i++) {
-      Position pos = positions.get(i);
-      Term sub = s.querySubterm(pos);
-      List<Rule> tmp = new ArrayList<Rule>(_rules);
-      for (int j = 0; j < tmp.size(); j++) {
-        Term result = tmp.get(j).apply(sub);
+    s.visitPostOrder((sub, path) -> {
+      token.check("reduction");
+      List<Integer> candidates = _index.queryCandidates(sub);
+      for (int j = 0; j < candidates.size(); j++) {
+        Term result = _rules.get(candidates.get(j)).apply(sub);
         if (result != null) {
-          reductions.add(s.replaceSubterm(pos, result));
+          reductions.add(s.replaceSubterm(path.toPosition(), result));
         }
       }
-    }
+      return true;
+    });
     return reductions;
   }
 
+  /**
+   * Returns the normal form of s with respect to innermost rewriting, or null if this takes more
+   * than DEFAULT_STEP_BUDGET steps.
+   */
+  public Term normalize(Term s) {
+    return normalize(s, DEFAULT_STEP_BUDGET);
+  }
+
+  /**
+   * Rewrites s to normal form with an innermost strategy, and returns the result; if this takes
+   * more than maxSteps rewrite steps, null is returned instead.
+   *
+   * The term is normalised bottom-up: first all arguments are normalised, and then rules are
+   * applied at the top (choosing the first applicable rule), after which the arguments of the
+   * result are normalised again.  The normal forms of all subterms that are encountered this way
+   * are remembered (up to the capacity of the cache), so subterms that occur many times are only
+   * normalised once.  As with leftmostInnermostReduce, constraints of rules are not checked.
+   * If computing the normal form of some subterm requires the normal form of that same subterm,
+   * the reduction cannot terminate, and null is returned immediately.
+   */
+  public Term normalize(Term s, int maxSteps) {
+    return normalize(s, maxSteps, CancellationToken.NONE);
+  }
+
+  /**
+   * Same as normalize(s, maxSteps), but the token is checked before every rewrite step, and a
+   * CancelledError is thrown if it is cancelled.  Normal forms found before that remain cached.
+   */
+  public Term normalize(Term s, int maxSteps, CancellationToken token) {
+    if (s == null) throw new NullCallError("TermRewritingSystem", "normalize", "term s");
+    if (token == null) throw new NullCallError("TermRewritingSystem", "normalize", "token");
+    return normalizeTerm(s, new Normalisation(maxSteps, token));
+  }
+
+  /**
+   * Helper function for normalize: returns the normal form of s, or null if the remaining budget
+   * (which is decreased for every rewrite step) runs out or the reduction is found to loop.
+   */
+  private Term normalizeTerm(Term s, Normalisation state) {
+    if (s.isVariable()) return s;
+    Term cached = _normalForms.lookup(s);
+    if (cached != null) return cached;
+    if (!state._active.add(s)) return null;
+    Term current = s;
+    while (current != null) {
+      state._token.check("normalisation");
+      current = normalizeArguments(current, state);
+      if (current == null) break;
+      Term reduct = null;
+      List<Integer> candidates = _index.queryCandidates(current);
+      for (int j = 0; j < candidates.size() && reduct == null; j++) {
+        reduct = _rules.get(candidates.get(j)).apply(current);
+      }
+      if (reduct == null) {
+        _normalForms.store(s, current);
+        if (current != s) _normalForms.store(current, current);
+        break;
+      }
+      state._budget--;
+      if (state._budget < 0) current = null;
+      else current = reduct;
+    }
+    state._active.remove(s);
+    return current;
+  }
+
+  /**
+   * Helper function for normalizeTerm: returns the term obtained from s by normalising all its
+   * arguments, or null if the budget runs out.
+   */
+  private Term normalizeArguments(Term s, Normalisation state) {
+    int n = s.numberImmediateSubterms();
+    List<Term> args = null;
+    for (int i = 1; i <= n; i++) {
+      Term arg = s.queryImmediateSubterm(i);
+      Term nf = normalizeTerm(arg, state);
+      if (nf == null) return null;
+      if (nf != arg && args == null) {
+        args = new ArrayList<Term>(n);
+        for (int j = 1; j < i; j++) args.add(s.queryImmediateSubterm(j));
+      }
+      if (args != null) args.add(nf);
+    }
+    if (args == null) return s;
+    return s.queryImmediateHeadSubterm(0).apply(args);
+  }
+
+  /** Returns how often a normal form was found in the cache during normalisation. */
+  public long queryNormalFormCacheHits() {
+    return _normalForms.queryHits();
+  }
+
+  /** Returns how often a normal form was looked up in the cache but not found. */
+  public long queryNormalFormCacheMisses() {
+    return _normalForms.queryMisses();
+  }
+
+  /** Returns the number of normal forms currently remembered. */
+  public int queryNormalFormCacheSize() {
+    return _normalForms.querySize();
+  }
+
     @Override
     public void addRule(Rule r) {
         _rules.add(r);
+        _index.add(r);
+        _normalForms.clear();
+    }
+
+    @Override
+    public void truncateRules(int count) {
+        if (count < 0) throw new IndexingError("TermRewritingSystem", "truncateRules", count);
+        if (count >= _rules.size()) return;
+        _rules.subList(count, _rules.size()).clear();
+        _index.truncate(count);
+        _normalForms.clear();
     }
 
     @Override
@@ -0,0 +1,206 @@
+package cora.smt;
+
+import cora.exceptions.invalidruleapplications.InvalidRuleApplicationException;
+import cora.interfaces.rewriting.Rule;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.smt.ProofEquation;
+import cora.interfaces.smt.ProofSearchStrategy;
+import cora.interfaces.terms.FunctionSymbol;
+import cora.interfaces.terms.Position;
+import cora.interfaces.terms.Term;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * The AutoProver searches for an equivalence proof without user interaction, by applying the same
+ * user commands a user would type: delete, eqdelete, disprove, constructor, simplify (with and
+ * without a rule) and expand, along with swapping the sides of the current equation. The order in
+ * which the possibilities are explored is decided by a ProofSearchStrategy, and the search is
+ * limited by a ProofBudget.
+ *
+ * The prover works directly on an EquivalenceProof, and uses its history to backtrack: every
+ * successful command is one step in the history, so going back to an earlier point of the search
+ * is a call to restoreStep. The commands that lead from the initial state to the current one are
+ * kept as the script, which is returned when a proof is found and can be replayed on a fresh
+ * EquivalenceProof.
+ */
+public class AutoProver {
+    private final EquivalenceProof _proof;
+    private final ProofSearchStrategy _strategy;
+    private final ProofBudget _budget;
+    private final int _base;
+    private final ArrayList<String> _script;
+    private boolean _terminating;
+
+    /** Creates a prover using best-first search, with at most 1000 steps and no time limit. */
+    public AutoProver(EquivalenceProof proof) {
+        this(proof, new BestFirstStrategy(), new ProofBudget(1000, 0));
+    }
+
+    public AutoProver(EquivalenceProof proof, ProofSearchStrategy strategy, ProofBudget budget) {
+        _proof = proof;
+        _strategy = strategy;
+        _budget = budget;
+        _base = proof.getHistorySize();
+        _script = new ArrayList<>();
+        _terminating = false;
+    }
+
+    /**
+     * Sets whether the prover may assume that the rules together with the hypotheses added by expand
+     * are terminating. If so, expand adds the current equation as a hypothesis; by default it does
+     * not, since termination is not checked.
+     */
+    public void setTerminating(boolean terminating) {
+        _terminating = terminating;
+    }
+
+    /** Runs the strategy on the proof, and returns the outcome along with the script it found. */
+    public ProofSearchResult prove() {
+        long start = System.currentTimeMillis();
+        _budget.start();
+        ProofSearchResult.Outcome outcome;
+        if (isProven()) outcome = ProofSearchResult.Outcome.PROVEN;
+        else if (isDisproven()) outcome = ProofSearchResult.Outcome.DISPROVEN;
+        else outcome = _strategy.search(this);
+        boolean success = outcome == ProofSearchResult.Outcome.PROVEN ||
+                outcome == ProofSearchResult.Outcome.DISPROVEN;
+        List<String> script = success ? _script : Collections.emptyList();
+        return new ProofSearchResult(outcome, script, _budget.getSteps(), System.currentTimeMillis() - start);
+    }
+
+    public EquivalenceProof getProof() {
+        return _proof;
+    }
+
+    public ProofBudget getBudget() {
+        return _budget;
+    }
+
+    /** Returns the commands that lead from the initial state to the current one. */
+    public List<String> getScript() {
+        return Collections.unmodifiableList(_script);
+    }
+
+    public boolean isProven() {
+        return !_proof.getBottom() && _proof.proofIsFinished() != 0;
+    }
+
+    public boolean isDisproven() {
+        return _proof.getBottom();
+    }
+
+    public boolean isFinished() {
+        return isProven() || isDisproven();
+    }
+
+    /**
+     * Returns an object that identifies the current proof state: two states with equal keys have
+     * the same equations (modulo renaming), the same number of rules and hypotheses, and are both
+     * (not) disproven.
+     */
+    public Object stateKey() {
+        ArrayList<Object> key = new ArrayList<>();
+        key.add(_proof.getBottom());
+        key.add(_proof.getLcTrs().queryRuleCount());
+        key.addAll(_proof.getEquations());
+        return key;
+    }
+
+    /**
+     * Returns all commands that might be applicable to the current equation, roughly ordered from
+     * most to least promising: commands which close or refute the equation come first, expand last.
+     */
+    public List<String> candidateCommands() {
+        ArrayList<String> ret = new ArrayList<>();
+        ProofEquation eq = _proof.getCurrentEquation();
+        if (eq == null || isFinished()) return ret;
+        ret.add("delete");
+        ret.add("eqdelete");
+        ret.add("disprove");
+        ret.add("simplify");
+        TRS trs = _proof.getLcTrs();
+        Term s = eq.getLeft();
+        List<Position> positions = s.queryAllPositions();
+        for (Position pos : positions) {
+            Term sub = s.querySubterm(pos);
+            for (int i = 0; i < trs.queryRuleCount(); i++) {
+                Rule rule = trs.queryRule(i);
+                if (rule.applicable(sub)) ret.add("simplify " + pos + " " + (i + 1));
+            }
+        }
+        ret.add("constructor");
+        HashSet<FunctionSymbol> defined = new HashSet<>();
+        for (int i = 0; i < trs.queryRuleCount(); i++) {
+            Term left = trs.queryRule(i).queryLeftSide();
+            if (left.isFunctionalTerm()) defined.add(left.queryRoot());
+        }
+        for (Position pos : positions) {
+            Term sub = s.querySubterm(pos);
+            if (sub.isFunctionalTerm() && defined.contains(sub.queryRoot())) {
+                ret.add("expand " + pos + (_terminating ? " terminating" : " nonterminating"));
+            }
+        }
+        if (_script.isEmpty() || !_script.get(_script.size() - 1).equals("swap")) ret.add("swap");
+        return ret;
+    }
+
+    /**
+     * Tries to apply the given command to the current state. This returns true if the command was
+     * applied and changed the state; otherwise, the state is left as it was and false is returned.
+     * Every call counts as a step for the budget.
+     */
+    public boolean apply(String command) {
+        _budget.step();
+        int before = _proof.getHistorySize();
+        Object key = stateKey();
+        try {
+            _proof.applyNewUserCommand(command);
+        } catch (InvalidRuleApplicationException | RuntimeException | Error e) {
+            // user commands signal that they do not apply in many ways, including Errors such as
+            // BottomException or InappropriatePatternDataError; only a failing JVM is fatal
+            if (e instanceof VirtualMachineError) throw (VirtualMachineError) e;
+            if (_proof.getHistorySize() > before) _proof.restoreStep(before);
+            return false;
+        }
+        if (!isFinished() && stateKey().equals(key)) {
+            _proof.restoreStep(before);
+            return false;
+        }
+        _script.add(command);
+        return true;
+    }
+
+    /** Undoes commands until the script has the given length. */
+    public void backtrack(int length) {
+        if (length >= _script.size()) return;
+        _proof.restoreStep(_base + length);
+        _script.subList(length, _script.size()).clear();
+    }
+
+    /**
+     * Moves to the state reached by the given script: the prover backtracks to the longest common
+     * prefix with the current script, and applies the remaining commands. Returns false if one of
+     * them cannot be applied, in which case the state is that after the last applicable command.
+     */
+    public boolean moveTo(List<String> script) {
+        int common = 0;
+        while (common < script.size() && common < _script.size() &&
+                script.get(common).equals(_script.get(common))) common++;
+        backtrack(common);
+        for (int i = common; i < script.size(); i++) {
+            if (!apply(script.get(i))) return false;
+        }
+        return true;
+    }
+
+    /** Returns the outcome corresponding to the current state, if it is finished, or null if not. */
+    public ProofSearchResult.Outcome finishedOutcome() {
+        if (isDisproven()) return ProofSearchResult.Outcome.DISPROVEN;
+        if (isProven()) return ProofSearchResult.Outcome.PROVEN;
+        return null;
+    }
+}
@@ -0,0 +1,91 @@
+package cora.smt;
+
+import cora.interfaces.smt.ProofEquation;
+import cora.interfaces.smt.ProofSearchStrategy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The BestFirstStrategy keeps all proof states it has reached in a priority queue, and always
+ * continues with the state that looks most promising according to a heuristic (lower is better).
+ * States that were already reached (modulo renaming of variables) are not explored again.
+ */
+public class BestFirstStrategy implements ProofSearchStrategy {
+    /** The maximum number of commands in a script that is explored further. */
+    public static final int DEFAULT_MAX_DEPTH = 50;
+
+    private final ToDoubleFunction<EquivalenceProof> _heuristic;
+    private final int _maxDepth;
+
+    private static class Node implements Comparable<Node> {
+        private final List<String> _script;
+        private final double _score;
+        private final long _order;
+
+        private Node(List<String> script, double score, long order) {
+            _script = script;
+            _score = score;
+            _order = order;
+        }
+
+        @Override
+        public int compareTo(Node other) {
+            int c = Double.compare(_score, other._score);
+            return c != 0 ? c : Long.compare(_order, other._order);
+        }
+    }
+
+    public BestFirstStrategy() {
+        this(BestFirstStrategy::sizeHeuristic, DEFAULT_MAX_DEPTH);
+    }
+
+    public BestFirstStrategy(ToDoubleFunction<EquivalenceProof> heuristic, int maxDepth) {
+        _heuristic = heuristic;
+        _maxDepth = maxDepth;
+    }
+
+    /**
+     * The default heuristic: the total size of all open equations, where every equation also
+     * counts for a fixed amount so that closing an equation is always an improvement.
+     */
+    public static double sizeHeuristic(EquivalenceProof proof) {
+        double score = 0;
+        for (ProofEquation eq : proof.getEquations()) {
+            score += 10 + eq.getLeft().querySize() + eq.getRight().querySize() +
+                    eq.getConstraint().querySize() / 2.0;
+        }
+        return score;
+    }
+
+    @Override
+    public ProofSearchResult.Outcome search(AutoProver prover) {
+        PriorityQueue<Node> open = new PriorityQueue<>();
+        HashSet<Object> seen = new HashSet<>();
+        long order = 0;
+        List<String> root = new ArrayList<>(prover.getScript());
+        seen.add(prover.stateKey());
+        open.add(new Node(root, 0, order++));
+        while (!open.isEmpty()) {
+            if (prover.getBudget().isExhausted()) return ProofSearchResult.Outcome.BUDGET_EXHAUSTED;
+            Node node = open.poll();
+            if (!prover.moveTo(node._script)) continue;
+            if (node._script.size() >= _maxDepth) continue;
+            for (String command : prover.candidateCommands()) {
+                if (prover.getBudget().isExhausted()) return ProofSearchResult.Outcome.BUDGET_EXHAUSTED;
+                if (!prover.apply(command)) continue;
+                ProofSearchResult.Outcome outcome = prover.finishedOutcome();
+                if (outcome != null) return outcome;
+                if (seen.add(prover.stateKey())) {
+                    double score = _heuristic.applyAsDouble(prover.getProof()) + prover.getScript().size();
+                    open.add(new Node(new ArrayList<>(prover.getScript()), score, order++));
+                }
+                prover.backtrack(node._script.size());
+            }
+        }
+        return ProofSearchResult.Outcome.FAILED;
+    }
+}
@@ -2,9 +2,17 @@ package cora.smt;
 
 import cora.interfaces.smt.ProofEquation;
 import cora.interfaces.terms.Term;
+import cora.terms.Variants;
 
+/**
+ * An Equation s ≈ t [c] is a goal in an equivalence proof. Equations are compared modulo renaming
+ * of variables: two equations are equal if one can be obtained from the other by consistently
+ * renaming the variables in s, t and c.
+ */
 public class Equation implements ProofEquation {
     private Term _s, _t, _c;
+    private int _hash;
+    private boolean _hashed;
     public Equation(Term s, Term t, Term c) {
         _s = s;
         _t = t;
@@ -38,11 +46,30 @@ public class Equation implements ProofEquation {
     }
 
     @Override
-    public void setLeft(Term left) { if (left != null) _s = left; }
+    public boolean equals(Object other) {
+        if (other == this) return true;
+        if (!(other instanceof ProofEquation)) return false;
+        ProofEquation eq = (ProofEquation) other;
+        if (hashCode() != eq.hashCode()) return false;
+        return Variants.areVariants(new Term[] { _s, _t, _c },
+                new Term[] { eq.getLeft(), eq.getRight(), eq.getConstraint() });
+    }
+
+    @Override
+    public int hashCode() {
+        if (!_hashed) {
+            _hash = Variants.variantHash(_s, _t, _c);
+            _hashed = true;
+        }
+        return _hash;
+    }
+
+    @Override
+    public void setLeft(Term left) { if (left != null) { _s = left; _hashed = false; } }
 
     @Override
-    public void setRight(Term right) { if (right != null) _t = right; }
+    public void setRight(Term right) { if (right != null) { _t = right; _hashed = false; } }
 
     @Override
-    public void setConstraint(Term constraint) { if (constraint != null) _c = constraint; }
+    public void setConstraint(Term constraint) { if (constraint != null) { _c = constraint; _hashed = false; } }
 }
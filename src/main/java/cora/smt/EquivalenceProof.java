@@ -19,6 +19,7 @@ import cora.usercommands.UndoCommand;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Collections;
 import java.util.TreeSet;
 
@@ -147,12 +148,10 @@ public class EquivalenceProof implements Proof {
             UserCommand uc = LcTrsInputReader.readUserInputFromString(uCommand, this);
             uc.setProof(this);
             try {
-                if (!(uc instanceof UndoCommand)) _history.add(new ProofHistory((IProofState) _ps, uc, _bottom, _lcTrs));
+                if (!(uc instanceof UndoCommand)) _history.add(new ProofHistory(_ps, uc, _bottom, _lcTrs, _varcounter));
                 _ps = uc.apply(new ProofState(_ps));
                 updateVariables();
-                if (_completeness && _ps.getE().isEmpty() && _bottom) _proven = 2;
-                else if (_ps.getE().isEmpty()) _proven = 1;
-                else _proven = 0;
+                updateProven();
             } catch (InvalidRuleApplicationException e) {
                 throw e;
             };
@@ -203,6 +202,41 @@ public class EquivalenceProof implements Proof {
         _history.remove(_history.size()-1);
     }
 
+    @Override
+    public int getHistorySize() {
+        return _history.size();
+    }
+
+    /**
+     * Returns the proof to the state it was in before the command at position step in the history
+     * was applied, and removes that command and all later ones from the history. Rules that were
+     * added to the LCTRS by the removed commands are removed again, so this takes time proportional
+     * to the changes that are undone rather than to the size of the proof.
+     */
+    @Override
+    public IProofState restoreStep(int step) {
+        if (step < 0 || step >= _history.size()) {
+            throw new IndexOutOfBoundsException("No proof step " + step + " in the history");
+        }
+        ProofHistory ph = _history.get(step);
+        _history.subList(step, _history.size()).clear();
+        _ps = ph.getProofState();
+        _bottom = ph.getBottom();
+        _lcTrs = ph.getLcTrs();
+        if (_lcTrs != null) _lcTrs.truncateRules(ph.getRuleCount());
+        _varcounter = ph.getVarCounter();
+        updateVariables();
+        updateProven();
+        return _ps;
+    }
+
+    /** Sets the outcome reported by proofIsFinished to match the current proof state. */
+    private void updateProven() {
+        if (_completeness && _ps.getE().isEmpty() && _bottom) _proven = 2;
+        else if (_ps.getE().isEmpty()) _proven = 1;
+        else _proven = 0;
+    }
+
     @Override
     public boolean getBottom() {
         return _bottom;
@@ -270,7 +304,7 @@ public class EquivalenceProof implements Proof {
     }
 
     @Override
-    public ArrayList<ProofEquation> getEquations() {
+    public List<ProofEquation> getEquations() {
         return _ps.getE();
     }
 
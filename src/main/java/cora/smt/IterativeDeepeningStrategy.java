@@ -0,0 +1,66 @@
+package cora.smt;
+
+import cora.interfaces.smt.ProofSearchStrategy;
+
+import java.util.HashMap;
+
+/**
+ * The IterativeDeepeningStrategy does a depth-first search for a proof of at most 1 command, then
+ * at most 2 commands, and so on up to a maximum depth. Thus it finds a shortest script while only
+ * keeping the current path in memory. States that were already reached with at least as many
+ * commands left are not explored again within the same iteration.
+ */
+public class IterativeDeepeningStrategy implements ProofSearchStrategy {
+    public static final int DEFAULT_MAX_DEPTH = 10;
+
+    private final int _maxDepth;
+    private boolean _cutoff;
+
+    public IterativeDeepeningStrategy() {
+        this(DEFAULT_MAX_DEPTH);
+    }
+
+    public IterativeDeepeningStrategy(int maxDepth) {
+        _maxDepth = maxDepth;
+    }
+
+    @Override
+    public ProofSearchResult.Outcome search(AutoProver prover) {
+        int start = prover.getScript().size();
+        for (int limit = 1; limit <= _maxDepth; limit++) {
+            _cutoff = false;
+            ProofSearchResult.Outcome outcome = search(prover, limit, new HashMap<>());
+            if (outcome != null) return outcome;
+            prover.backtrack(start);
+            if (!_cutoff) return ProofSearchResult.Outcome.FAILED;
+        }
+        return ProofSearchResult.Outcome.FAILED;
+    }
+
+    /**
+     * Searches for a proof of at most remaining further commands; returns null if none is found,
+     * with the prover back in the state it was in when this was called.
+     */
+    private ProofSearchResult.Outcome search(AutoProver prover, int remaining, HashMap<Object, Integer> seen) {
+        if (remaining == 0) {
+            _cutoff = true;
+            return null;
+        }
+        int depth = prover.getScript().size();
+        for (String command : prover.candidateCommands()) {
+            if (prover.getBudget().isExhausted()) return ProofSearchResult.Outcome.BUDGET_EXHAUSTED;
+            if (!prover.apply(command)) continue;
+            ProofSearchResult.Outcome outcome = prover.finishedOutcome();
+            if (outcome != null) return outcome;
+            Object key = prover.stateKey();
+            Integer known = seen.get(key);
+            if (known == null || known < remaining - 1) {
+                seen.put(key, remaining - 1);
+                outcome = search(prover, remaining - 1, seen);
+                if (outcome != null) return outcome;
+            }
+            prover.backtrack(depth);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,232 @@
+package cora.smt;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A PersistentList is an immutable list: every update returns a new list, and leaves the old one
+ * unchanged. The elements are stored in a balanced (AVL) tree ordered by index, so an update only
+ * copies the O(log n) nodes on the path to the changed element, and shares everything else with the
+ * original list. This makes it cheap to keep many versions of a list around, as the proof history
+ * does with the equations of a proof state.
+ */
+public final class PersistentList<T> implements Iterable<T> {
+    private static final PersistentList<?> EMPTY = new PersistentList<>(null);
+
+    private static final class Node<T> {
+        private final T _value;
+        private final Node<T> _left, _right;
+        private final int _size, _height;
+
+        private Node(Node<T> left, T value, Node<T> right) {
+            _value = value;
+            _left = left;
+            _right = right;
+            _size = size(left) + size(right) + 1;
+            _height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    private final Node<T> _root;
+
+    private PersistentList(Node<T> root) {
+        _root = root;
+    }
+
+    /** Returns the empty list. */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> empty() {
+        return (PersistentList<T>) EMPTY;
+    }
+
+    /** Returns a list with the same elements as the given collection, in the same order. */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> of(Collection<? extends T> elements) {
+        Object[] arr = elements.toArray();
+        if (arr.length == 0) return empty();
+        return new PersistentList<>(build((T[]) arr, 0, arr.length));
+    }
+
+    private static <T> Node<T> build(T[] arr, int from, int to) {
+        if (from >= to) return null;
+        int mid = (from + to) >>> 1;
+        return new Node<>(build(arr, from, mid), arr[mid], build(arr, mid + 1, to));
+    }
+
+    public int size() {
+        return size(_root);
+    }
+
+    public boolean isEmpty() {
+        return _root == null;
+    }
+
+    /** Returns the element at position index (counting from 0). */
+    public T get(int index) {
+        checkIndex(index, size());
+        Node<T> n = _root;
+        while (true) {
+            int ls = size(n._left);
+            if (index < ls) n = n._left;
+            else if (index == ls) return n._value;
+            else {
+                index -= ls + 1;
+                n = n._right;
+            }
+        }
+    }
+
+    /** Returns a list where the element at position index is replaced by value. */
+    public PersistentList<T> set(int index, T value) {
+        checkIndex(index, size());
+        return new PersistentList<>(set(_root, index, value));
+    }
+
+    /** Returns a list where value is inserted at position index, shifting later elements. */
+    public PersistentList<T> insert(int index, T value) {
+        checkIndex(index, size() + 1);
+        return new PersistentList<>(insert(_root, index, value));
+    }
+
+    /** Returns a list with value appended at the end. */
+    public PersistentList<T> add(T value) {
+        return insert(size(), value);
+    }
+
+    /** Returns a list with all the given values appended at the end. */
+    public PersistentList<T> addAll(Iterable<? extends T> values) {
+        PersistentList<T> ret = this;
+        for (T value : values) ret = ret.add(value);
+        return ret;
+    }
+
+    /** Returns a list where the element at position index is removed, shifting later elements. */
+    public PersistentList<T> remove(int index) {
+        checkIndex(index, size());
+        return new PersistentList<>(remove(_root, index));
+    }
+
+    /** Returns a list where the elements at positions i and j are exchanged. */
+    public PersistentList<T> swap(int i, int j) {
+        T a = get(i), b = get(j);
+        return set(i, b).set(j, a);
+    }
+
+    /** Returns a read-only view of this list as a java.util.List. */
+    public List<T> asList() {
+        return new AbstractList<T>() {
+            @Override
+            public T get(int index) {
+                return PersistentList.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return PersistentList.this.size();
+            }
+
+            @Override
+            public Iterator<T> iterator() {
+                return PersistentList.this.iterator();
+            }
+        };
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private final ArrayDeque<Node<T>> _stack = new ArrayDeque<>();
+
+            {
+                pushLeft(_root);
+            }
+
+            private void pushLeft(Node<T> n) {
+                for (; n != null; n = n._left) _stack.push(n);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !_stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (_stack.isEmpty()) throw new NoSuchElementException();
+                Node<T> n = _stack.pop();
+                pushLeft(n._right);
+                return n._value;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return asList().toString();
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+        }
+    }
+
+    private static int size(Node<?> n) {
+        return n == null ? 0 : n._size;
+    }
+
+    private static int height(Node<?> n) {
+        return n == null ? 0 : n._height;
+    }
+
+    private static <T> Node<T> set(Node<T> n, int index, T value) {
+        int ls = size(n._left);
+        if (index < ls) return new Node<>(set(n._left, index, value), n._value, n._right);
+        if (index == ls) return new Node<>(n._left, value, n._right);
+        return new Node<>(n._left, n._value, set(n._right, index - ls - 1, value));
+    }
+
+    private static <T> Node<T> insert(Node<T> n, int index, T value) {
+        if (n == null) return new Node<>(null, value, null);
+        int ls = size(n._left);
+        if (index <= ls) return balance(insert(n._left, index, value), n._value, n._right);
+        return balance(n._left, n._value, insert(n._right, index - ls - 1, value));
+    }
+
+    private static <T> Node<T> remove(Node<T> n, int index) {
+        int ls = size(n._left);
+        if (index < ls) return balance(remove(n._left, index), n._value, n._right);
+        if (index > ls) return balance(n._left, n._value, remove(n._right, index - ls - 1));
+        if (n._left == null) return n._right;
+        if (n._right == null) return n._left;
+        Node<T> first = n._right;
+        while (first._left != null) first = first._left;
+        return balance(n._left, first._value, remove(n._right, 0));
+    }
+
+    /** Creates a node with the given children, applying rotations if they differ too much in height. */
+    private static <T> Node<T> balance(Node<T> l, T value, Node<T> r) {
+        int hl = height(l), hr = height(r);
+        if (hl > hr + 1) {
+            if (height(l._left) >= height(l._right)) {
+                return new Node<>(l._left, l._value, new Node<>(l._right, value, r));
+            }
+            Node<T> lr = l._right;
+            return new Node<>(new Node<>(l._left, l._value, lr._left), lr._value,
+                    new Node<>(lr._right, value, r));
+        }
+        if (hr > hl + 1) {
+            if (height(r._right) >= height(r._left)) {
+                return new Node<>(new Node<>(l, value, r._left), r._value, r._right);
+            }
+            Node<T> rl = r._left;
+            return new Node<>(new Node<>(l, value, rl._left), rl._value,
+                    new Node<>(rl._right, r._value, r._right));
+        }
+        return new Node<>(l, value, r);
+    }
+}
@@ -0,0 +1,297 @@
+package cora.smt;
+
+import cora.exceptions.invalidruleapplications.InvalidRuleApplicationException;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.smt.ProofEquation;
+import cora.interfaces.smt.ProofSearchStrategy;
+import cora.rewriting.TermRewritingSystem;
+import cora.z3.Z3SessionPool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * The PortfolioProver runs automated proof searches in parallel. Every open equation of a proof is
+ * treated as a separate goal, and every goal is attacked by several search configurations at the
+ * same time; as soon as one configuration proves a goal, the others working on it are stopped.
+ * When a goal is disproven (or cannot be proven by any configuration), all work is stopped.
+ *
+ * Each search works on its own EquivalenceProof with its own copy of the LCTRS, so that hypotheses
+ * added by expand do not interfere. The searches run on a ForkJoinPool whose threads each have their
+ * own Z3 context (through the Z3SessionPool), which is released when the thread ends.
+ *
+ * Afterwards, the scripts for the separate goals are merged into a single script for the original
+ * proof by replaying them on it: swaps are inserted to bring the right equation to the front, and
+ * rule indexes that refer to hypotheses are renumbered to the same hypotheses in the merged proof.
+ * If a script cannot be merged, the proof is returned to the state it was in before merging.
+ */
+public class PortfolioProver implements AutoCloseable {
+    /** A search configuration: a strategy, and whether expand may assume termination. */
+    public static class Configuration {
+        private final Supplier<ProofSearchStrategy> _strategy;
+        private final boolean _terminating;
+
+        public Configuration(Supplier<ProofSearchStrategy> strategy, boolean terminating) {
+            _strategy = strategy;
+            _terminating = terminating;
+        }
+    }
+
+    private final List<Configuration> _configurations;
+    private final int _maxSteps;
+    private final long _timeoutMillis;
+    private final ForkJoinPool _pool;
+
+    /**
+     * Creates a portfolio prover which runs the given configurations, each with the given budget
+     * per goal, on a pool of the given number of threads.
+     */
+    public PortfolioProver(List<Configuration> configurations, int maxSteps, long timeoutMillis,
+                           int parallelism) {
+        _configurations = new ArrayList<>(configurations);
+        _maxSteps = maxSteps;
+        _timeoutMillis = timeoutMillis;
+        _pool = new ForkJoinPool(parallelism, Z3WorkerThread::new, null, false);
+    }
+
+    /** Creates a portfolio prover with the default configurations, using all available processors. */
+    public PortfolioProver(boolean terminating, int maxSteps, long timeoutMillis) {
+        this(defaultConfigurations(terminating), maxSteps, timeoutMillis,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Returns a best-first and an iterative deepening configuration. */
+    public static List<Configuration> defaultConfigurations(boolean terminating) {
+        ArrayList<Configuration> ret = new ArrayList<>();
+        ret.add(new Configuration(BestFirstStrategy::new, terminating));
+        ret.add(new Configuration(IterativeDeepeningStrategy::new, terminating));
+        return ret;
+    }
+
+    /** A pool thread that closes its Z3 context when it ends. */
+    private static class Z3WorkerThread extends ForkJoinWorkerThread {
+        private Z3WorkerThread(ForkJoinPool pool) {
+            super(pool);
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            Z3SessionPool.release();
+            super.onTermination(exception);
+        }
+    }
+
+    private static TRS copy(TRS trs) {
+        return new TermRewritingSystem(trs, new ArrayList<>(trs.queryTheorySymbols()));
+    }
+
+    /** Runs one configuration on one goal. */
+    private class ConfigurationTask extends RecursiveTask<ProofSearchResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final TRS _trs;
+        private final ProofEquation _goal;
+        private final Configuration _configuration;
+        private final ProofBudget _budget;
+        private final List<ProofBudget> _siblings;
+        private final List<ProofBudget> _all;
+
+        private ConfigurationTask(TRS trs, ProofEquation goal, Configuration configuration,
+                                  ProofBudget budget, List<ProofBudget> siblings, List<ProofBudget> all) {
+            _trs = trs;
+            _goal = goal;
+            _configuration = configuration;
+            _budget = budget;
+            _siblings = siblings;
+            _all = all;
+        }
+
+        @Override
+        protected ProofSearchResult compute() {
+            EquivalenceProof proof = new EquivalenceProof(_trs, _goal.getLeft(), _goal.getRight(),
+                    _goal.getConstraint());
+            AutoProver prover = new AutoProver(proof, _configuration._strategy.get(), _budget);
+            prover.setTerminating(_configuration._terminating);
+            ProofSearchResult result = prover.prove();
+            if (result.getOutcome() == ProofSearchResult.Outcome.PROVEN) {
+                for (ProofBudget b : _siblings) b.cancel();
+            } else if (result.getOutcome() == ProofSearchResult.Outcome.DISPROVEN) {
+                for (ProofBudget b : _all) b.cancel();
+            }
+            return result;
+        }
+    }
+
+    /** Runs all configurations on one goal, and returns the best result. */
+    private class GoalTask extends RecursiveTask<ProofSearchResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ConfigurationTask> _tasks;
+        private final List<ProofBudget> _all;
+
+        private GoalTask(List<ConfigurationTask> tasks, List<ProofBudget> all) {
+            _tasks = tasks;
+            _all = all;
+        }
+
+        @Override
+        protected ProofSearchResult compute() {
+            invokeAll(_tasks);
+            ProofSearchResult best = null;
+            int steps = 0;
+            for (ConfigurationTask task : _tasks) {
+                ProofSearchResult result = task.join();
+                steps += result.getSteps();
+                if (best == null || rank(result) < rank(best)) best = result;
+            }
+            if (best.getOutcome() != ProofSearchResult.Outcome.PROVEN) {
+                for (ProofBudget b : _all) b.cancel();
+            }
+            return new ProofSearchResult(best.getOutcome(), best.getScript(), steps, best.getTime());
+        }
+
+        private int rank(ProofSearchResult result) {
+            switch (result.getOutcome()) {
+                case DISPROVEN: return 0;
+                case PROVEN: return 1;
+                case BUDGET_EXHAUSTED: return 2;
+                default: return 3;
+            }
+        }
+    }
+
+    /**
+     * Searches for proofs of all open equations of the given proof in parallel. If this succeeds,
+     * the merged script has been applied to the proof, which is then finished (or disproven).
+     */
+    public ProofSearchResult prove(EquivalenceProof proof) {
+        long start = System.currentTimeMillis();
+        TRS pristine = copy(proof.getLcTrs());
+        List<ProofEquation> goals = new ArrayList<>(proof.getEquations());
+        List<ProofBudget> all = new ArrayList<>();
+        List<GoalTask> goalTasks = new ArrayList<>();
+        for (ProofEquation goal : goals) {
+            List<ProofBudget> siblings = new ArrayList<>();
+            List<ConfigurationTask> tasks = new ArrayList<>();
+            for (Configuration configuration : _configurations) {
+                ProofBudget budget = new ProofBudget(_maxSteps, _timeoutMillis);
+                siblings.add(budget);
+                all.add(budget);
+                tasks.add(new ConfigurationTask(copy(pristine), goal, configuration, budget, siblings, all));
+            }
+            goalTasks.add(new GoalTask(tasks, all));
+        }
+        List<ProofSearchResult> results = _pool.invoke(new RecursiveTask<List<ProofSearchResult>>() {
+            @Override
+            protected List<ProofSearchResult> compute() {
+                invokeAll(goalTasks);
+                List<ProofSearchResult> ret = new ArrayList<>();
+                for (GoalTask task : goalTasks) ret.add(task.join());
+                return ret;
+            }
+        });
+
+        int steps = 0;
+        ProofSearchResult.Outcome outcome = ProofSearchResult.Outcome.PROVEN;
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            ProofSearchResult result = results.get(i);
+            steps += result.getSteps();
+            if (result.getOutcome() == ProofSearchResult.Outcome.DISPROVEN) {
+                outcome = ProofSearchResult.Outcome.DISPROVEN;
+                order.clear();
+                order.add(i);
+                break;
+            }
+            if (result.getOutcome() == ProofSearchResult.Outcome.PROVEN) order.add(i);
+            else if (outcome == ProofSearchResult.Outcome.PROVEN ||
+                    result.getOutcome() == ProofSearchResult.Outcome.BUDGET_EXHAUSTED) {
+                outcome = result.getOutcome();
+            }
+        }
+        List<String> script = new ArrayList<>();
+        if (outcome == ProofSearchResult.Outcome.PROVEN || outcome == ProofSearchResult.Outcome.DISPROVEN) {
+            int before = proof.getHistorySize();
+            for (int i : order) {
+                if (!merge(proof, pristine, goals.get(i), results.get(i).getScript(), script)) {
+                    if (proof.getHistorySize() > before) proof.restoreStep(before);
+                    outcome = ProofSearchResult.Outcome.FAILED;
+                    script.clear();
+                    break;
+                }
+            }
+        }
+        return new ProofSearchResult(outcome, script, steps, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Replays the script for the given goal on the proof, adding the commands that were applied to
+     * merged. The script is also replayed on a separate proof for just this goal, to see which
+     * equation each command applies to, and which hypotheses each command adds. Returns false if a
+     * command could not be applied; the proof may then have been partially changed.
+     */
+    private boolean merge(EquivalenceProof proof, TRS pristine, ProofEquation goal, List<String> script,
+                          List<String> merged) {
+        EquivalenceProof local = new EquivalenceProof(copy(pristine), goal.getLeft(), goal.getRight(),
+                goal.getConstraint());
+        int baseRules = pristine.queryRuleCount();
+        // maps the (1-based) numbers of hypotheses in local to the numbers of the same rules in proof
+        Map<Integer, Integer> hypotheses = new HashMap<>();
+        try {
+            for (String command : script) {
+                ProofEquation current = local.getCurrentEquation();
+                int localRules = local.getLcTrs().queryRuleCount();
+                local.applyNewUserCommand(command);
+                int k = proof.getEquations().indexOf(current);
+                // the equation may already have been closed while proving an earlier goal
+                if (k < 0) continue;
+                if (k > 0) {
+                    String swap = "swap 1 " + (k + 1);
+                    proof.applyNewUserCommand(swap);
+                    merged.add(swap);
+                }
+                String renumbered = renumberRule(command, baseRules, hypotheses);
+                // a hypothesis added for an equation that was skipped has no counterpart in proof
+                if (renumbered == null) return false;
+                int proofRules = proof.getLcTrs().queryRuleCount();
+                proof.applyNewUserCommand(renumbered);
+                merged.add(renumbered);
+                int added = local.getLcTrs().queryRuleCount() - localRules;
+                if (proof.getLcTrs().queryRuleCount() - proofRules != added) return false;
+                for (int i = 1; i <= added; i++) hypotheses.put(localRules + i, proofRules + i);
+            }
+        } catch (InvalidRuleApplicationException | RuntimeException | Error e) {
+            // as in AutoProver.apply, commands also fail with Errors such as BottomException
+            if (e instanceof VirtualMachineError) throw (VirtualMachineError) e;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Renumbers the rule index of a simplify command if it refers to a hypothesis; returns null if
+     * that hypothesis is not in the given map.
+     */
+    private static String renumberRule(String command, int baseRules, Map<Integer, Integer> hypotheses) {
+        String[] parts = command.split(" ", 4);
+        if (parts.length < 3 || !parts[0].equals("simplify")) return command;
+        int index = Integer.parseInt(parts[2]);
+        if (index <= baseRules) return command;
+        Integer target = hypotheses.get(index);
+        if (target == null) return null;
+        parts[2] = String.valueOf(target);
+        return String.join(" ", parts);
+    }
+
+    /** Stops the threads of this prover; their Z3 contexts are closed as they end. */
+    @Override
+    public void close() {
+        _pool.shutdown();
+    }
+}
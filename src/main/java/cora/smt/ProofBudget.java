@@ -0,0 +1,51 @@
+package cora.smt;
+
+/**
+ * A ProofBudget limits the work of an automated proof search, both in the number of user commands
+ * that may be tried and in wall-clock time. A limit of 0 or less means that there is no limit.
+ * A budget can also be cancelled from another thread, after which it counts as exhausted.
+ */
+public class ProofBudget {
+    private final int _maxSteps;
+    private final long _timeoutMillis;
+    private long _deadline;
+    private int _steps;
+    private volatile boolean _cancelled;
+
+    public ProofBudget(int maxSteps, long timeoutMillis) {
+        _maxSteps = maxSteps;
+        _timeoutMillis = timeoutMillis;
+        start();
+    }
+
+    /** Resets the number of steps taken, and starts the timer from now. */
+    public void start() {
+        _steps = 0;
+        _deadline = _timeoutMillis > 0 ? System.nanoTime() + _timeoutMillis * 1_000_000 : Long.MAX_VALUE;
+    }
+
+    /** Records that a user command was tried. */
+    public void step() {
+        _steps++;
+    }
+
+    public int getSteps() {
+        return _steps;
+    }
+
+    /** Makes the budget exhausted, so that a search using it stops as soon as possible. */
+    public void cancel() {
+        _cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return _cancelled;
+    }
+
+    /** Returns whether the search should stop, since it used all its steps or its time. */
+    public boolean isExhausted() {
+        if (_cancelled) return true;
+        if (_maxSteps > 0 && _steps >= _maxSteps) return true;
+        return _deadline != Long.MAX_VALUE && System.nanoTime() - _deadline >= 0;
+    }
+}
@@ -5,14 +5,18 @@ import cora.interfaces.smt.History;
 import cora.interfaces.smt.IProofState;
 import cora.interfaces.smt.ProofEquation;
 import cora.interfaces.smt.UserCommand;
-import cora.interfaces.terms.FunctionSymbol;
-import cora.rewriting.TermRewritingSystem;
 
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A Proof History is an object that contains a single state of an equivalence proof.
- * It serves as a record type for
+ * It serves as a record type for the proof log: it holds the state before a user command was
+ * applied, along with that command.
+ *
+ * Records are cheap: the proof state is a persistent ProofState which shares its unchanged
+ * equations with the states before and after it, and the LCTRS is not copied. Instead, only the
+ * number of rules it had is stored, since user commands only ever add rules to it; undoing a step
+ * removes the rules that were added since (see TRS.truncateRules).
  */
 public class ProofHistory implements History {
     private final boolean _bottom;
@@ -20,19 +24,28 @@ public class ProofHistory implements History {
     private final UserCommand _uCommand;
 
     private final TRS _lcTrs;
+    private final int _ruleCount;
+    private final int _varCounter;
     private final IProofState _ps;
 
     /**
      * This constructor is used to create a Proof History record.
      */
     public ProofHistory(IProofState ps, UserCommand uc, boolean bottom, TRS lctrs) {
+        this(ps, uc, bottom, lctrs, 0);
+    }
+
+    /**
+     * This constructor is used to create a Proof History record which also remembers the counter
+     * used to generate fresh variables.
+     */
+    public ProofHistory(IProofState ps, UserCommand uc, boolean bottom, TRS lctrs, int varCounter) {
         _ps = ps;
         _uCommand = uc;
         _bottom = bottom;
-        if (lctrs != null) {
-            _lcTrs = new TermRewritingSystem(lctrs, (ArrayList<FunctionSymbol>) lctrs.queryTheorySymbols());
-        }
-        else _lcTrs = null;
+        _lcTrs = lctrs;
+        _ruleCount = lctrs == null ? 0 : lctrs.queryRuleCount();
+        _varCounter = varCounter;
     }
 
     /**
@@ -49,12 +62,12 @@ public class ProofHistory implements History {
     }
 
     @Override
-    public ArrayList<ProofEquation> getEquations() {
+    public List<ProofEquation> getEquations() {
         return _ps.getE();
     }
 
     @Override
-    public ArrayList<ProofEquation> getCompletenessEquations() {
+    public List<ProofEquation> getCompletenessEquations() {
         return _ps.getCompletenessE();
     }
 
@@ -79,4 +92,15 @@ public class ProofHistory implements History {
     public TRS getLcTrs() {
         return _lcTrs;
     }
+
+    /** Returns the number of rules the LCTRS had at this proof state. */
+    @Override
+    public int getRuleCount() {
+        return _ruleCount;
+    }
+
+    /** Returns the value of the fresh variable counter at this proof state. */
+    public int getVarCounter() {
+        return _varCounter;
+    }
 }
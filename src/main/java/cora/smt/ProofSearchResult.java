@@ -0,0 +1,58 @@
+package cora.smt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of an automated proof search: how it ended, and for a proof or disproof the user
+ * commands which lead to it.
+ */
+public class ProofSearchResult {
+    public enum Outcome { PROVEN, DISPROVEN, FAILED, BUDGET_EXHAUSTED }
+
+    private final Outcome _outcome;
+    private final List<String> _script;
+    private final int _steps;
+    private final long _time;
+
+    public ProofSearchResult(Outcome outcome, List<String> script, int steps, long time) {
+        _outcome = outcome;
+        _script = new ArrayList<>(script);
+        _steps = steps;
+        _time = time;
+    }
+
+    public Outcome getOutcome() {
+        return _outcome;
+    }
+
+    /**
+     * Returns the user commands that prove or disprove the equivalence, in the order in which they
+     * should be given to EquivalenceProof.applyNewUserCommand. This is empty if the search failed.
+     */
+    public List<String> getScript() {
+        return _script;
+    }
+
+    /** Returns the number of user commands that were tried during the search. */
+    public int getSteps() {
+        return _steps;
+    }
+
+    /** Returns the time taken by the search, in milliseconds. */
+    public long getTime() {
+        return _time;
+    }
+
+    /** Returns the script with one command per line. */
+    public String toScript() {
+        StringBuilder sb = new StringBuilder();
+        for (String command : _script) sb.append(command).append("\n");
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return _outcome + " (" + _steps + " steps, " + _time + "ms)";
+    }
+}
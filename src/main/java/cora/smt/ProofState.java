@@ -4,48 +4,62 @@ import cora.interfaces.terms.Term;
 import cora.interfaces.terms.Variable;
 import cora.rewriting.FirstOrderRule;
 import cora.interfaces.smt.IProofState;
-import cora.terms.FunctionalTerm;
 
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.StringJoiner;
 import java.util.TreeSet;
 
+/**
+ * A ProofState holds the equations E, the completeness equations and the hypotheses H of an
+ * equivalence proof. The sets are stored in PersistentLists, and equations are never modified in
+ * place (setS, setT and setC replace the current equation by a new one). Hence, copying a proof state
+ * with new ProofState(ps) takes constant time, and the copy shares all unchanged equations and
+ * hypotheses with the original; changes to either of them do not affect the other.
+ *
+ * Equations are compared modulo renaming of variables. To find duplicates quickly, a proof state
+ * keeps a hash index of its equations, which is built the first time it is needed (so that copies
+ * which are never modified do not pay for it). addEquations uses it to skip equations that are
+ * already present.
+ */
 public class ProofState implements IProofState {
-    private ArrayList<ProofEquation> _E;
-    private final ArrayList<ProofEquation> _completenessE;
-    private final ArrayList<FirstOrderRule> _H;
+    private PersistentList<ProofEquation> _E;
+    private PersistentList<ProofEquation> _completenessE;
+    private PersistentList<FirstOrderRule> _H;
     private boolean _completeness;
+    private HashMap<ProofEquation, Integer> _index;
 
-    public ProofState(ArrayList<ProofEquation> E, ArrayList<ProofEquation> completenessE, ArrayList<FirstOrderRule> H,
+    public ProofState(List<ProofEquation> E, List<ProofEquation> completenessE, List<FirstOrderRule> H,
                       boolean completeness) {
-        _E = new ArrayList<>();
-        _E.addAll(E);
-        _completenessE = new ArrayList<>();
-        _completenessE.addAll(completenessE);
-        _H = new ArrayList<>();
-        _H.addAll(H);
+        _E = PersistentList.of(E);
+        _completenessE = PersistentList.of(completenessE);
+        _H = PersistentList.of(H);
         _completeness = completeness;
     }
 
-    public ProofState(ArrayList<FirstOrderRule> H, boolean completeness) {
-        _E = new ArrayList<>();
-        _completenessE = new ArrayList<>();
-        _H = new ArrayList<>();
-        _H.addAll(H);
+    public ProofState(List<FirstOrderRule> H, boolean completeness) {
+        _E = PersistentList.empty();
+        _completenessE = PersistentList.empty();
+        _H = PersistentList.of(H);
         _completeness = completeness;
     }
 
     public ProofState(IProofState ps) {
-        _E = new ArrayList<>();
-        _completenessE = new ArrayList<>();
-        _H = new ArrayList<>();
-        for (ProofEquation pe : ps.getE()) _E.add(new Equation(pe));
-        for (ProofEquation pe : ps.getCompletenessE()) _completenessE.add(new Equation(pe));
-        for (FirstOrderRule r : ps.getH()) _H.add(new FirstOrderRule(r));
+        if (ps instanceof ProofState) {
+            ProofState other = (ProofState) ps;
+            _E = other._E;
+            _completenessE = other._completenessE;
+            _H = other._H;
+        } else {
+            _E = PersistentList.of(ps.getE());
+            _completenessE = PersistentList.of(ps.getCompletenessE());
+            _H = PersistentList.of(ps.getH());
+        }
         _completeness = ps.getCompleteness();
     }
-    public ArrayList<ProofEquation> getE() {
-        return _E;
+
+    public List<ProofEquation> getE() {
+        return _E.asList();
     }
 
     @Override
@@ -63,22 +77,22 @@ public class ProofState implements IProofState {
         return _E.get(0).getConstraint();
     }
 
-    public ArrayList<ProofEquation> getCompletenessE() {
-        return _completenessE;
+    public List<ProofEquation> getCompletenessE() {
+        return _completenessE.asList();
     }
 
     @Override
-    public void setCompletenessE(ArrayList<ProofEquation> eqs) {
-        _completenessE.addAll(eqs);
+    public void setCompletenessE(List<ProofEquation> eqs) {
+        _completenessE = _completenessE.addAll(eqs);
     }
 
     @Override
     public void emptyCompletenessSet() {
-        _completenessE.clear();
+        _completenessE = PersistentList.empty();
     }
 
-    public ArrayList<FirstOrderRule> getH() {
-        return _H;
+    public List<FirstOrderRule> getH() {
+        return _H.asList();
     }
 
     @Override
@@ -89,33 +103,67 @@ public class ProofState implements IProofState {
 
     @Override
     public void removeCurrentEquation() {
-        try {
-            _E.remove(_E.remove(0));
-        } catch (IndexOutOfBoundsException e) {
-
-        }
+        if (_E.isEmpty()) return;
+        unindex(_E.get(0));
+        _E = _E.remove(0);
     }
 
     @Override
-    public void addEquations(ArrayList<ProofEquation> eqs) {
+    public void addEquations(List<ProofEquation> eqs) {
+        HashMap<ProofEquation, Integer> index = index();
         for (ProofEquation eq : eqs) {
-            if (!_E.contains(eq)) _E.add(eq);
+            if (index.containsKey(eq)) continue;
+            index.put(eq, 1);
+            _E = _E.add(eq);
         }
     }
 
+    @Override
+    public boolean containsEquation(ProofEquation eq) {
+        return index().containsKey(eq);
+    }
+
+    @Override
+    public void setEquation(int index, ProofEquation eq) {
+        unindex(_E.get(index));
+        _E = _E.set(index, eq);
+        if (_index != null) _index.merge(eq, 1, Integer::sum);
+    }
+
+    @Override
+    public void swapEquations(int i, int j) {
+        _E = _E.swap(i, j);
+    }
+
     @Override
     public void setS(Term s) {
-        _E.get(0).setLeft(s);
+        ProofEquation eq = _E.get(0);
+        if (s != null) setEquation(0, new Equation(s, eq.getRight(), eq.getConstraint()));
     }
 
     @Override
     public void setT(Term t) {
-        _E.get(0).setRight(t);
+        ProofEquation eq = _E.get(0);
+        if (t != null) setEquation(0, new Equation(eq.getLeft(), t, eq.getConstraint()));
     }
 
     @Override
     public void setC(Term c) {
-        _E.get(0).setConstraint(c);
+        ProofEquation eq = _E.get(0);
+        if (c != null) setEquation(0, new Equation(eq.getLeft(), eq.getRight(), c));
+    }
+
+    /** Returns the number of occurrences of every equation in E, building the index if needed. */
+    private HashMap<ProofEquation, Integer> index() {
+        if (_index == null) {
+            _index = new HashMap<>();
+            for (ProofEquation eq : _E) _index.merge(eq, 1, Integer::sum);
+        }
+        return _index;
+    }
+
+    private void unindex(ProofEquation eq) {
+        if (_index != null) _index.computeIfPresent(eq, (k, n) -> n == 1 ? null : n - 1);
     }
 
     @Override
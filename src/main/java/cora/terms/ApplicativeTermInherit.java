@@ -23,8 +23,7 @@ import cora.exceptions.NullInitialisationError;
 import cora.exceptions.TypingError;
 import cora.interfaces.types.Type;
 import cora.interfaces.terms.*;
-import cora.terms.positions.EmptyPosition;
-import cora.terms.positions.ArgumentPosition;
+import cora.terms.positions.ArrayPosition;
 
 /**
  * An ApplicativeTermInherit provides the shared functionality for terms of the form
@@ -33,6 +32,10 @@ import cora.terms.positions.ArgumentPosition;
 abstract class ApplicativeTermInherit extends TermInherit implements Term {
   protected List<Term> _args;
   protected Type _outputType;
+  private long _hash;
+  private int _size;
+  private int _depth;
+  private boolean _ground;
 
   /**
    * This function should create head(newargs), with the same output type.
@@ -54,6 +57,8 @@ abstract class ApplicativeTermInherit extends TermInherit implements Term {
    * If there are any problems -- such as the head or an argument being null, or the types not
    * checking out -- an appropriate Error is thrown. However, it *is* assumed that args is not
    * null.
+   * The arguments are replaced by their canonical versions from the TermFactory, so that equal
+   * subterms are shared.
    */
   private void construct(Term head, List<Term> args) {
     if (head == null) throw new NullInitialisationError(queryMyClassName(), "head");
@@ -75,9 +80,30 @@ abstract class ApplicativeTermInherit extends TermInherit implements Term {
           input.toString());
       }
       type = type.queryArrowOutputType();
+      args.set(i, TermFactory.intern(arg));
     }
     _args = args;
     _outputType = type;
+    setupMetadata(head);
+  }
+
+  /**
+   * This helper function computes the structural hash, size, depth and groundness of the term
+   * head(args), where the arguments are taken from _args.  It should be called exactly once, by
+   * each constructor, after _args has been set up.
+   */
+  protected void setupMetadata(Term head) {
+    _hash = head.queryStructuralHash();
+    _size = 1;
+    _depth = 0;
+    _ground = !head.isVariable();
+    for (int i = 0; i < _args.size(); i++) {
+      Term arg = _args.get(i);
+      _hash = combineHash(_hash, arg.queryStructuralHash());
+      _size += arg.querySize();
+      if (arg.queryDepth() + 1 > _depth) _depth = arg.queryDepth() + 1;
+      _ground = _ground && arg.isGround();
+    }
   }
 
   /**
@@ -117,6 +143,26 @@ abstract class ApplicativeTermInherit extends TermInherit implements Term {
     construct(head, new ArrayList<Term>(args));
   }
 
+  /** Returns the structural hash that was computed when the term was constructed. */
+  public long queryStructuralHash() {
+    return _hash;
+  }
+
+  /** For a term head(s1,...,sn), this returns 1 + the sizes of s1,...,sn. */
+  public int querySize() {
+    return _size;
+  }
+
+  /** For a term head(s1,...,sn), this returns 1 + the maximum depth of s1,...,sn (or 0 if n = 0). */
+  public int queryDepth() {
+    return _depth;
+  }
+
+  /** Returns whether the head is not a variable, and all arguments are ground. */
+  public boolean isGround() {
+    return _ground;
+  }
+
   /** This method returns the output type of the term. */
   public Type queryType() {
     return _outputType;
@@ -138,20 +184,29 @@ abstract class ApplicativeTermInherit extends TermInherit implements Term {
 
   /** Returns the positions in all subterms, from left to right, followed by the empty position. */
   public List<Position> queryAllPositions() {
-    List<Position> ret = new ArrayList<Position>();
-    for (int i = 0; i < _args.size(); i++) {
-      List<Position> subposses = _args.get(i).queryAllPositions();
-      for (int j = 0; j < subposses.size(); j++) {
-        ret.add(new ArgumentPosition(i+1, subposses.get(j)));
-      }
-    }
-    ret.add(new EmptyPosition());
+    List<Position> ret = new ArrayList<Position>(querySize());
+    visitPostOrder((sub, path) -> ret.add(path.toPosition()));
     return ret;
   }
 
-  /** @return this if the position is empty; otherwise throws an IndexingError */
+  /**
+   * @return the subterm at the given position, if such a position exists; otherwise throws an
+   * IndexingError
+   */
   public Term querySubterm(Position pos) {
     if (pos.isEmpty()) return this;
+    if (pos instanceof ArrayPosition) {
+      ArrayPosition p = (ArrayPosition)pos;
+      Term ret = this;
+      for (int j = 1; j <= p.length(); j++) {
+        int index = p.queryIndex(j);
+        if (index < 1 || index > ret.numberImmediateSubterms()) {
+          throw new IndexingError(queryMyClassName(), "querySubterm", toString(), pos.toString());
+        }
+        ret = ret.queryImmediateSubterm(index);
+      }
+      return ret;
+    }
     int index = pos.queryArgumentPosition();
     if (index < 1 || index > _args.size()) {
       throw new IndexingError(queryMyClassName(), "querySubterm", toString(), pos.toString());
@@ -181,6 +236,15 @@ abstract class ApplicativeTermInherit extends TermInherit implements Term {
     return reconstruct(args);
   }
 
+  /**
+   * This replaces every element of args by its canonical version, and returns args.
+   * It should be used on argument lists that are passed to reconstruct.
+   */
+  protected static List<Term> internArgs(List<Term> args) {
+    for (int i = 0; i < args.size(); i++) args.set(i, TermFactory.intern(args.get(i)));
+    return args;
+  }
+
   /**
    * This method applies the substitution recursively to the arguments and returns the resulting
    * substituted-arguments list.
@@ -156,9 +156,9 @@ public class Constant extends LeafTermInherit implements FunctionSymbol {
   /** Does nothing, since a function symbol does not use any variables. */
   public void updateVars(Environment env) {}
 
-  /** Returns the FunctionalTerm f(args). */
+  /** Returns the (canonical) FunctionalTerm f(args). */
   public Term apply(List<Term> args) {
-    return new FunctionalTerm(this, args);
+    return TermFactory.createFunctionalTerm(this, args);
   }
 
   /** Returns the current constant unmodified (there is nothing to substitute in a constant). */
@@ -178,25 +178,29 @@ public class Constant extends LeafTermInherit implements FunctionSymbol {
 
   /** This method verifies equality to another Term. */
   public boolean equals(Term term) {
+    if (term == this) return true;
     if (term == null) return false;
     if (!term.isConstant()) return false;
     return equals(term.queryRoot());
   }
 
-  /** Hashcode for Varterms based on the Variable */
+  /**
+   * The structural hash of a constant only depends on its name, so that it coincides with the
+   * structural hash of the functional term f() with no arguments.
+   */
+  protected long computeStructuralHash() {
+    return mixHash(0x5bd1e995L * _name.hashCode() + 1);
+  }
+
+  /** Hashcode for Constants based on the structural hash (so on the name) */
   @Override
   public int hashCode() {
-    return Objects.hash(_name);
+    return Long.hashCode(queryStructuralHash());
   }
 
-  /** Applies the unification algorithm between Variable and another term */
+  /** Returns a most general unifier of this term and other (see Unifier), or null if none exists. */
   public Substitution unify(Term other) {
-    if (other.isConstant() && !this.equals(other)) return null; // Conflict
-    if (this.equals(other)) return new Subst(); // Delete
-    if (other.isVariable()) { //Swap
-      return other.unify(this);
-    }
-    return null;
+    return Unifier.unify(this, other);
   }
 
   public static boolean isNumeric(String str) {
@@ -71,6 +71,7 @@ public class FunctionalTerm extends ApplicativeTermInherit implements Term {
     _f = f;
     _args = args;
     _outputType = outputType;
+    setupMetadata(f);
   }
 
   private FunctionalTerm(FunctionalTerm f) {
@@ -86,9 +87,12 @@ public class FunctionalTerm extends ApplicativeTermInherit implements Term {
     _outputType = f.queryType();
   }
 
-  /** This method is called by inherited functions, and calls the private constructor. */
+  /**
+   * This method is called by inherited functions, and calls the private constructor.
+   * The result is the canonical version of f(args) from the TermFactory.
+   */
   protected FunctionalTerm reconstruct(List<Term> args) {
-    return new FunctionalTerm(args, _f, _outputType);
+    return (FunctionalTerm)TermFactory.intern(new FunctionalTerm(internArgs(args), _f, _outputType));
   }
 
   /** @return fakse */
@@ -130,7 +134,7 @@ public class FunctionalTerm extends ApplicativeTermInherit implements Term {
     if (i == 0) return _f;
     List<Term> newargs = new ArrayList<Term>();
     for (int j = 0; j < i; j++) newargs.add(_args.get(j));
-    return new FunctionalTerm(_f, newargs);
+    return TermFactory.createFunctionalTerm(_f, newargs);
   }
 
   /** Returns whether (a) this term has base type, and (b) all its arguments are first-order. */
@@ -161,7 +165,7 @@ public class FunctionalTerm extends ApplicativeTermInherit implements Term {
   public Term apply(List<Term> extra) {
     List<Term> newargs = new ArrayList<Term>(_args);
     newargs.addAll(extra);
-    return new FunctionalTerm(_f, newargs);
+    return TermFactory.createFunctionalTerm(_f, newargs);
   }
 
   /** This function applies gamma recursively on the arguments and returns the result. */
@@ -178,9 +182,12 @@ public class FunctionalTerm extends ApplicativeTermInherit implements Term {
   public String match(Term other, Substitution gamma) {
     if (other == null) throw new NullCallError("FunctionalTerm", "match", "argument term (other)");
     if (!other.isFunctionalTerm() || !_f.equals(other.queryRoot()) ||
-        _args.size() != other.numberImmediateSubterms()) {
+        _args.size() != other.numberImmediateSubterms() ||
+        other.querySize() < querySize() || other.queryDepth() < queryDepth() ||
+        (isGround() && !equals(other))) {
       return "functional term " + toString() + " is not instantiated by " + other.toString() + ".";
     }   
+    if (isGround()) return null;
     for (int i = 0; i < _args.size(); i++) {
       String warning = _args.get(i).match(other.queryImmediateSubterm(i+1), gamma);
       if (warning != null) return warning;
@@ -218,7 +225,9 @@ public class FunctionalTerm extends ApplicativeTermInherit implements Term {
 
   /** This method verifies equality to another Term. */
   public boolean equals(Term term) {
+    if (term == this) return true;
     if (term == null) return false;
+    if (term.queryStructuralHash() != queryStructuralHash()) return false;
     if (!term.isFunctionalTerm()) return false;
     if (!_f.equals(term.queryRoot())) return false;
     if (_args.size() != term.numberImmediateSubterms()) return false;
@@ -228,35 +237,9 @@ public class FunctionalTerm extends ApplicativeTermInherit implements Term {
     return true;
   }
 
-  /**
-   *
-   */
+  /** Returns a most general unifier of this term and other (see Unifier), or null if none exists. */
   public Substitution unify(Term other) {
-    if (other.isVariable()) {
-      if (this.vars().contains(other.queryVariable())) return null;
-      return other.unify(this);
-    }
-    if (_f.equals(other.queryRoot())) {
-      Subst sigma = new Subst();
-      for (int i = 0; i < _args.size(); i++) {
-        Substitution sigma_i = _args.get(i).substitute(sigma).unify(other.queryImmediateSubterm(i+1));
-        if (sigma_i == null) return null;
-        for (Variable x : sigma_i.domain()) {
-          Term sigma_i_x = sigma_i.get(x).substitute(sigma);
-          if (!sigma.extend(x, sigma_i_x) && sigma.get(x) != null && !sigma.get(x).equals(sigma_i_x)) return null;
-          other = other.substitute(sigma);
-          for (Variable v : new HashSet<>(sigma.domain())) {
-            if (sigma.getReplacement(v).vars().contains(x)) {
-              Term replacement = sigma.getReplacement(v);
-              sigma.delete(v);
-              sigma.extend(v, replacement.substitute(new Subst(x, sigma_i_x)));
-            }
-          }
-        }
-      }
-      return sigma;
-    }
-    return null;
+    return Unifier.unify(this, other);
   }
 
     @Override
@@ -314,10 +297,10 @@ public class FunctionalTerm extends ApplicativeTermInherit implements Term {
     return vars;
   }
 
-    /** Hashcode for FunctionalTerm based on its root symbol and its arguments */
+  /** Hashcode for FunctionalTerm based on its (precomputed) structural hash */
   @Override
   public int hashCode() {
-    return Objects.hash(_f, _args);
+    return Long.hashCode(queryStructuralHash());
   }
 }
 
@@ -26,7 +26,7 @@ import cora.exceptions.IndexingError;
 import cora.exceptions.NullCallError;
 import cora.exceptions.NullInitialisationError;
 import cora.exceptions.TypingError;
-import cora.terms.positions.EmptyPosition;
+import cora.terms.positions.ArrayPosition;
 
 /**
  * A "leaf term" is any term that does not have strict subterms, such as variables or constants.
@@ -35,12 +35,20 @@ import cora.terms.positions.EmptyPosition;
 
 abstract class LeafTermInherit extends TermInherit implements Term {
   private Type _type;
+  private long _hash;
+  private volatile boolean _hashComputed;
 
   public abstract FunctionSymbol queryRoot();
   public abstract Variable queryVariable();
   public abstract Term substitute(Substitution gamma);
   public abstract String toString();
 
+  /**
+   * Computes the structural hash of the current leaf.  This is called at most once for each
+   * leaf, since the result is stored.
+   */
+  protected abstract long computeStructuralHash();
+
   /** Helper function to return the current classname for use in Errors. */
   private String queryMyClassName() {
     return "LeafTermInherit (" + this.getClass().getSimpleName() + ")";
@@ -55,6 +63,34 @@ abstract class LeafTermInherit extends TermInherit implements Term {
     return _type;
   }
 
+  /**
+   * Returns the structural hash of the current leaf.  Since subclasses only set up their own
+   * data after the LeafTermInherit constructor has finished, it is computed on the first query
+   * rather than in the constructor.
+   */
+  public long queryStructuralHash() {
+    if (!_hashComputed) {
+      _hash = computeStructuralHash();
+      _hashComputed = true;
+    }
+    return _hash;
+  }
+
+  /** @return 1, since a leaf term only has the empty position */
+  public int querySize() {
+    return 1;
+  }
+
+  /** @return 0, since a leaf term only has the empty position */
+  public int queryDepth() {
+    return 0;
+  }
+
+  /** @return true if and only if the current leaf is not a variable */
+  public boolean isGround() {
+    return !isVariable();
+  }
+
   public boolean isFirstOrder() {
     return _type.isBaseType();
   }
@@ -82,7 +118,7 @@ abstract class LeafTermInherit extends TermInherit implements Term {
   /** @return a list containing only the empty Position. */
   public ArrayList<Position> queryAllPositions() {
     ArrayList<Position> ret = new ArrayList<Position>();
-    ret.add(new EmptyPosition());
+    ret.add(new ArrayPosition());
     return ret;
   }
 
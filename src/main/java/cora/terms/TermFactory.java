@@ -0,0 +1,189 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.terms;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import cora.exceptions.NullCallError;
+import cora.interfaces.terms.FunctionSymbol;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+
+/**
+ * The TermFactory keeps a hash-consing table of all terms constructed in cora.terms, so that
+ * structurally equal terms are represented by the same object wherever possible.
+ *
+ * All applicative terms store the canonical versions of their immediate subterms, and terms that
+ * are built internally (for instance by substitute, replaceSubterm or apply) are themselves made
+ * canonical.  As a result, equal subterms are shared between terms rather than duplicated, and
+ * equality checks on them usually end at a reference comparison.
+ *
+ * The table only keeps weak references, so terms which are no longer used elsewhere can still be
+ * garbage collected.  It is safe for use by multiple threads.
+ *
+ * Variables are never stored in the table, since they are already identified by their index.
+ */
+public class TermFactory {
+  private static final ConcurrentHashMap<TermKey,TermKey> _table =
+    new ConcurrentHashMap<TermKey,TermKey>();
+  private static final ReferenceQueue<Term> _queue = new ReferenceQueue<Term>();
+
+  private TermFactory() {}
+
+  /**
+   * A TermKey is an entry in the hash-consing table.  Keys stored in the table refer to their
+   * term weakly; probe keys (used only for lookups) additionally hold the term strongly.
+   * Two keys are equal if their terms are equal at the top, and have the same (canonical)
+   * immediate subterms.
+   */
+  private static class TermKey extends WeakReference<Term> {
+    private final int _hash;
+    private final Term _probe;
+
+    /** Creates a key that is stored in the table. */
+    TermKey(Term term, int hash, ReferenceQueue<Term> queue) {
+      super(term, queue);
+      _hash = hash;
+      _probe = null;
+    }
+
+    /** Creates a key that is only used to look up the given term. */
+    TermKey(Term term, int hash) {
+      super(term);
+      _hash = hash;
+      _probe = term;
+    }
+
+    Term query() {
+      if (_probe != null) return _probe;
+      return get();
+    }
+
+    public int hashCode() {
+      return _hash;
+    }
+
+    public boolean equals(Object other) {
+      if (other == this) return true;
+      if (!(other instanceof TermKey)) return false;
+      TermKey key = (TermKey)other;
+      if (key._hash != _hash) return false;
+      Term mine = query(), his = key.query();
+      if (mine == null || his == null) return false;
+      return shallowEquals(mine, his);
+    }
+  }
+
+  /**
+   * Returns the canonical term that is structurally equal to t.  If there is no such term yet,
+   * then t itself becomes the canonical representative.
+   * It is assumed that the immediate subterms of t are already canonical, which is guaranteed
+   * for all terms constructed in cora.terms.
+   */
+  public static Term intern(Term t) {
+    if (t == null) throw new NullCallError("TermFactory", "intern", "term t");
+    if (t instanceof Var) return t;
+    expungeStaleEntries();
+    int hash = shallowHash(t);
+    TermKey probe = new TermKey(t, hash);
+    while (true) {
+      TermKey existing = _table.get(probe);
+      if (existing == null) {
+        TermKey key = new TermKey(t, hash, _queue);
+        existing = _table.putIfAbsent(key, key);
+        if (existing == null) return t;
+      }
+      Term ret = existing.get();
+      if (ret != null) return ret;
+      // the existing entry was collected in the meantime; clear it and try again
+      _table.remove(existing, existing);
+    }
+  }
+
+  /** Creates the canonical term f(args). */
+  public static Term createFunctionalTerm(FunctionSymbol f, List<Term> args) {
+    return intern(new FunctionalTerm(f, args));
+  }
+
+  /** Creates the canonical term f(arg). */
+  public static Term createFunctionalTerm(FunctionSymbol f, Term arg) {
+    return intern(new FunctionalTerm(f, arg));
+  }
+
+  /** Creates the canonical term f(arg1, arg2). */
+  public static Term createFunctionalTerm(FunctionSymbol f, Term arg1, Term arg2) {
+    return intern(new FunctionalTerm(f, arg1, arg2));
+  }
+
+  /** Creates the canonical term x(args). */
+  public static Term createVarTerm(Variable x, List<Term> args) {
+    return intern(new VarTerm(x, args));
+  }
+
+  /** Returns the number of (possibly stale) entries currently in the hash-consing table. */
+  public static int queryTableSize() {
+    expungeStaleEntries();
+    return _table.size();
+  }
+
+  /** Removes all entries from the table whose term has been garbage collected. */
+  private static void expungeStaleEntries() {
+    Object ref;
+    while ((ref = _queue.poll()) != null) _table.remove(ref, ref);
+  }
+
+  /** Returns whether the given terms have the same shape at the top, and share their arguments. */
+  private static boolean shallowEquals(Term a, Term b) {
+    if (a == b) return true;
+    if (a.getClass() != b.getClass()) return false;
+    if (a instanceof Constant) return sameSymbol((Constant)a, (Constant)b);
+    int n = a.numberImmediateSubterms();
+    if (n != b.numberImmediateSubterms()) return false;
+    if (a.isVarTerm()) {
+      if (!a.queryVariable().equals(b.queryVariable())) return false;
+    }
+    else {
+      FunctionSymbol f = a.queryRoot(), g = b.queryRoot();
+      if (f != g && (!(f instanceof Constant) || !(g instanceof Constant) ||
+                     !sameSymbol((Constant)f, (Constant)g))) return false;
+    }
+    for (int i = 1; i <= n; i++) {
+      Term x = a.queryImmediateSubterm(i), y = b.queryImmediateSubterm(i);
+      if (x == y) continue;
+      if (!(x instanceof Var) || !(y instanceof Var) || !x.equals(y)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether the two constants are indistinguishable: not only equal (which only concerns
+   * name and type), but also printed in the same way.
+   */
+  private static boolean sameSymbol(Constant f, Constant g) {
+    return f.equals((FunctionSymbol)g) && f.isInfix() == g.isInfix() &&
+           f.isTheorySymbol() == g.isTheorySymbol() && f.precedence() == g.precedence();
+  }
+
+  /**
+   * Returns a hash code that is consistent with shallowEquals; since shallowly equal terms are
+   * also structurally equal, the precomputed structural hash can be used.
+   */
+  private static int shallowHash(Term t) {
+    return Long.hashCode(t.queryStructuralHash());
+  }
+}
@@ -17,9 +17,13 @@ package cora.terms;
 
 import java.util.List;
 import java.util.ArrayList;
+import cora.exceptions.TypingError;
 import cora.interfaces.terms.Term;
 import cora.interfaces.terms.Environment;
 import cora.interfaces.terms.Substitution;
+import cora.interfaces.terms.SubtermTransformer;
+import cora.interfaces.terms.SubtermVisitor;
+import cora.terms.positions.MutablePath;
 
 /**
  * A TermInherit supplies default functionality for all instances of Term.
@@ -31,6 +35,7 @@ abstract class TermInherit {
   abstract boolean equals(Term other);
   abstract void updateVars(Environment env);
   abstract Term apply(List<Term> args);
+  abstract int queryDepth();
 
   /** Returns the set of all variables occurring in the current term. */
   public Environment vars() {
@@ -53,6 +58,85 @@ abstract class TermInherit {
     return null;
   }
 
+  /** Visits all subterms in pre-order, using a single path for the whole traversal. */
+  public boolean visitPreOrder(SubtermVisitor visitor) {
+    return visitPreOrder((Term)this, new MutablePath(queryDepth()), visitor);
+  }
+
+  /** Visits all subterms in post-order, using a single path for the whole traversal. */
+  public boolean visitPostOrder(SubtermVisitor visitor) {
+    return visitPostOrder((Term)this, new MutablePath(queryDepth()), visitor);
+  }
+
+  /** Rebuilds the term bottom-up, using a single path for the whole traversal. */
+  public Term transformPostOrder(SubtermTransformer transformer) {
+    return transformPostOrder((Term)this, new MutablePath(queryDepth()), transformer);
+  }
+
+  private static boolean visitPreOrder(Term t, MutablePath path, SubtermVisitor visitor) {
+    if (!visitor.visit(t, path)) return false;
+    for (int i = 1; i <= t.numberImmediateSubterms(); i++) {
+      path.push(i);
+      boolean ok = visitPreOrder(t.queryImmediateSubterm(i), path, visitor);
+      path.pop();
+      if (!ok) return false;
+    }
+    return true;
+  }
+
+  private static boolean visitPostOrder(Term t, MutablePath path, SubtermVisitor visitor) {
+    for (int i = 1; i <= t.numberImmediateSubterms(); i++) {
+      path.push(i);
+      boolean ok = visitPostOrder(t.queryImmediateSubterm(i), path, visitor);
+      path.pop();
+      if (!ok) return false;
+    }
+    return visitor.visit(t, path);
+  }
+
+  private static Term transformPostOrder(Term t, MutablePath path,
+                                         SubtermTransformer transformer) {
+    List<Term> args = null;
+    int n = t.numberImmediateSubterms();
+    for (int i = 1; i <= n; i++) {
+      Term arg = t.queryImmediateSubterm(i);
+      path.push(i);
+      Term newarg = transformPostOrder(arg, path, transformer);
+      path.pop();
+      if (newarg != arg && args == null) {
+        args = new ArrayList<Term>(n);
+        for (int j = 1; j < i; j++) args.add(t.queryImmediateSubterm(j));
+      }
+      if (args != null) args.add(newarg);
+    }
+    if (args != null) t = t.queryImmediateHeadSubterm(0).apply(args);
+    Term ret = transformer.transform(t, path);
+    if (ret == null || !ret.queryType().equals(t.queryType())) {
+      throw new TypingError("TermInherit", "transformPostOrder", "replacement for subterm " +
+        t.toString() + " at position " + path.toString(),
+        ret == null ? "null" : ret.queryType().toString(), t.queryType().toString());
+    }
+    return ret;
+  }
+
+  /** Mixes the bits of a 64-bit hash value (this is the finalisation step of MurmurHash3). */
+  static long mixHash(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * Returns the structural hash of head(args), given the structural hash of head and of each of
+   * the arguments.  If there are no arguments, this is just the hash of the head.
+   */
+  static long combineHash(long headHash, long argHash) {
+    return mixHash(headHash * 0x100000001b3L + argHash);
+  }
+
   /** This method verifies equality to another Term. */
   public boolean equals(Object other) {
     if (other instanceof Term) return equals((Term)other);
@@ -0,0 +1,178 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.terms;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import cora.exceptions.NullCallError;
+import cora.interfaces.terms.Substitution;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+
+/**
+ * The Unifier computes most general unifiers of first-order terms, following Martelli and
+ * Montanari: a stack of equations is decomposed until only equations involving a variable remain.
+ *
+ * Variables that are unified with each other are kept in a union-find structure (with path
+ * compression), and only the representative of a class is bound to a non-variable term. These
+ * bindings form a triangular substitution: a bound term may itself contain bound variables, so a
+ * binding never has to be applied to the others. The occurs check is done lazily: bindings are
+ * made without it, and the substitution is only resolved into an idempotent one at the end, where
+ * a cycle means that there is no unifier. Resolved bindings are remembered, so every class is
+ * resolved (and checked) once.
+ *
+ * When a variable of s meets a variable of t directly, the one from s is bound to the one from t, so
+ * unify(s, t) renames the variables of s rather than those of t where it can (RewriteConstraint
+ * relies on this).
+ */
+public class Unifier {
+  private final HashMap<Variable,Variable> _parent;
+  private final HashMap<Variable,Term> _bindings;
+  private final HashMap<Variable,Term> _resolved;
+  private final HashSet<Variable> _active;
+
+  private Unifier() {
+    _parent = new HashMap<Variable,Variable>();
+    _bindings = new HashMap<Variable,Term>();
+    _resolved = new HashMap<Variable,Term>();
+    _active = new HashSet<Variable>();
+  }
+
+  /**
+   * Returns a most general unifier of s and t (a substitution gamma with s gamma = t gamma, which
+   * maps variables to terms that do not contain variables in its domain), or null if there is none.
+   * Applied variables (VarTerms) are treated as opaque: a variable may be bound to one (subject to
+   * the occurs check), but otherwise they only unify with terms that are equal to them.
+   */
+  public static Substitution unify(Term s, Term t) {
+    if (s == null) throw new NullCallError("Unifier", "unify", "first term");
+    if (t == null) throw new NullCallError("Unifier", "unify", "second term");
+    Unifier unifier = new Unifier();
+    if (!unifier.solve(s, t)) return null;
+    return unifier.resolve();
+  }
+
+  /** Returns the representative of the class of x, compressing the path to it. */
+  private Variable find(Variable x) {
+    Variable parent = _parent.get(x);
+    if (parent == null) return x;
+    Variable root = find(parent);
+    if (root != parent) _parent.put(x, root);
+    return root;
+  }
+
+  /** Decomposes the equation s = t; returns false if this reveals a clash. */
+  private boolean solve(Term s, Term t) {
+    ArrayDeque<Term> stack = new ArrayDeque<Term>();
+    stack.push(t);
+    stack.push(s);
+    while (!stack.isEmpty()) {
+      Term a = stack.pop();
+      Term b = stack.pop();
+      if (a == b) continue;
+      if (a.isVariable() || b.isVariable()) {
+        if (!a.queryType().equals(b.queryType())) return false;
+        if (!a.isVariable()) bind(find(b.queryVariable()), a, stack);
+        else if (!b.isVariable()) bind(find(a.queryVariable()), b, stack);
+        else union(find(a.queryVariable()), find(b.queryVariable()), stack);
+      }
+      else if (a.isVarTerm() || b.isVarTerm()) {
+        if (!a.equals(b)) return false;
+      }
+      else {
+        int n = a.numberImmediateSubterms();
+        if (n != b.numberImmediateSubterms() || !a.queryRoot().equals(b.queryRoot())) return false;
+        for (int i = n; i >= 1; i--) {
+          stack.push(b.queryImmediateSubterm(i));
+          stack.push(a.queryImmediateSubterm(i));
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Binds the representative x to the non-variable term t; if x is already bound, the equation
+   * between its binding and t is pushed instead.
+   */
+  private void bind(Variable x, Term t, ArrayDeque<Term> stack) {
+    Term current = _bindings.get(x);
+    if (current == null) _bindings.put(x, t);
+    else {
+      stack.push(t);
+      stack.push(current);
+    }
+  }
+
+  /**
+   * Merges the classes of the representatives x and y, making y the representative; if both are
+   * bound, the equation between their bindings is pushed.
+   */
+  private void union(Variable x, Variable y, ArrayDeque<Term> stack) {
+    if (x.equals(y)) return;
+    _parent.put(x, y);
+    Term tx = _bindings.remove(x);
+    if (tx != null) bind(y, tx, stack);
+  }
+
+  /**
+   * Turns the union-find structure and the triangular bindings into an idempotent substitution,
+   * or returns null if a variable turns out to occur in its own binding.
+   */
+  private Substitution resolve() {
+    Subst ret = new Subst();
+    HashSet<Variable> domain = new HashSet<Variable>(_parent.keySet());
+    domain.addAll(_bindings.keySet());
+    for (Variable x : domain) {
+      Term value = resolveVariable(x);
+      if (value == null) return null;
+      if (!value.equals(x)) ret.extend(x, value);
+    }
+    return ret;
+  }
+
+  /**
+   * Returns the fully resolved value of x: the resolved binding of its representative, or the
+   * representative itself if that is unbound. Returns null if there is a cycle.
+   */
+  private Term resolveVariable(Variable x) {
+    Variable root = find(x);
+    Term binding = _bindings.get(root);
+    if (binding == null) return root;
+    Term ret = _resolved.get(root);
+    if (ret != null) return ret;
+    if (!_active.add(root)) return null;
+    ret = resolveTerm(binding);
+    _active.remove(root);
+    if (ret != null) _resolved.put(root, ret);
+    return ret;
+  }
+
+  /** Applies the resolved substitution to t, or returns null if this runs into a cycle. */
+  private Term resolveTerm(Term t) {
+    if (t.isGround()) return t;
+    Subst gamma = new Subst();
+    for (Variable y : t.vars()) {
+      if (!_parent.containsKey(y) && !_bindings.containsKey(y)) continue;
+      Term value = resolveVariable(y);
+      if (value == null) return null;
+      if (!value.equals(y)) gamma.extend(y, value);
+    }
+    if (gamma.domain().isEmpty()) return t;
+    return t.substitute(gamma);
+  }
+}
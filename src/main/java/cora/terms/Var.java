@@ -16,6 +16,7 @@
 package cora.terms;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import cora.exceptions.InappropriatePatternDataError;
 import cora.exceptions.NullCallError;
@@ -35,7 +36,8 @@ import org.antlr.runtime.tree.Tree;
  * single term).  Rather, variables are uniquely identified by an internally kept index.
  */
 public class Var extends LeafTermInherit implements Variable {
-  private static int COUNTER = 0;
+  /** Shared by all threads, so that variables created concurrently still get distinct indexes. */
+  private static final AtomicInteger COUNTER = new AtomicInteger();
   private String _name;
   public int _index;
 
@@ -43,8 +45,7 @@ public class Var extends LeafTermInherit implements Variable {
   public Var(String name, Type type) {
     super(type);
     _name = name;
-    _index = COUNTER;
-    COUNTER++;
+    _index = COUNTER.getAndIncrement();
     if (name == null) throw new NullInitialisationError("Var", "name");
   }
 
@@ -52,32 +53,29 @@ public class Var extends LeafTermInherit implements Variable {
   public Var(String name) {
     super(Sort.unitSort);
     _name = name;
-    _index = COUNTER;
-    COUNTER++;
+    _index = COUNTER.getAndIncrement();
     if (name == null) throw new NullInitialisationError("Var", "name");
   }
 
   /** Create a variable without a name; a name will be automatically generated. */
   public Var(Type type) {
     super(type);
-    _name = "a[" + COUNTER + "]";
-    _index = COUNTER;
-    COUNTER++;
+    _index = COUNTER.getAndIncrement();
+    _name = "a[" + _index + "]";
   }
 
   /** Create a variable with auto-generated name and the unit sort, for unsorted rewriting. */
   public Var() {
     super(Sort.unitSort);
-    _name = "a[" + COUNTER + "]";
-    _index = COUNTER;
-    COUNTER++;
+    _index = COUNTER.getAndIncrement();
+    _name = "a[" + _index + "]";
   }
 
   public Var(Var v) {
     super(v.queryType());
     _name = v.queryName();
     _index = v.queryVariableIndex();
-    COUNTER++;
+    COUNTER.getAndIncrement();
   }
 
   /** @return true */
@@ -102,6 +100,14 @@ public class Var extends LeafTermInherit implements Variable {
     return _index;
   }
 
+  /**
+   * The structural hash of a variable only depends on its index, since this is what identifies
+   * the variable.
+   */
+  protected long computeStructuralHash() {
+    return mixHash(0x27d4eb2f165667c5L * _index + 2);
+  }
+
   /** @return the name of the variable, along with its index. */
   public String toString() {
     return _name;
@@ -122,9 +128,9 @@ public class Var extends LeafTermInherit implements Variable {
     env.add(this);
   }
 
-  /** Returns the VarTerm x(args). */
+  /** Returns the (canonical) VarTerm x(args). */
   public Term apply(List<Term> args) {
-    return new VarTerm(this, args);
+    return TermFactory.createVarTerm(this, args);
   }
 
   /** @return gamma(x) if the current variable is x and x in dom(gamma), otherwise just x */
@@ -170,11 +176,9 @@ public class Var extends LeafTermInherit implements Variable {
     return equals(other.queryVariable());
   }
 
-  /** Applies the unification algorithm between Variable and another term */
+  /** Returns a most general unifier of this term and other (see Unifier), or null if none exists. */
   public Substitution unify(Term other) {
-    if (other.isVariable()) return new Subst(this, other);
-    if (other.vars().contains(this)) return null;
-    return new Subst(this, other);
+    return Unifier.unify(this, other);
   }
 
     @Override
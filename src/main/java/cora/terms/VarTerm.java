@@ -70,11 +70,15 @@ public class VarTerm extends ApplicativeTermInherit implements Term {
     _x = x;
     _args = args;
     _outputType = outputType;
+    setupMetadata(x);
   }
 
-  /** This method is called by inherited functions, and calls the private constructor. */
+  /**
+   * This method is called by inherited functions, and calls the private constructor.
+   * The result is the canonical version of x(args) from the TermFactory.
+   */
   protected VarTerm reconstruct(List<Term> args) {
-    return new VarTerm(args, _x, _outputType);
+    return (VarTerm)TermFactory.intern(new VarTerm(internArgs(args), _x, _outputType));
   }
 
   /** @return true iff the number of arguments is 0 */
@@ -116,7 +120,7 @@ public class VarTerm extends ApplicativeTermInherit implements Term {
     if (i == 0) return _x;
     List<Term> newargs = new ArrayList<Term>();
     for (int j = 0; j < i; j++) newargs.add(_args.get(j));
-    return new VarTerm(_x, newargs);
+    return TermFactory.createVarTerm(_x, newargs);
   }
 
   /**
@@ -144,7 +148,7 @@ public class VarTerm extends ApplicativeTermInherit implements Term {
   public Term apply(List<Term> extra) {
     List<Term> newargs = new ArrayList<Term>(_args);
     newargs.addAll(extra);
-    return new VarTerm(_x, newargs);
+    return TermFactory.createVarTerm(_x, newargs);
   }
 
   /**
@@ -196,7 +200,9 @@ public class VarTerm extends ApplicativeTermInherit implements Term {
 
   /** This method verifies equality to another Term. */
   public boolean equals(Term term) {
+    if (term == this) return true;
     if (term == null) return false;
+    if (term.queryStructuralHash() != queryStructuralHash()) return false;
     if (!term.isVarTerm()) return false;
     if (!_x.equals(term.queryVariable())) return false;
     if (_args.size() != term.numberImmediateSubterms()) return false;
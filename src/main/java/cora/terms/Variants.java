@@ -0,0 +1,109 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.terms;
+
+import java.util.HashMap;
+import cora.exceptions.NullCallError;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+
+/**
+ * This class provides static functions to compare tuples of terms modulo renaming of variables.
+ * Two tuples [s1,...,sn] and [t1,...,tn] are variants if there is a bijective renaming of variables
+ * which maps each si to ti; the renaming is shared between the components, so for instance the
+ * pairs [x, y] and [y, x] are variants, but [x, x] and [x, y] are not.
+ */
+public class Variants {
+  private Variants() {}
+
+  /** Returns whether the two tuples of terms are equal modulo a renaming of variables. */
+  public static boolean areVariants(Term[] a, Term[] b) {
+    if (a == null) throw new NullCallError("Variants", "areVariants", "first tuple");
+    if (b == null) throw new NullCallError("Variants", "areVariants", "second tuple");
+    if (a.length != b.length) return false;
+    HashMap<Variable,Variable> forward = new HashMap<Variable,Variable>();
+    HashMap<Variable,Variable> backward = new HashMap<Variable,Variable>();
+    for (int i = 0; i < a.length; i++) {
+      if (!variant(a[i], b[i], forward, backward)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns a hash code for the given tuple of terms that does not depend on the names of the
+   * variables; thus, tuples that are variants of each other have the same hash code.
+   * Variables are numbered in the order in which they are first encountered.
+   */
+  public static int variantHash(Term ... terms) {
+    HashMap<Variable,Integer> numbers = new HashMap<Variable,Integer>();
+    int hash = 1;
+    for (Term t : terms) hash = hash(t, numbers, 31 * hash);
+    return hash;
+  }
+
+  /** Extends the renaming so that it maps x to y, if this is consistent with what is there. */
+  private static boolean rename(Variable x, Variable y, HashMap<Variable,Variable> forward,
+                                HashMap<Variable,Variable> backward) {
+    Variable fx = forward.get(x), by = backward.get(y);
+    if (fx == null && by == null) {
+      if (!x.queryType().equals(y.queryType())) return false;
+      forward.put(x, y);
+      backward.put(y, x);
+      return true;
+    }
+    return fx != null && by != null && fx.equals(y) && by.equals(x);
+  }
+
+  private static boolean variant(Term s, Term t, HashMap<Variable,Variable> forward,
+                                 HashMap<Variable,Variable> backward) {
+    if (s.isVariable()) {
+      return t.isVariable() && rename(s.queryVariable(), t.queryVariable(), forward, backward);
+    }
+    if (t.isVariable()) return false;
+    int n = s.numberImmediateSubterms();
+    if (n != t.numberImmediateSubterms()) return false;
+    if (s.isVarTerm()) {
+      if (!t.isVarTerm() || !rename(s.queryVariable(), t.queryVariable(), forward, backward)) {
+        return false;
+      }
+    }
+    else if (t.isVarTerm() || !s.queryRoot().equals(t.queryRoot())) return false;
+    for (int i = 1; i <= n; i++) {
+      if (!variant(s.queryImmediateSubterm(i), t.queryImmediateSubterm(i), forward, backward)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int hash(Term t, HashMap<Variable,Integer> numbers, int hash) {
+    if (t.isVariable() || t.isVarTerm()) {
+      Variable x = t.queryVariable();
+      Integer num = numbers.get(x);
+      if (num == null) {
+        num = numbers.size();
+        numbers.put(x, num);
+      }
+      hash = 31 * hash + 2 * num + 1;
+    }
+    else hash = 31 * hash + 2 * t.queryRoot().queryName().hashCode();
+    hash = 31 * hash + t.numberImmediateSubterms();
+    for (int i = 1; i <= t.numberImmediateSubterms(); i++) {
+      hash = hash(t.queryImmediateSubterm(i), numbers, hash);
+    }
+    return hash;
+  }
+}
@@ -49,6 +49,16 @@ public class ArgumentPosition implements Position {
            _tail.equals(other.queryTail());
   }
 
+  public boolean equals(Object other) {
+    if (other instanceof Position) return equals((Position)other);
+    return false;
+  }
+
+  /** Returns the same hash code as an ArrayPosition for the same location. */
+  public int hashCode() {
+    return ArrayPosition.combineHash(_argPos, _tail.hashCode());
+  }
+
   public String toString() {
     return "" + _argPos + "." + _tail.toString();
   }
@@ -0,0 +1,176 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.terms.positions;
+
+import java.util.Arrays;
+import java.util.List;
+import cora.exceptions.IndexingError;
+import cora.exceptions.NullInitialisationError;
+import cora.interfaces.terms.Position;
+
+/**
+ * An ArrayPosition is a position i1.....in.ε that stores its indexes in a single int array, rather
+ * than as a chain of ArgumentPositions.  This makes the length, indexing, hashing and comparison
+ * of positions cheap, and avoids an object per step.
+ *
+ * The tail of an ArrayPosition is a view on the same array, so queryTail does not copy.
+ * ArrayPositions can be freely combined with the other Position implementations: equals,
+ * hashCode and toString only depend on the sequence of indexes.
+ */
+public class ArrayPosition implements Position, Comparable<Position> {
+  private final int[] _indexes;
+  private final int _start;
+  private int _hash;
+
+  /** Creates the position indexes[0].....indexes[n-1].ε; the array is copied. */
+  public ArrayPosition(int ... indexes) {
+    if (indexes == null) throw new NullInitialisationError("ArrayPosition", "indexes");
+    _indexes = Arrays.copyOf(indexes, indexes.length);
+    _start = 0;
+  }
+
+  /** Creates the position i1.....in.ε for the given list [i1,...,in]. */
+  public ArrayPosition(List<Integer> indexes) {
+    if (indexes == null) throw new NullInitialisationError("ArrayPosition", "indexes");
+    _indexes = new int[indexes.size()];
+    for (int j = 0; j < _indexes.length; j++) _indexes[j] = indexes.get(j);
+    _start = 0;
+  }
+
+  /**
+   * Creates the suffix of the given array that starts at index start, without copying; the array
+   * should not be modified afterwards.
+   */
+  ArrayPosition(int[] indexes, int start) {
+    _indexes = indexes;
+    _start = start;
+  }
+
+  /**
+   * Returns an ArrayPosition that represents the same location as pos; if pos is already an
+   * ArrayPosition, it is returned as it is.
+   */
+  public static ArrayPosition fromPosition(Position pos) {
+    if (pos == null) throw new NullInitialisationError("ArrayPosition", "position");
+    if (pos instanceof ArrayPosition) return (ArrayPosition)pos;
+    int n = 0;
+    for (Position p = pos; !p.isEmpty(); p = p.queryTail()) n++;
+    int[] indexes = new int[n];
+    n = 0;
+    for (Position p = pos; !p.isEmpty(); p = p.queryTail()) {
+      indexes[n] = p.queryArgumentPosition();
+      n++;
+    }
+    return new ArrayPosition(indexes, 0);
+  }
+
+  /**
+   * Returns the hash code for the position i.tail, given the hash code of tail.  All Position
+   * implementations use this (with hash code 1 for the empty position), so that their hash codes
+   * agree.
+   */
+  public static int combineHash(int index, int tailHash) {
+    return 31 * tailHash + index;
+  }
+
+  public boolean isEmpty() {
+    return _start == _indexes.length;
+  }
+
+  /** Returns the number of steps in the position (so 0 for the empty position). */
+  public int length() {
+    return _indexes.length - _start;
+  }
+
+  /**
+   * For a position i1.....in, this returns ij if 1 <= j <= n, and throws an IndexingError
+   * otherwise.
+   */
+  public int queryIndex(int j) {
+    if (j < 1 || j > length()) {
+      throw new IndexingError("ArrayPosition", "queryIndex", j, 1, length());
+    }
+    return _indexes[_start + j - 1];
+  }
+
+  public int queryArgumentPosition() {
+    if (isEmpty()) return -1;
+    return _indexes[_start];
+  }
+
+  public Position queryTail() {
+    if (isEmpty()) return null;
+    return new ArrayPosition(_indexes, _start + 1);
+  }
+
+  /** Returns whether this position is a (not necessarily strict) prefix of other. */
+  public boolean isPrefixOf(Position other) {
+    ArrayPosition o = fromPosition(other);
+    int n = length();
+    if (o.length() < n) return false;
+    for (int j = 0; j < n; j++) {
+      if (_indexes[_start + j] != o._indexes[o._start + j]) return false;
+    }
+    return true;
+  }
+
+  public boolean equals(Position other) {
+    if (other == null) return false;
+    ArrayPosition o = fromPosition(other);
+    return o.length() == length() && isPrefixOf(o);
+  }
+
+  public boolean equals(Object other) {
+    if (other instanceof Position) return equals((Position)other);
+    return false;
+  }
+
+  public int hashCode() {
+    int h = _hash;
+    if (h == 0) {
+      h = 1;
+      for (int j = _indexes.length - 1; j >= _start; j--) h = combineHash(_indexes[j], h);
+      _hash = h;
+    }
+    return h;
+  }
+
+  /**
+   * Compares positions lexicographically, so a position comes before all positions it is a strict
+   * prefix of (this is the pre-order of the corresponding subterms).
+   */
+  public int compareTo(Position other) {
+    ArrayPosition o = fromPosition(other);
+    int n = Math.min(length(), o.length());
+    for (int j = 0; j < n; j++) {
+      int cmp = Integer.compare(_indexes[_start + j], o._indexes[o._start + j]);
+      if (cmp != 0) return cmp;
+    }
+    return Integer.compare(length(), o.length());
+  }
+
+  public String toString() {
+    StringBuilder ret = new StringBuilder();
+    for (int j = _start; j < _indexes.length; j++) ret.append(_indexes[j]).append('.');
+    ret.append("ε");
+    return ret.toString();
+  }
+
+  @Override
+  public String toHTMLString() {
+    return this.toString();
+  }
+}
@@ -35,6 +35,16 @@ public class EmptyPosition implements Position {
     return other.isEmpty();
   }
 
+  public boolean equals(Object other) {
+    if (other instanceof Position) return equals((Position)other);
+    return false;
+  }
+
+  /** Returns the same hash code as an empty ArrayPosition. */
+  public int hashCode() {
+    return 1;
+  }
+
   public String toString() {
     return "ε";
   }
@@ -0,0 +1,93 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+package cora.terms.positions;
+
+import java.util.Arrays;
+import cora.exceptions.IndexingError;
+import cora.interfaces.terms.Position;
+
+/**
+ * A MutablePath is a position that is built up step by step during a traversal of a term.  It is
+ * used by the traversal functions in Term (visitPreOrder, visitPostOrder and transformPostOrder),
+ * which update a single MutablePath as they move through the term rather than creating a new
+ * Position for every subterm.
+ *
+ * Since the path changes as the traversal continues, a visitor should not store it; if the
+ * position is needed afterwards, toPosition() should be used to obtain an immutable copy.
+ */
+public class MutablePath {
+  private int[] _indexes;
+  private int _length;
+
+  /** Creates an empty path, with room for the given number of steps. */
+  public MutablePath(int capacity) {
+    _indexes = new int[capacity < 4 ? 4 : capacity];
+    _length = 0;
+  }
+
+  /** Returns whether the path currently represents the empty position. */
+  public boolean isEmpty() {
+    return _length == 0;
+  }
+
+  /** Returns the number of steps in the path. */
+  public int length() {
+    return _length;
+  }
+
+  /**
+   * For a path i1.....in, this returns ij if 1 <= j <= n, and throws an IndexingError otherwise.
+   */
+  public int queryIndex(int j) {
+    if (j < 1 || j > _length) throw new IndexingError("MutablePath", "queryIndex", j, 1, _length);
+    return _indexes[j-1];
+  }
+
+  /** Extends the path i1.....in to i1.....in.index. */
+  public void push(int index) {
+    if (_length == _indexes.length) _indexes = Arrays.copyOf(_indexes, 2 * _length);
+    _indexes[_length] = index;
+    _length++;
+  }
+
+  /** Shortens the path i1.....in to i1.....i{n-1}. */
+  public void pop() {
+    if (_length == 0) throw new IndexingError("MutablePath", "pop", 0);
+    _length--;
+  }
+
+  /** Returns an immutable Position representing the current path. */
+  public ArrayPosition toPosition() {
+    return new ArrayPosition(Arrays.copyOf(_indexes, _length), 0);
+  }
+
+  /** Returns whether this path and pos represent the same location in a term. */
+  public boolean equals(Position pos) {
+    for (int j = 0; j < _length; j++) {
+      if (pos.isEmpty() || pos.queryArgumentPosition() != _indexes[j]) return false;
+      pos = pos.queryTail();
+    }
+    return pos.isEmpty();
+  }
+
+  /** Represents the path in the same way as a Position. */
+  public String toString() {
+    StringBuilder ret = new StringBuilder();
+    for (int j = 0; j < _length; j++) ret.append(_indexes[j]).append('.');
+    ret.append("ε");
+    return ret.toString();
+  }
+}
@@ -11,6 +11,8 @@ import cora.smt.Equation;
 import cora.smt.EquivalenceProof;
 import cora.terms.Var;
 
+import java.util.HashSet;
+
 public class CompletenessCommand extends UserCommandInherit implements UserCommand {
     private EquivalenceProof _proof;
 
@@ -26,8 +28,9 @@ public class CompletenessCommand extends UserCommandInherit implements UserComma
     @Override
     public IProofState apply(IProofState ps) throws InvalidRuleApplicationException {
         if (ps.getCompleteness()) throw new InvalidCompletenessApplicationException("Completeness flag is COMPLETE");
+        HashSet<ProofEquation> completenessE = new HashSet<>(ps.getCompletenessE());
         for (ProofEquation eq : ps.getE()) {
-            if (!ps.getCompletenessE().contains(eq)) throw new InvalidCompletenessApplicationException(eq + " not" +
+            if (!completenessE.contains(eq)) throw new InvalidCompletenessApplicationException(eq + " not" +
                     " in completeness set");
         }
         ps.setCompleteness(true);
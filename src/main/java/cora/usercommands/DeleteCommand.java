@@ -9,6 +9,7 @@ import cora.interfaces.types.Type;
 import cora.smt.EquivalenceProof;
 import cora.terms.Var;
 import cora.z3.SatisfiabilityEnum;
+import cora.z3.Z3SessionPool;
 import cora.z3.Z3TermHandler;
 
 public class DeleteCommand extends UserCommandInherit implements UserCommand {
@@ -28,9 +29,10 @@ public class DeleteCommand extends UserCommandInherit implements UserCommand {
             ps.removeCurrentEquation();
             return ps;
         }
-        Z3TermHandler z3 = new Z3TermHandler(_proof.getLcTrs());
-        if (z3.satisfiable(_proof.getConstraint()) == SatisfiabilityEnum.UNSAT) ps.removeCurrentEquation();
-        else throw new InvalidDeleteApplicationException("No delete cases apply");
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(_proof.getLcTrs())) {
+            if (z3.satisfiable(_proof.getConstraint()) == SatisfiabilityEnum.UNSAT) ps.removeCurrentEquation();
+            else throw new InvalidDeleteApplicationException("No delete cases apply");
+        }
         return ps;
     }
 
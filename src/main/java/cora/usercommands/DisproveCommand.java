@@ -14,6 +14,7 @@ import cora.terms.FunctionalTerm;
 import cora.terms.Var;
 import cora.types.Sort;
 import cora.z3.SatisfiabilityEnum;
+import cora.z3.Z3SessionPool;
 import cora.z3.Z3TermHandler;
 
 import java.util.ArrayList;
@@ -34,11 +35,16 @@ public class DisproveCommand extends UserCommandInherit implements UserCommand {
     @Override
     public IProofState apply(IProofState ps) throws InvalidRuleApplicationException {
         if (!ps.getCompleteness()) throw new InvalidDisproveApplicationException("No completeness property");
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(_proof.getLcTrs())) {
+            return disprove(ps, z3);
+        }
+    }
+
+    private IProofState disprove(IProofState ps, Z3TermHandler z3) throws InvalidRuleApplicationException {
         Term l = _proof.getLeft();
         Term r = _proof.getRight();
         Term c = _proof.getConstraint();
         ArrayList<FunctionSymbol> tSymbs = (ArrayList<FunctionSymbol>) _proof.getLcTrs().queryTheorySymbols();
-        Z3TermHandler z3 = new Z3TermHandler(_proof.getLcTrs());
         //s, t E Terms(Sigma_theory, V), i is a theory sort, and phi /\ s != t is satisfiable
         if ((l.queryType().equals(intSort) || l.queryType().equals(Sort.boolSort)) &&
             ((isNumeric(l.queryRoot().queryName()) && isNumeric(r.queryRoot().queryName()))) ||
@@ -14,6 +14,7 @@ import cora.rewriting.FirstOrderRule;
 import cora.smt.Equation;
 import cora.smt.EquivalenceProof;
 import cora.terms.FunctionalTerm;
+import cora.terms.Unifier;
 import cora.terms.Var;
 
 import java.util.ArrayList;
@@ -55,7 +56,7 @@ public class ExpandCommand extends UserCommandInherit implements UserCommand {
         if (!(isBasicTerm(lp, _proof))) throw new InvalidExpandAppicationException(lp + " is not a basic term");
         for (int i = 0; i < _proof.getLcTrs().queryRuleCount(); i++) {
             Rule rule = _proof.getLcTrs().queryRule(i);
-            Substitution gamma = rule.queryLeftSide().unify(lp);
+            Substitution gamma = Unifier.unify(rule.queryLeftSide(), lp);
             if (gamma != null && rule.applicable(lp.substitute(gamma))) {
                 _applicableRules.add(rule);
                 _gammas.add(gamma);
@@ -63,8 +64,9 @@ public class ExpandCommand extends UserCommandInherit implements UserCommand {
         }
         if (_applicableRules.isEmpty()) throw new InvalidExpandAppicationException("No applicable rules found");
 
-        for (Rule rule : _applicableRules) {
-            Substitution y = rule.queryLeftSide().unify(lp);
+        for (int k = 0; k < _applicableRules.size(); k++) {
+            Rule rule = _applicableRules.get(k);
+            Substitution y = _gammas.get(k);
             Term lpt = rule.apply(ps.getS().querySubterm(_p).substitute(y));
             Term s = ps.getS().replaceSubterm(_p, lpt).substitute(y);
             Term t = ps.getT().substitute(y);
@@ -13,7 +13,9 @@ import cora.interfaces.types.Type;
 import cora.smt.EquivalenceProof;
 import cora.terms.FunctionalTerm;
 import cora.terms.Subst;
+import cora.terms.Unifier;
 import cora.terms.Var;
+import cora.z3.Z3SessionPool;
 import cora.z3.Z3TermHandler;
 
 import java.util.ArrayList;
@@ -62,7 +64,7 @@ public class RewriteConstraintCommand extends UserCommandInherit implements User
         for (Term t : _oldConstraintComponents) {
             boolean inProof = false;
             for (Term l : _proofComponents) {
-                Substitution s = t.unify(l);
+                Substitution s = Unifier.unify(t, l);
                 if (s != null) {
                     for (Variable v : s.domain()) {
                         if (!(s.getReplacement(v) instanceof Var)) {
@@ -70,6 +72,9 @@ public class RewriteConstraintCommand extends UserCommandInherit implements User
                         }
                         _s.extend(v, s.getReplacement(v));
                     }
+                    // variables the unifier leaves alone are mapped to themselves, so that later
+                    // components cannot rename them
+                    for (Variable v : t.vars()) _s.extend(v, v);
                 }
                 if (t.substitute(_s).equals(l)) inProof = true;
             }
@@ -81,16 +86,17 @@ public class RewriteConstraintCommand extends UserCommandInherit implements User
         _proofComponents.removeAll(_oldConstraintComponents);
         _proofComponents.add(_new.substitute(_s));
         Term nc = reconstructConstraint(_proofComponents);
-        Z3TermHandler z3 = new Z3TermHandler(_proof.getLcTrs());
         Term _if = new FunctionalTerm(_proof.getLcTrs().lookupSymbol("-->"), c, nc);
         Term _iff = new FunctionalTerm(_proof.getLcTrs().lookupSymbol("<-->"), c, nc);
-        if (z3.validity(_iff)) {
-            _newConstraint = nc;
-        } else if (z3.validity(_if)) {
-            _completeness = false;
-            _newConstraint = nc;
-        } else {
-            throw new UnsatException(c.toString(), nc.toString(), "<-->");
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(_proof.getLcTrs())) {
+            if (z3.validity(_iff)) {
+                _newConstraint = nc;
+            } else if (z3.validity(_if)) {
+                _completeness = false;
+                _newConstraint = nc;
+            } else {
+                throw new UnsatException(c.toString(), nc.toString(), "<-->");
+            }
         }
 
 
@@ -29,6 +29,7 @@ public class SimplifyCommand extends UserCommandInherit implements UserCommand {
     private boolean _noArgs;
 
     private Substitution _gamma;
+    private final Substitution _givenGamma;
     private EquivalenceProof _proof;
 
     public SimplifyCommand(Position pos, int ruleIndex, Substitution gamma) {
@@ -37,6 +38,7 @@ public class SimplifyCommand extends UserCommandInherit implements UserCommand {
         _ruleIndex = ruleIndex - 1;
         _noArgs = false;
         _gamma = gamma;
+        _givenGamma = gamma;
     }
 
     public SimplifyCommand(Position pos, int ruleIndex) {
@@ -45,6 +47,7 @@ public class SimplifyCommand extends UserCommandInherit implements UserCommand {
         _ruleIndex = ruleIndex - 1;
         _noArgs = false;
         _gamma = null;
+        _givenGamma = null;
     }
 
     public SimplifyCommand() {
@@ -53,6 +56,7 @@ public class SimplifyCommand extends UserCommandInherit implements UserCommand {
         _ruleIndex = -1;
         _noArgs = true;
         _gamma = null;
+        _givenGamma = null;
     }
 
     /**
@@ -144,12 +148,14 @@ public class SimplifyCommand extends UserCommandInherit implements UserCommand {
 
     /**
      * This function is a string representation of the user command "simplify" and its given arguments.
+     * Only a substitution given by the user is included, not one found while applying the command,
+     * so that the string can be read back as the same command (for instance from a saved proof).
      */
     @Override
     public String toString() {
         if (_noArgs) return "simplify";
         return "simplify " + _pos.toString() + " " + (_ruleIndex + 1) + " "
-                + (_gamma != null ? _gamma.toReplString() : "");
+                + (_givenGamma != null ? _givenGamma.toReplString() : "");
     }
 
     /**
@@ -11,7 +11,6 @@ import cora.smt.Equation;
 import cora.smt.EquivalenceProof;
 import cora.terms.Var;
 
-import java.util.Collections;
 
 /**
  * Swap is a user command that switches the places of the left hand side and
@@ -59,9 +58,9 @@ public class SwapCommand extends UserCommandInherit implements UserCommand {
             throw new InvalidSwapApplicationException("Equation indices out of bounds");
         } else if (_eq1 == null && _eq2 == null) {
             ProofEquation eq = new Equation(ps.getT(), ps.getS(), ps.getC());
-            ps.getE().set(0, eq);
+            ps.setEquation(0, eq);
         } else if (_eq1 < ps.getE().size() && _eq2 < ps.getE().size()) {
-            Collections.swap(ps.getE(), _eq1, _eq2);
+            ps.swapEquations(_eq1, _eq2);
         }
         return ps;
     }
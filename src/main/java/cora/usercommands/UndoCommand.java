@@ -9,7 +9,6 @@ import cora.interfaces.terms.Position;
 import cora.interfaces.types.Type;
 import cora.smt.Equation;
 import cora.smt.EquivalenceProof;
-import cora.smt.ProofHistory;
 import cora.terms.Var;
 
 public class UndoCommand extends UserCommandInherit implements UserCommand {
@@ -31,13 +30,7 @@ public class UndoCommand extends UserCommandInherit implements UserCommand {
         } catch (IndexOutOfBoundsException e) {
             throw new InvalidUndoApplicationException("No previous state to undo to");
         }
-        ProofHistory ph = _proof.getPreviousState();
-
-        ps = ph.getProofState();
-        _proof.setBottom(ph.getBottom());
-        _proof.setLcTrs(ph.getLcTrs());
-        _proof.deleteLastState();
-        return ps;
+        return _proof.restoreStep(_proof.getHistorySize() - 1);
     }
 
     @Override
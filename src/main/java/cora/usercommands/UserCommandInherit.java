@@ -12,6 +12,7 @@ import cora.terms.Constant;
 import cora.terms.FunctionalTerm;
 import cora.terms.Subst;
 import cora.terms.Var;
+import cora.z3.Z3SessionPool;
 import cora.z3.Z3TermHandler;
 import java.util.ArrayList;
 import java.util.TreeSet;
@@ -36,12 +37,12 @@ abstract class UserCommandInherit {
         Substitution y = ruleL.match(sAtPos);
         if (y == null) throw new InvalidConstraintRewritingException("Cannot rewrite constraint, y is null");
         gamma.compose(y);
-        Z3TermHandler z3 = new Z3TermHandler(lctrs);
         if (!checkLVARcondition(r, gamma, c)) return null;
         ruleC = ruleC.substitute(gamma);
         if (pos != null && ruleIndex >= 0) {
-            Term valid = new FunctionalTerm(lctrs.lookupSymbol("-->"), c, ruleC);
-            if (z3.validity(valid)) return gamma;
+            try (Z3TermHandler z3 = Z3SessionPool.acquire(lctrs)) {
+                if (z3.implies(c, ruleC)) return gamma;
+            }
         }
         throw new InvalidConstraintRewritingException("Cannot rewrite constraint, y is null");
     }
@@ -77,13 +78,17 @@ abstract class UserCommandInherit {
     }
 
     protected Term simplifyValuesOnlyEquations(TRS lctrs, Term t) {
-        Z3TermHandler z3 = new Z3TermHandler(lctrs);
-        boolean changed = true;
-        while (changed) {
-            changed = false;
-            for (Position p : t.queryAllPositions()) {
-                Term ti = t.querySubterm(p);
-                if (ti.isConstant() || ti.isVariable()) continue;
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(lctrs)) {
+            return simplifyValuesOnlyEquations(lctrs, t, z3);
+        }
+    }
+
+    private Term simplifyValuesOnlyEquations(TRS lctrs, Term t, Z3TermHandler z3) {
+        Term previous = null;
+        while (previous == null || !previous.equals(t)) {
+            previous = t;
+            t = t.transformPostOrder((ti, path) -> {
+                if (ti.isConstant() || ti.isVariable()) return ti;
                 if (ti.isFunctionalTerm() && !ti.queryRoot().queryName().equals("-")) {
                     boolean allConst = true;
                     for (int j = 1; j < ti.numberImmediateSubterms() + 1; j++) {
@@ -95,11 +100,11 @@ abstract class UserCommandInherit {
                     }
                     if (allConst && ti.numberImmediateSubterms() > 1 &&
                             lctrs.queryTheorySymbols().contains(ti.queryRoot())) {
-                        t = t.replaceSubterm(p, z3.simplify(ti));
-                        changed = true;
+                        return z3.simplify(ti);
                     }
                 }
-            }
+                return ti;
+            });
         }
         return t;
     }
@@ -191,12 +196,11 @@ abstract class UserCommandInherit {
     }
 
     protected Term replaceSubtermsInTerm(Term t, Term eql, Term eqr) {
-        for (Position pos : t.queryAllPositions()) {
-            Term sub = t.querySubterm(pos);
-            if (sub.isFunctionalTerm() && sub.equals(eql)) t = t.replaceSubterm(pos, eqr);
-            else if (sub.isFunctionalTerm() && sub.equals(eqr)) t = t.replaceSubterm(pos, eql);
-        }
-        return t;
+        return t.transformPostOrder((sub, path) -> {
+            if (sub.isFunctionalTerm() && sub.equals(eql)) return eqr;
+            else if (sub.isFunctionalTerm() && sub.equals(eqr)) return eql;
+            return sub;
+        });
     }
 
     public Var getFreshVar(EquivalenceProof proof, Type expectedType) {
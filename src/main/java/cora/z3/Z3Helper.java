@@ -3,11 +3,83 @@ package cora.z3;
 import com.microsoft.z3.*;
 import cora.interfaces.terms.Term;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * The Z3Helper is a class that acts as a bridge between
+ * The Z3Helper is a class that acts as a bridge between the Z3TermHandler and the Z3 Java API: its
+ * static functions build Z3 expressions in a given Context and run the solver.
+ *
+ * A Z3Helper object also remembers translations for a single Context: the expressions that terms
+ * were translated to, and the function declarations of uninterpreted symbols. Therefore, a Z3Helper
+ * object should only be used with one Context.
  */
 public class Z3Helper {
+    /** The maximum number of term translations that are remembered. */
+    public static final int EXPR_CACHE_CAPACITY = 10000;
+
+    private final LinkedHashMap<Term, Expr<?>> _exprs = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Term, Expr<?>> eldest) {
+            return size() > EXPR_CACHE_CAPACITY;
+        }
+    };
+    private final HashMap<String, FuncDecl<?>> _funcs = new HashMap<>();
+    private long _exprHits;
+
+    private static final ThreadLocal<long[]> _checks = ThreadLocal.withInitial(() -> new long[1]);
+
+    /** Returns the expression that t was translated to earlier, or null if there is none. */
+    public Expr<?> lookupExpr(Term t) {
+        Expr<?> e = _exprs.get(t);
+        if (e != null) _exprHits++;
+        return e;
+    }
+
+    /** Remembers that t is translated to e. */
+    public void storeExpr(Term t, Expr<?> e) {
+        _exprs.put(t, e);
+    }
+
+    /** Returns how often a translation was found by lookupExpr. */
+    public long getExprCacheHits() {
+        return _exprHits;
+    }
+
+    /** Returns the number of term translations that are currently remembered. */
+    public int getExprCacheSize() {
+        return _exprs.size();
+    }
+
+    /** Returns the number of function declarations that have been created through this helper. */
+    public int getFuncDeclCount() {
+        return _funcs.size();
+    }
+
+    /**
+     * Returns the declaration of the uninterpreted function fName with the given domain and range,
+     * creating it only the first time that this signature is requested.
+     */
+    public FuncDecl<?> getFuncDecl(Context ctx, String fName, Sort[] domain, Sort range) {
+        StringBuilder key = new StringBuilder(fName);
+        for (Sort s : domain) key.append(' ').append(s.toString());
+        key.append(" -> ").append(range.toString());
+        return _funcs.computeIfAbsent(key.toString(), k -> ctx.mkFuncDecl(fName, domain, range));
+    }
+
+    /** Same as the static getFunc, but using the function declarations of this helper. */
+    public Expr<?> getFuncApp(Context ctx, String fName, List<Expr<?>> exprs, boolean boolSort) {
+        Sort[] sortArr = new Sort[exprs.size()];
+        Expr<?>[] exprArr = new Expr<?>[exprs.size()];
+        for (int i = 0; i < exprs.size(); i++) {
+            sortArr[i] = exprs.get(i).getSort();
+            exprArr[i] = exprs.get(i);
+        }
+        FuncDecl<?> f = getFuncDecl(ctx, fName, sortArr, boolSort ? ctx.getBoolSort() : ctx.getIntSort());
+        return ctx.mkApp(f, exprArr);
+    }
 
     public static IntExpr getIntVar(Context ctx, String varName) {
         return ctx.mkIntConst(varName);
@@ -114,7 +186,30 @@ public class Z3Helper {
     }
 
     public static SatisfiabilityEnum getModel(Solver s) {
-        Status q = s.check();
+        _checks.get()[0]++;
+        return toSatisfiability(s.check());
+    }
+
+    /** Checks the assertions of s together with the given assumptions, without asserting them. */
+    public static SatisfiabilityEnum getModel(Solver s, BoolExpr... assumptions) {
+        _checks.get()[0]++;
+        return toSatisfiability(s.check(assumptions));
+    }
+
+    /**
+     * Returns the number of times the current thread has called the solver since the last call to
+     * resetCheckCount (or since the thread started). Results taken from the Z3QueryCache do not count.
+     */
+    public static long getCheckCount() {
+        return _checks.get()[0];
+    }
+
+    /** Resets the number of solver calls made by the current thread to 0. */
+    public static void resetCheckCount() {
+        _checks.get()[0] = 0;
+    }
+
+    private static SatisfiabilityEnum toSatisfiability(Status q) {
         if (q == Status.SATISFIABLE) {
             return SatisfiabilityEnum.SAT;
         } else if (q == Status.UNKNOWN) {
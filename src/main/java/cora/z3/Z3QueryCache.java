@@ -0,0 +1,254 @@
+package cora.z3;
+
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Z3QueryCache remembers the results of satisfiability and validity queries, so that the same
+ * query does not have to be passed to Z3 again; this happens a lot when proofs are replayed.
+ *
+ * Queries are identified by a canonical form of their constraints: conjunctions and disjunctions
+ * are flattened and their operands sorted, and variables are renamed in order of occurrence.
+ * Hence, queries that only differ in the names of variables or the order of the operands of /\ and
+ * \/ share their result. Results that Z3 cannot decide (UNKNOWN) are not stored.
+ *
+ * The cache can optionally be backed by a file: all known results are read from the file when it is
+ * attached, and new results are appended to it.
+ */
+public class Z3QueryCache {
+    /** The maximum number of results that are kept in memory. */
+    public static final int DEFAULT_CAPACITY = 100000;
+
+    private static final Z3QueryCache _instance = new Z3QueryCache(DEFAULT_CAPACITY);
+
+    private final int _capacity;
+    private final LinkedHashMap<String, SatisfiabilityEnum> _results;
+    private boolean _enabled;
+    private long _hits;
+    private long _misses;
+    private PrintWriter _store;
+
+    /** Creates an empty cache which remembers at most capacity results in memory. */
+    public Z3QueryCache(int capacity) {
+        _capacity = capacity;
+        _results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SatisfiabilityEnum> eldest) {
+                return size() > _capacity;
+            }
+        };
+        _enabled = true;
+    }
+
+    /** Returns the cache that is used by all Z3TermHandlers. */
+    public static Z3QueryCache getInstance() {
+        return _instance;
+    }
+
+    /** Returns the key for checking satisfiability of the given constraint. */
+    public static String satisfiabilityKey(Term constraint) {
+        return "sat " + canonicalForm(constraint);
+    }
+
+    /** Returns the key for checking validity of the given constraint. */
+    public static String validityKey(Term constraint) {
+        return "valid " + canonicalForm(constraint);
+    }
+
+    /** Returns the key for checking that the premise implies the conclusion. */
+    public static String implicationKey(Term premise, Term conclusion) {
+        return "implies " + canonicalForm(premise, conclusion);
+    }
+
+    /**
+     * Returns the stored result for the given key, or null if there is none (or the cache is
+     * disabled).
+     */
+    public synchronized SatisfiabilityEnum lookup(String key) {
+        if (!_enabled) return null;
+        SatisfiabilityEnum ret = _results.get(key);
+        if (ret == null) _misses++;
+        else _hits++;
+        return ret;
+    }
+
+    /** Stores the result for the given key, unless it is UNKNOWN or the cache is disabled. */
+    public synchronized void store(String key, SatisfiabilityEnum result) {
+        if (!_enabled || result == SatisfiabilityEnum.UNKNOWN) return;
+        if (_results.put(key, result) == null && _store != null) {
+            _store.println(result + "\t" + key);
+            _store.flush();
+        }
+    }
+
+    /**
+     * Loads all results from the given file (if it exists), and appends all results that are
+     * computed from now on to it. A previously attached file is detached first.
+     */
+    public synchronized void attachStore(File file) throws IOException {
+        detachStore();
+        if (file.exists()) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    if (tab < 0) continue;
+                    try {
+                        _results.put(line.substring(tab + 1),
+                                SatisfiabilityEnum.valueOf(line.substring(0, tab)));
+                    } catch (IllegalArgumentException e) {
+                        // not a result line; skip it
+                    }
+                }
+            }
+        }
+        _store = new PrintWriter(new FileWriter(file, true));
+    }
+
+    /** Stops writing results to the attached file, if any. */
+    public synchronized void detachStore() {
+        if (_store != null) _store.close();
+        _store = null;
+    }
+
+    /** Turns the cache on or off; while it is off, lookups always fail and nothing is stored. */
+    public synchronized void setEnabled(boolean enabled) {
+        _enabled = enabled;
+    }
+
+    /** Removes all results from memory (but not from an attached file), and resets the counters. */
+    public synchronized void clear() {
+        _results.clear();
+        _hits = 0;
+        _misses = 0;
+    }
+
+    public synchronized int size() {
+        return _results.size();
+    }
+
+    public synchronized long getHits() {
+        return _hits;
+    }
+
+    public synchronized long getMisses() {
+        return _misses;
+    }
+
+    /** Returns the fraction of lookups that found a result (0 if there have been no lookups). */
+    public synchronized double getHitRate() {
+        long total = _hits + _misses;
+        return total == 0 ? 0 : (double) _hits / total;
+    }
+
+    /**
+     * Returns a string that represents the given constraints up to renaming of variables and the
+     * order of the operands of /\ and \/. Variables are renamed consistently over all constraints.
+     */
+    public static String canonicalForm(Term... constraints) {
+        HashMap<Term, String> shapes = new HashMap<>();
+        HashMap<Variable, Integer> names = new HashMap<>();
+        StringBuilder ret = new StringBuilder();
+        for (int i = 0; i < constraints.length; i++) {
+            if (i > 0) ret.append(" ; ");
+            render(constraints[i], shapes, names, ret);
+        }
+        return ret.toString();
+    }
+
+    private static boolean isACSymbol(Term t) {
+        if (!t.isFunctionalTerm() || t.numberImmediateSubterms() != 2) return false;
+        String name = t.queryRoot().queryName();
+        return name.equals("/\\") || name.equals("\\/");
+    }
+
+    /** Adds the operands of the nested applications of the AC symbol at the root of t to ops. */
+    private static void flatten(Term t, String symbol, List<Term> ops) {
+        if (isACSymbol(t) && t.queryRoot().queryName().equals(symbol)) {
+            flatten(t.queryImmediateSubterm(1), symbol, ops);
+            flatten(t.queryImmediateSubterm(2), symbol, ops);
+        } else ops.add(t);
+    }
+
+    /** Returns the operands of the AC symbol at the root of t, sorted by their shape. */
+    private static List<Term> sortedOperands(Term t, HashMap<Term, String> shapes) {
+        ArrayList<Term> ops = new ArrayList<>();
+        flatten(t, t.queryRoot().queryName(), ops);
+        ops.sort(Comparator.comparing(op -> shape(op, shapes)));
+        return ops;
+    }
+
+    /**
+     * Returns a representation of t in which all variables are replaced by their sort; this is used
+     * to order the operands of AC symbols independently of the variable names.
+     */
+    private static String shape(Term t, HashMap<Term, String> shapes) {
+        String ret = shapes.get(t);
+        if (ret != null) return ret;
+        StringBuilder sb = new StringBuilder();
+        if (t.isVariable()) sb.append("?:").append(t.queryType().toString());
+        else if (isACSymbol(t)) {
+            sb.append(t.queryRoot().queryName()).append('(');
+            for (Term op : sortedOperands(t, shapes)) sb.append(shape(op, shapes)).append(',');
+            sb.append(')');
+        } else {
+            sb.append(symbolName(t)).append('(');
+            for (int i = 1; i <= t.numberImmediateSubterms(); i++) {
+                sb.append(shape(t.queryImmediateSubterm(i), shapes)).append(',');
+            }
+            sb.append(')');
+        }
+        ret = sb.toString();
+        shapes.put(t, ret);
+        return ret;
+    }
+
+    private static String symbolName(Term t) {
+        if (t.isVarTerm()) return t.queryVariable().queryName();
+        if (t.numberImmediateSubterms() == 0) {
+            return t.queryRoot().queryName() + ":" + t.queryType().toString();
+        }
+        return t.queryRoot().queryName();
+    }
+
+    private static void render(Term t, HashMap<Term, String> shapes, HashMap<Variable, Integer> names,
+                               StringBuilder sb) {
+        if (t.isVariable()) {
+            Integer n = names.get(t.queryVariable());
+            if (n == null) {
+                n = names.size();
+                names.put(t.queryVariable(), n);
+            }
+            sb.append('v').append(n).append(':').append(t.queryType().toString());
+            return;
+        }
+        List<Term> args = new ArrayList<>();
+        if (isACSymbol(t)) {
+            sb.append(t.queryRoot().queryName());
+            args = sortedOperands(t, shapes);
+        } else {
+            sb.append(symbolName(t));
+            for (int i = 1; i <= t.numberImmediateSubterms(); i++) args.add(t.queryImmediateSubterm(i));
+        }
+        if (args.isEmpty()) return;
+        sb.append('(');
+        for (int i = 0; i < args.size(); i++) {
+            if (i > 0) sb.append(", ");
+            render(args.get(i), shapes, names, sb);
+        }
+        sb.append(')');
+    }
+}
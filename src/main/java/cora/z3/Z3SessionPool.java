@@ -0,0 +1,106 @@
+package cora.z3;
+
+import com.microsoft.z3.Context;
+import com.microsoft.z3.Solver;
+import cora.interfaces.rewriting.TRS;
+
+import java.util.ArrayDeque;
+
+/**
+ * The Z3SessionPool hands out Z3TermHandlers that share a single Z3 Context and Solver per thread,
+ * so that user commands do not have to start (and leak) a new native Context for every step.
+ *
+ * A handler obtained from the pool opens a new scope on the thread's solver; closing the handler
+ * pops everything that was asserted through it, so the solver is clean for the next handler.
+ * Handlers should therefore be used in a try-with-resources block: they must be closed in the
+ * reverse order in which they were acquired, since otherwise the scopes of an inner handler would
+ * be popped by an outer one. Since a Z3 Context may not be shared between threads, every thread
+ * gets its own session.
+ */
+public final class Z3SessionPool {
+    private static final ThreadLocal<Session> _sessions = new ThreadLocal<>();
+
+    private Z3SessionPool() {}
+
+    /**
+     * The Context and Solver belonging to a single thread, along with the Z3Helper that remembers
+     * translations into this Context.
+     */
+    static final class Session {
+        private final Context _ctx;
+        private final Solver _s;
+        private final Z3Helper _helper;
+        private final ArrayDeque<Z3TermHandler> _open;
+
+        private Session() {
+            _ctx = new Context();
+            _s = _ctx.mkSolver();
+            _helper = new Z3Helper();
+            _open = new ArrayDeque<>();
+        }
+
+        /** Records that the given handler was opened on this session. */
+        void opened(Z3TermHandler handler) {
+            _open.push(handler);
+        }
+
+        /**
+         * Records that the given handler is closed; this throws an IllegalStateException if it is
+         * not the most recently opened handler that is still open.
+         */
+        void closing(Z3TermHandler handler) {
+            if (_open.peek() != handler) {
+                throw new IllegalStateException("Pooled Z3TermHandlers must be closed in the reverse " +
+                        "order of acquisition.");
+            }
+            _open.pop();
+        }
+
+        Z3Helper getHelper() {
+            return _helper;
+        }
+
+        Context getContext() {
+            return _ctx;
+        }
+
+        Solver getSolver() {
+            return _s;
+        }
+    }
+
+    /** Returns the session of the current thread, creating it if necessary. */
+    static Session currentSession() {
+        Session session = _sessions.get();
+        if (session == null) {
+            session = new Session();
+            _sessions.set(session);
+        }
+        return session;
+    }
+
+    /**
+     * Returns a handler for the given LCTRS which uses the Context and Solver of the current thread.
+     * The handler should be closed when it is no longer needed.
+     */
+    public static Z3TermHandler acquire(TRS lcTrs) {
+        Session session = currentSession();
+        return new Z3TermHandler(session, lcTrs);
+    }
+
+    /**
+     * Closes the Context of the current thread, if it has one. Handlers that are still open on this
+     * thread may no longer be used afterwards; a later call to acquire starts a new session.
+     */
+    public static void release() {
+        Session session = _sessions.get();
+        if (session == null) return;
+        _sessions.remove();
+        session.getContext().close();
+    }
+
+    /** Returns whether the current thread currently has a session. */
+    public static boolean hasSession() {
+        return _sessions.get() != null;
+    }
+}
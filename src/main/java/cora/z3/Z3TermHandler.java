@@ -12,22 +12,37 @@ import java.util.*;
 import static cora.z3.Z3Helper.*;
 import static java.lang.Integer.parseInt;
 
-public class Z3TermHandler {
+/**
+ * A Z3TermHandler translates terms to Z3 expressions, and uses a Z3 Solver to check them.
+ * Handlers are closeable: a handler that owns its Context closes it, while a handler that was
+ * obtained from the Z3SessionPool pops all assertions that were made through it.
+ */
+public class Z3TermHandler implements AutoCloseable {
     private Solver _s;
     private Context _ctx;
     private Z3Helper _z3Helper;
     private TRS _lcTrs;
+    private boolean _ownsContext;
+    private Z3SessionPool.Session _session;
+    private int _baseScopes;
+    private boolean _closed;
 
     private static final ArrayList<String> fsymbols = new ArrayList<>(Arrays.asList(
             "-", "*", "/", "%", "+"));
 
+    /**
+     * Creates a handler with its own Context and Solver, which are closed when the handler is closed.
+     * User commands should use Z3SessionPool.acquire instead.
+     */
     public Z3TermHandler(TRS lcTrs) {
         _ctx = new Context();
         _s = _ctx.mkSolver();
         _z3Helper = new Z3Helper();
         _lcTrs = lcTrs;
+        _ownsContext = true;
     }
 
+    /** Creates a handler on the given Context and Solver, which remain owned by the caller. */
     public Z3TermHandler(Context ctx, Solver s, Z3Helper z3h, TRS lctrs) {
         _ctx = ctx;
         _s = s;
@@ -35,7 +50,59 @@ public class Z3TermHandler {
         _lcTrs = lctrs;
     }
 
+    /**
+     * Creates a handler on the Context and Solver of a pooled session; a new scope is opened on the
+     * solver, which is popped again when the handler is closed.
+     */
+    Z3TermHandler(Z3SessionPool.Session session, TRS lctrs) {
+        this(session.getContext(), session.getSolver(), session.getHelper(), lctrs);
+        _session = session;
+        _baseScopes = _s.getNumScopes();
+        _s.push();
+        session.opened(this);
+    }
+
+    /**
+     * Releases the resources of this handler: an owned Context is closed, and on a pooled solver all
+     * assertions made through this handler are removed. Closing a handler twice has no effect.
+     * Pooled handlers on the same thread must be closed in the reverse order in which they were
+     * acquired; closing a handler while a later one is still open throws an IllegalStateException
+     * and leaves both open.
+     */
+    @Override
+    public void close() {
+        if (_closed) return;
+        if (_session != null) {
+            _session.closing(this);
+            int scopes = _s.getNumScopes() - _baseScopes;
+            if (scopes > 0) _s.pop(scopes);
+        } else if (_ownsContext) _ctx.close();
+        _closed = true;
+    }
+
+    /** Returns the Context in which this handler creates its expressions. */
+    public Context getContext() {
+        return _ctx;
+    }
+
+    /**
+     * Translates t to a Z3 expression. Translations are remembered (per Context), so a term that has
+     * been translated before is simply looked up; this includes subterms of earlier constraints.
+     */
     public Expr deconstruct(Term t) {
+        Expr<?> e = _z3Helper.lookupExpr(t);
+        if (e != null) return e;
+        e = translate(t);
+        if (e != null) _z3Helper.storeExpr(t, e);
+        return e;
+    }
+
+    /** Translates the constraint c, which should have sort Bool, to a Z3 expression. */
+    private BoolExpr deconstructBool(Term c) {
+        return (BoolExpr)deconstruct(c);
+    }
+
+    private Expr<?> translate(Term t) {
         if (t.isConstant()) {
             if (t.queryType().equals(Sort.intSort)) return getIntVal(_ctx, parseInt(t.queryRoot().queryName()));
             if (t.queryType().equals(Sort.boolSort)) {
@@ -106,11 +173,11 @@ public class Z3TermHandler {
                 default:
                     boolean boolSort = t.queryType().equals(Sort.boolSort);
                     if (t.queryType().equals(Sort.intSort)) boolSort = false;
-                    ArrayList<Expr> subExprs = new ArrayList<>();
+                    ArrayList<Expr<?>> subExprs = new ArrayList<>();
                     for (int i = 1; i < t.numberImmediateSubterms() + 1; i++) {
                         subExprs.add(deconstruct(t.queryImmediateSubterm(i)));
                     }
-                    return getFunc(_ctx, t.queryRoot().queryName(), subExprs, boolSort);
+                    return _z3Helper.getFuncApp(_ctx, t.queryRoot().queryName(), subExprs, boolSort);
             }
         }
         return null;
@@ -249,24 +316,133 @@ public class Z3TermHandler {
         return null;
     }
 
+    /**
+     * Returns whether the given formula holds for all values of its variables, given the assertions
+     * that were added to this handler.
+     */
     public boolean validity(Term valid) {
-        Expr v = deconstruct(valid);
-        Expr e = getNot(_ctx, v);
-        return satisfiable(e) == SatisfiabilityEnum.UNSAT;
+        String key = cacheable() ? Z3QueryCache.validityKey(valid) : null;
+        SatisfiabilityEnum result = lookup(key);
+        if (result == null) {
+            BoolExpr e = getNot(_ctx, deconstructBool(valid));
+            result = satisfiable(e);
+            store(key, result);
+        }
+        return result == SatisfiabilityEnum.UNSAT;
+    }
+
+    /**
+     * Returns whether the conclusion holds for all values of the variables that satisfy the premise,
+     * given the assertions that were added to this handler.
+     */
+    public boolean implies(Term premise, Term conclusion) {
+        String key = cacheable() ? Z3QueryCache.implicationKey(premise, conclusion) : null;
+        SatisfiabilityEnum result = lookup(key);
+        if (result == null) {
+            _s.push();
+            try {
+                addAssertion(premise);
+                result = Z3Helper.getModel(_s, getNot(_ctx, deconstructBool(conclusion)));
+            } finally {
+                _s.pop();
+            }
+            store(key, result);
+        }
+        return result == SatisfiabilityEnum.UNSAT;
+    }
+
+    /**
+     * Results may only be shared through the Z3QueryCache if they do not depend on assertions that
+     * were added to this handler.
+     */
+    private boolean cacheable() {
+        return _s.getAssertions().length == 0;
+    }
+
+    private static SatisfiabilityEnum lookup(String key) {
+        return key == null ? null : Z3QueryCache.getInstance().lookup(key);
     }
 
+    private static void store(String key, SatisfiabilityEnum result) {
+        if (key != null) Z3QueryCache.getInstance().store(key, result);
+    }
+
+    /** Checks whether the assertions that were added to this handler are satisfiable. */
     public SatisfiabilityEnum getSatStatus() {
         return Z3Helper.getModel(_s);
     }
 
+    /**
+     * Checks whether the constraint is satisfiable together with the assertions that were added to
+     * this handler. The constraint itself is not kept: it is asserted in a scope of its own.
+     */
     public SatisfiabilityEnum satisfiable(Term constraint) {
-        Expr e = deconstruct(constraint);
-        _s.add(e);
-        return getSatStatus();
+        String key = cacheable() ? Z3QueryCache.satisfiabilityKey(constraint) : null;
+        SatisfiabilityEnum result = lookup(key);
+        if (result == null) {
+            result = satisfiable(deconstruct(constraint));
+            store(key, result);
+        }
+        return result;
     }
 
+    /** Same as satisfiable(Term), but for a constraint that has already been translated. */
     public SatisfiabilityEnum satisfiable(Expr constraint) {
+        _s.push();
+        try {
+            addAssertion((BoolExpr)constraint);
+            return getSatStatus();
+        } finally {
+            _s.pop();
+        }
+    }
+
+    /** Opens a new scope: assertions added after this are removed by the matching pop(). */
+    public void push() {
+        _s.push();
+    }
+
+    /** Removes all assertions added since the last push(), and closes that scope. */
+    public void pop() {
+        _s.pop();
+    }
+
+    /** Returns the number of scopes that are currently open on the underlying solver. */
+    public int getScopeDepth() {
+        return _s.getNumScopes();
+    }
+
+    /**
+     * Asserts the given constraint in the current scope, so that it is taken into account by all
+     * later checks until the scope is popped (or the handler is closed).
+     */
+    public void addAssertion(Term constraint) {
+        addAssertion(deconstructBool(constraint));
+    }
+
+    /** Same as addAssertion(Term), but for a constraint that has already been translated. */
+    public void addAssertion(BoolExpr constraint) {
         _s.add(constraint);
-        return getSatStatus();
+    }
+
+    /**
+     * Checks whether the assertions are satisfiable together with the given assumptions. The
+     * assumptions are passed to the solver directly, so nothing needs to be asserted or popped.
+     */
+    public SatisfiabilityEnum checkAssuming(Term... assumptions) {
+        BoolExpr[] exprs = new BoolExpr[assumptions.length];
+        for (int i = 0; i < assumptions.length; i++) exprs[i] = deconstructBool(assumptions[i]);
+        return Z3Helper.getModel(_s, exprs);
+    }
+
+    /**
+     * Returns whether the conclusion follows from the assertions that were added to this handler;
+     * that is, whether the assertions together with the negated conclusion are unsatisfiable.
+     * This allows several implications from the same premise to be checked without asserting the
+     * premise again.
+     */
+    public boolean impliedByAssertions(Term conclusion) {
+        BoolExpr e = getNot(_ctx, deconstructBool(conclusion));
+        return Z3Helper.getModel(_s, e) == SatisfiabilityEnum.UNSAT;
     }
 }
@@ -0,0 +1,154 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import cora.exceptions.IndexingError;
+import cora.interfaces.types.Type;
+import cora.interfaces.terms.*;
+import cora.types.*;
+import cora.terms.*;
+import cora.terms.positions.*;
+
+public class ArrayPositionTest {
+  private Position chain(int ... indexes) {
+    Position ret = new EmptyPosition();
+    for (int j = indexes.length - 1; j >= 0; j--) ret = new ArgumentPosition(indexes[j], ret);
+    return ret;
+  }
+
+  @Test
+  public void testEmptyPosition() {
+    ArrayPosition pos = new ArrayPosition();
+    assertTrue(pos.isEmpty());
+    assertTrue(pos.length() == 0);
+    assertTrue(pos.queryArgumentPosition() == -1);
+    assertTrue(pos.queryTail() == null);
+    assertEquals("ε", pos.toString());
+    assertTrue(pos.equals(new EmptyPosition()));
+  }
+
+  @Test
+  public void testBasics() {
+    ArrayPosition pos = new ArrayPosition(2, 1, 3);
+    assertFalse(pos.isEmpty());
+    assertTrue(pos.length() == 3);
+    assertTrue(pos.queryArgumentPosition() == 2);
+    assertTrue(pos.queryIndex(3) == 3);
+    assertEquals("2.1.3.ε", pos.toString());
+    assertEquals("1.3.ε", pos.queryTail().toString());
+    assertTrue(pos.queryTail().queryTail().queryTail().isEmpty());
+  }
+
+  @Test
+  public void testArrayIsCopied() {
+    int[] indexes = { 1, 2 };
+    ArrayPosition pos = new ArrayPosition(indexes);
+    indexes[0] = 3;
+    assertEquals("1.2.ε", pos.toString());
+  }
+
+  @Test
+  public void testListConstructor() {
+    ArrayPosition pos = new ArrayPosition(Arrays.asList(1, 2));
+    assertEquals("1.2.ε", pos.toString());
+  }
+
+  @Test(expected = IndexingError.class)
+  public void testQueryIndexOutOfRange() {
+    new ArrayPosition(1, 2).queryIndex(3);
+  }
+
+  @Test
+  public void testEqualityWithArgumentPosition() {
+    ArrayPosition pos = new ArrayPosition(2, 1);
+    Position other = chain(2, 1);
+    assertTrue(pos.equals(other));
+    assertTrue(other.equals(pos));
+    assertTrue(pos.equals((Object)other));
+    assertTrue(other.equals((Object)pos));
+    assertTrue(pos.hashCode() == other.hashCode());
+    assertTrue(pos.queryTail().hashCode() == other.queryTail().hashCode());
+    assertFalse(pos.equals(chain(2)));
+    assertFalse(pos.equals(chain(2, 1, 1)));
+    assertFalse(pos.equals(new ArrayPosition(1, 2)));
+  }
+
+  @Test
+  public void testHashSet() {
+    HashSet<Position> set = new HashSet<Position>();
+    set.add(new ArrayPosition(1, 2));
+    set.add(chain(1, 2));
+    set.add(new ArrayPosition(2, 1));
+    set.add(new EmptyPosition());
+    set.add(new ArrayPosition());
+    assertTrue(set.size() == 3);
+  }
+
+  @Test
+  public void testPrefix() {
+    ArrayPosition pos = new ArrayPosition(2, 1);
+    assertTrue(pos.isPrefixOf(pos));
+    assertTrue(pos.isPrefixOf(chain(2, 1, 3)));
+    assertTrue(new ArrayPosition().isPrefixOf(pos));
+    assertFalse(pos.isPrefixOf(new ArrayPosition(2)));
+    assertFalse(pos.isPrefixOf(new ArrayPosition(2, 2, 1)));
+  }
+
+  @Test
+  public void testOrdering() {
+    ArrayList<ArrayPosition> lst = new ArrayList<ArrayPosition>();
+    lst.add(new ArrayPosition(2));
+    lst.add(new ArrayPosition(1, 2));
+    lst.add(new ArrayPosition());
+    lst.add(new ArrayPosition(1));
+    lst.add(new ArrayPosition(1, 1, 5));
+    Collections.sort(lst);
+    assertEquals("[ε, 1.ε, 1.1.5.ε, 1.2.ε, 2.ε]", lst.toString());
+    assertTrue(new ArrayPosition(1, 2).compareTo(chain(1, 2)) == 0);
+  }
+
+  @Test
+  public void testFromPosition() {
+    ArrayPosition pos = ArrayPosition.fromPosition(chain(3, 1));
+    assertEquals("3.1.ε", pos.toString());
+    assertTrue(ArrayPosition.fromPosition(pos) == pos);
+  }
+
+  @Test
+  public void testQuerySubterm() {
+    Type o = new Sort("o");
+    FunctionSymbol f = new Constant("f", new ArrowType(o, new ArrowType(o, o)));
+    Term a = new Constant("a", o);
+    Term b = new Constant("b", o);
+    Term s = new FunctionalTerm(f, a, new FunctionalTerm(f, b, a));
+    assertTrue(s.querySubterm(new ArrayPosition(2, 1)).equals(b));
+    assertTrue(s.querySubterm(new ArrayPosition(2).queryTail()) == s);
+    assertEquals("f(a, f(a, a))", s.replaceSubterm(new ArrayPosition(2, 1), a).toString());
+  }
+
+  @Test(expected = IndexingError.class)
+  public void testQuerySubtermOutOfRange() {
+    Type o = new Sort("o");
+    FunctionSymbol f = new Constant("f", new ArrowType(o, new ArrowType(o, o)));
+    Term a = new Constant("a", o);
+    Term s = new FunctionalTerm(f, a, a);
+    s.querySubterm(new ArrayPosition(1, 1));
+  }
+}
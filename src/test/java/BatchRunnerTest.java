@@ -0,0 +1,107 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.TreeSet;
+import cora.BatchRunner;
+import cora.exceptions.CancelledError;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+import cora.parsers.LcTrsInputReader;
+import cora.rewriting.CancellationToken;
+import cora.smt.AutoProver;
+import cora.smt.EquivalenceProof;
+
+public class BatchRunnerTest {
+  private final static String TRS_TEXT = "(SIG\n" +
+    "    (f Int -> Int)\n" +
+    "    (g Int -> Int)\n" +
+    ")\n" +
+    "(RULES\n" +
+    "    f(x) -> x\n" +
+    "    g(x) -> f(x)\n" +
+    ")";
+
+  private File createProblems() throws Exception {
+    File dir = Files.createTempDirectory("batch").toFile();
+    dir.deleteOnExit();
+    File problem = new File(dir, "fg.lctrs");
+    Files.write(problem.toPath(), TRS_TEXT.getBytes());
+    TRS trs = LcTrsInputReader.readLcTrsFromString(TRS_TEXT);
+    TreeSet<Variable> vars = new TreeSet<Variable>();
+    Term left = LcTrsInputReader.readTermFromStringWithEnv("g(x)", trs, vars);
+    vars.addAll(left.vars().getVars());
+    Term right = LcTrsInputReader.readTermFromStringWithEnv("x", trs, vars);
+    Term constraint = LcTrsInputReader.readLogicalTermFromStringWithEnv("[x > 0]", trs, vars);
+    EquivalenceProof proof = new EquivalenceProof(trs, left, right, constraint);
+    new AutoProver(proof).prove();
+    proof.saveStateToFile(new File(dir, "fg.prf").getPath());
+    Files.write(new File(dir, "fg.open.prf").toPath(), "g(x)\tx\tx > 0\n".getBytes());
+    Files.write(new File(dir, "other.txt").toPath(), "ignored".getBytes());
+    for (File file : dir.listFiles()) file.deleteOnExit();
+    return dir;
+  }
+
+  @Test
+  public void testCollectJobs() throws Exception {
+    File dir = createProblems();
+    List<BatchRunner.Job> jobs = new BatchRunner("orthogonal", false, 10, 1).collectJobs(dir);
+    assertEquals(2, jobs.size());
+    assertEquals("fg.lctrs", jobs.get(0).queryProblem().getName());
+    assertEquals("fg.open.prf", jobs.get(0).queryScript().getName());
+    assertEquals("fg.prf", jobs.get(1).queryScript().getName());
+  }
+
+  @Test
+  public void testScriptsBelongToOneProblem() throws Exception {
+    File dir = Files.createTempDirectory("batch").toFile();
+    dir.deleteOnExit();
+    for (String name : new String[] { "foo.lctrs", "foo.bar.lctrs", "foo.bar.prf", "foo.baz.prf" }) {
+      Files.write(new File(dir, name).toPath(), TRS_TEXT.getBytes());
+    }
+    for (File file : dir.listFiles()) file.deleteOnExit();
+    List<BatchRunner.Job> jobs = new BatchRunner("orthogonal", false, 10, 1).collectJobs(dir);
+    assertEquals(2, jobs.size());
+    assertEquals("foo.bar.lctrs", jobs.get(0).queryProblem().getName());
+    assertEquals("foo.bar.prf", jobs.get(0).queryScript().getName());
+    assertEquals("foo.lctrs", jobs.get(1).queryProblem().getName());
+    assertEquals("foo.baz.prf", jobs.get(1).queryScript().getName());
+  }
+
+  @Test(expected = CancelledError.class)
+  public void testReplayCancelled() throws Exception {
+    File dir = createProblems();
+    CancellationToken token = new CancellationToken();
+    token.cancel();
+    BatchRunner.replayScript(LcTrsInputReader.readLcTrsFromString(TRS_TEXT),
+                             new File(dir, "fg.prf"), token);
+  }
+
+  @Test
+  public void testReplayScripts() throws Exception {
+    File dir = createProblems();
+    BatchRunner runner = new BatchRunner("orthogonal", false, 10, 2);
+    List<BatchRunner.JobResult> results = runner.run(runner.collectJobs(dir));
+    assertEquals("OPEN", results.get(0).queryResult());
+    assertEquals("PROVEN", results.get(1).queryResult());
+    assertTrue(results.get(1).toJson().startsWith(
+      "{\"problem\": \"fg.lctrs\", \"script\": \"fg.prf\", \"result\": \"PROVEN\", \"time\": "));
+  }
+}
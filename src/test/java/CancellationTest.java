@@ -0,0 +1,97 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import cora.exceptions.CancelledError;
+import cora.interfaces.provingstrategies.Result;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.Term;
+import cora.parsers.TrsInputReader;
+import cora.provingstrategies.CriticalPairs;
+import cora.provingstrategies.LocalConfluence;
+import cora.provingstrategies.LocalConfluenceExtended;
+import cora.rewriting.CancellationToken;
+
+public class CancellationTest {
+  private TRS looping() throws Exception {
+    return TrsInputReader.readTrsFromString(
+      "(SIG (f o -> o) (g o -> o) (a -> o) (b -> o))\n" +
+      "(RULES\n" +
+      "  f(x) -> f(g(x))\n" +
+      "  f(a) -> b\n" +
+      ")");
+  }
+
+  @Test
+  public void testTokenDeadline() throws Exception {
+    CancellationToken token = CancellationToken.withTimeout(50);
+    assertFalse(token.isCancelled());
+    Thread.sleep(60);
+    assertTrue(token.isCancelled());
+    assertEquals(0, token.queryRemainingTime());
+  }
+
+  @Test
+  public void testCancelNone() {
+    CancellationToken.NONE.cancel();
+    assertFalse(CancellationToken.NONE.isCancelled());
+    assertEquals(Long.MAX_VALUE, CancellationToken.NONE.queryRemainingTime());
+  }
+
+  @Test(expected = CancelledError.class)
+  public void testNormalizeCancelled() throws Exception {
+    TRS trs = looping();
+    Term s = TrsInputReader.readTermFromString("f(a)", trs);
+    CancellationToken token = new CancellationToken();
+    token.cancel();
+    trs.normalize(s, 1000, token);
+  }
+
+  @Test
+  public void testNormalizeWithoutCancellation() throws Exception {
+    TRS trs = looping();
+    Term s = TrsInputReader.readTermFromString("g(a)", trs);
+    assertEquals(s, trs.normalize(s, 1000, new CancellationToken()));
+  }
+
+  @Test
+  public void testCriticalPairsIncomplete() throws Exception {
+    CancellationToken token = new CancellationToken();
+    token.cancel();
+    CriticalPairs cps = new CriticalPairs(looping(), token);
+    assertFalse(cps.isComplete());
+    assertTrue(cps.getCriticalPairs().isEmpty());
+    assertTrue(new CriticalPairs(looping()).isComplete());
+  }
+
+  @Test
+  public void testStrategyReportsProgress() throws Exception {
+    // the critical pair <f(g(a)), b> is not joinable, so the search for a joining reduct goes on
+    // until the deadline
+    Result result = new LocalConfluence(looping(), false).apply(CancellationToken.withTimeout(300));
+    assertEquals(Result.RESULT.TIMEOUT, result.getResult());
+    assertEquals(0, result.getCheckedPairs());
+    assertTrue(result.getTotalPairs() > 0);
+  }
+
+  @Test
+  public void testApplyWithTimeout() throws Exception {
+    long start = System.currentTimeMillis();
+    Result result = new LocalConfluenceExtended(looping(), false).apply(1);
+    assertEquals(Result.RESULT.TIMEOUT, result.getResult());
+    assertTrue(System.currentTimeMillis() - start < 1000 + 1000);
+  }
+}
@@ -0,0 +1,234 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import cora.exceptions.CancelledError;
+import cora.interfaces.provingstrategies.Result;
+import cora.interfaces.rewriting.TRS;
+import cora.parsers.LcTrsInputReader;
+import cora.parsers.TrsInputReader;
+import cora.provingstrategies.CriticalPair;
+import cora.provingstrategies.CriticalPairs;
+import cora.provingstrategies.LocalConfluence;
+import cora.provingstrategies.LocalConfluenceExtended;
+import cora.rewriting.CancellationToken;
+
+public class CriticalPairsTest {
+  /** A TRS with 3n + 1 rules whose left-hand sides overlap in many places. */
+  private TRS overlapping(int n) throws Exception {
+    StringBuilder sig = new StringBuilder("(SIG (g o -> o) (h o -> o)");
+    StringBuilder rules = new StringBuilder("(RULES g(h(x)) -> x\n");
+    for (int i = 0; i < n; i++) {
+      sig.append(" (f" + i + " o -> o)");
+      rules.append("f" + i + "(g(x)) -> f" + ((i + 1) % n) + "(x)\n");
+      rules.append("f" + i + "(h(x)) -> g(x)\n");
+      rules.append("f" + i + "(g(h(x))) -> x\n");
+    }
+    return TrsInputReader.readTrsFromString(sig + ")\n" + rules + ")");
+  }
+
+  private List<String> sorted(Iterable<CriticalPair> pairs) {
+    ArrayList<String> ret = new ArrayList<String>();
+    for (CriticalPair pair : pairs) ret.add(pair.toString());
+    Collections.sort(ret);
+    return ret;
+  }
+
+  @Test
+  public void testSmallSystem() throws Exception {
+    TRS trs = TrsInputReader.readTrsFromString(
+      "(SIG (f o -> o) (g o -> o) (a -> o) (b -> o))\n" +
+      "(RULES\n" +
+      "  f(x) -> f(g(x))\n" +
+      "  f(a) -> b\n" +
+      ")");
+    CriticalPairs cps = new CriticalPairs(trs);
+    assertTrue(cps.isComplete());
+    // the overlaps of the rules with each other give the same pair with the sides swapped
+    assertEquals("[[b, f(g(a))]]", cps.getCriticalPairs().toString());
+    assertEquals(1, cps.queryEliminated());
+  }
+
+  @Test
+  public void testVariantsAreEliminated() throws Exception {
+    TRS trs = TrsInputReader.readTrsFromString(
+      "(SIG (f o o -> o) (g o -> o) (h o -> o))\n" +
+      "(RULES\n" +
+      "  f(g(x), y) -> h(x)\n" +
+      "  f(x, g(y)) -> h(y)\n" +
+      "  g(x) -> x\n" +
+      ")");
+    CriticalPairs cps = new CriticalPairs(trs);
+    List<CriticalPair> pairs = cps.getCriticalPairs();
+    for (int i = 0; i < pairs.size(); i++) {
+      for (int j = i + 1; j < pairs.size(); j++) {
+        assertFalse(pairs.get(i).isVariantOf(pairs.get(j)));
+      }
+    }
+    assertTrue(cps.queryEliminated() > 0);
+    int total = 0;
+    try (CriticalPairs.Pipeline pipeline = CriticalPairs.pipeline(trs, CancellationToken.NONE)) {
+      while (pipeline.hasNext()) { pipeline.next(); total++; }
+      assertEquals(pairs.size(), total);
+      assertEquals(cps.queryEliminated(), pipeline.queryEliminated());
+      assertEquals(pipeline.queryTotal(), total + pipeline.queryEliminated());
+    }
+  }
+
+  private TRS guarded(String secondGuard) throws Exception {
+    return LcTrsInputReader.readLcTrsFromString(
+      "(SIG\n  (f Int -> Int)\n)\n" +
+      "(RULES\n" +
+      "  f(x) -> x + 1 [x > 0]\n" +
+      "  f(x) -> x [" + secondGuard + "]\n" +
+      ")");
+  }
+
+  @Test
+  public void testInfeasiblePairsAreDiscarded() throws Exception {
+    CriticalPairs cps = new CriticalPairs(guarded("x < 0"));
+    assertTrue(cps.getCriticalPairs().isEmpty());
+    assertEquals(1, cps.queryInfeasible());
+    Result result = new LocalConfluence(guarded("x < 0"), true).apply();
+    assertEquals(Result.RESULT.CONFLUENT, result.getResult());
+    assertEquals(0, result.getCheckedPairs());
+  }
+
+  @Test
+  public void testFeasiblePairsAreConstrained() throws Exception {
+    CriticalPairs cps = new CriticalPairs(guarded("x > 1"));
+    assertEquals(0, cps.queryInfeasible());
+    assertEquals(1, cps.getCriticalPairs().size());
+    CriticalPair pair = cps.getCriticalPairs().get(0);
+    assertNotNull(pair.getConstraint());
+    assertEquals("/\\", pair.getConstraint().queryRoot().queryName());
+    try (CriticalPairs.Pipeline pipeline = CriticalPairs.pipeline(guarded("x > 1"), CancellationToken.NONE)) {
+      assertTrue(pipeline.hasNext());
+      assertTrue(pair.isVariantOf(pipeline.next()));
+      assertFalse(pipeline.hasNext());
+      assertEquals(0, pipeline.queryInfeasible());
+    }
+  }
+
+  @Test
+  public void testUnconstrainedRulesGiveUnconstrainedPairs() throws Exception {
+    CriticalPairs cps = new CriticalPairs(guarded("TRUE"));
+    assertEquals(1, cps.getCriticalPairs().size());
+    assertEquals(">", cps.getCriticalPairs().get(0).getConstraint().queryRoot().queryName());
+  }
+
+  @Test
+  public void testVariantPairs() throws Exception {
+    TRS trs = TrsInputReader.readTrsFromString(
+      "(SIG (f o o -> o) (a -> o))\n(RULES f(x, y) -> a\n)");
+    CriticalPair p = new CriticalPair(TrsInputReader.readTermFromString("f(x, y)", trs),
+                                      TrsInputReader.readTermFromString("f(y, a)", trs));
+    CriticalPair q = new CriticalPair(TrsInputReader.readTermFromString("f(z, a)", trs),
+                                      TrsInputReader.readTermFromString("f(u, z)", trs));
+    CriticalPair r = new CriticalPair(TrsInputReader.readTermFromString("f(x, x)", trs),
+                                      TrsInputReader.readTermFromString("f(x, a)", trs));
+    assertTrue(p.isVariantOf(q));
+    assertEquals(p.variantHash(), q.variantHash());
+    assertFalse(p.isVariantOf(r));
+  }
+
+  @Test
+  public void testParallelOrderIsDeterministic() throws Exception {
+    TRS trs = overlapping(8);
+    List<CriticalPair> first = new CriticalPairs(trs).getCriticalPairs();
+    assertFalse(first.isEmpty());
+    for (int i = 0; i < 5; i++) {
+      assertEquals(first.toString(), new CriticalPairs(trs).getCriticalPairs().toString());
+    }
+  }
+
+  @Test
+  public void testStreamGivesTheSamePairs() throws Exception {
+    TRS trs = overlapping(8);
+    ConcurrentLinkedQueue<CriticalPair> streamed = new ConcurrentLinkedQueue<CriticalPair>();
+    assertTrue(CriticalPairs.stream(trs, CancellationToken.NONE, streamed::add));
+    CriticalPairs cps = new CriticalPairs(trs);
+    // stream does not leave out variants
+    assertEquals(cps.getCriticalPairs().size() + cps.queryEliminated(), streamed.size());
+    assertTrue(sorted(streamed).containsAll(sorted(cps.getCriticalPairs())));
+  }
+
+  @Test
+  public void testStreamCancelled() throws Exception {
+    CancellationToken token = new CancellationToken();
+    token.cancel();
+    ConcurrentLinkedQueue<CriticalPair> streamed = new ConcurrentLinkedQueue<CriticalPair>();
+    assertFalse(CriticalPairs.stream(overlapping(8), token, streamed::add));
+    assertTrue(streamed.isEmpty());
+  }
+
+  @Test
+  public void testPipelineKeepsTheOrder() throws Exception {
+    TRS trs = overlapping(8);
+    CriticalPairs cps = new CriticalPairs(trs);
+    List<CriticalPair> expected = cps.getCriticalPairs();
+    ArrayList<CriticalPair> found = new ArrayList<CriticalPair>();
+    try (CriticalPairs.Pipeline pipeline = CriticalPairs.pipeline(trs, CancellationToken.NONE)) {
+      while (pipeline.hasNext()) found.add(pipeline.next());
+      assertEquals(expected.size() + cps.queryEliminated(), pipeline.queryTotal());
+    }
+    assertEquals(expected.toString(), found.toString());
+  }
+
+  @Test(expected = CancelledError.class)
+  public void testPipelineCancelled() throws Exception {
+    CancellationToken token = new CancellationToken();
+    token.cancel();
+    try (CriticalPairs.Pipeline pipeline = CriticalPairs.pipeline(overlapping(8), token)) {
+      pipeline.hasNext();
+    }
+  }
+
+  @Test
+  public void testLocalConfluenceStopsAtFirstCounterexample() throws Exception {
+    TRS trs = TrsInputReader.readTrsFromString(
+      "(SIG (f o -> o) (a -> o) (b -> o) (c -> o))\n" +
+      "(RULES\n" +
+      "  f(a) -> b\n" +
+      "  f(a) -> c\n" +
+      ")");
+    Result result = new LocalConfluence(trs, true).apply();
+    assertEquals(Result.RESULT.NON_CONFLUENT, result.getResult());
+    assertEquals(1, result.getCheckedPairs());
+    result = new LocalConfluenceExtended(trs, true).apply();
+    assertEquals(Result.RESULT.NON_CONFLUENT, result.getResult());
+    assertEquals(1, result.getCheckedPairs());
+  }
+
+  @Test
+  public void testLocalConfluenceChecksAllPairs() throws Exception {
+    TRS trs = TrsInputReader.readTrsFromString(
+      "(SIG (f o -> o) (g o -> o) (a -> o))\n" +
+      "(RULES\n" +
+      "  f(g(x)) -> a\n" +
+      "  g(x) -> x\n" +
+      "  f(x) -> a\n" +
+      ")");
+    Result result = new LocalConfluenceExtended(trs, true).apply();
+    assertEquals(Result.RESULT.CONFLUENT, result.getResult());
+    assertEquals(new CriticalPairs(trs).getCriticalPairs().size(), result.getCheckedPairs());
+    assertEquals(result.getCheckedPairs() + result.getEliminatedPairs(), result.getTotalPairs());
+  }
+}
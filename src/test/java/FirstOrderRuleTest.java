@@ -135,5 +135,40 @@ public class FirstOrderRuleTest {
     assertFalse(rule.applicable(noninstance));
     assertTrue(rule.apply(noninstance) == null);
   }
+
+  @Test
+  public void testNonLinearApplication() {
+    Var x = new Var("x", baseType("Int"));
+    Var y = new Var("y", baseType("Int"));
+    Constant f =
+      new Constant("f", new ArrowType(baseType("Int"), arrowType("Int", "Int")));
+    Rule rule = new FirstOrderRule(new FunctionalTerm(f, x, new FunctionalTerm(f, y, x)), y);
+    Term a = constantTerm("a", baseType("Int"));
+    Term b = unaryTerm("g", baseType("Int"), constantTerm("b", baseType("Int")));
+    Term instance = new FunctionalTerm(f, a, new FunctionalTerm(f, b, a));
+    Term noninstance = new FunctionalTerm(f, a, new FunctionalTerm(f, b, b));
+
+    assertTrue(rule.applicable(instance));
+    assertTrue(rule.apply(instance).equals(b));
+    // bindings of an earlier match must not carry over
+    assertFalse(rule.applicable(noninstance));
+    assertTrue(rule.apply(noninstance) == null);
+    assertTrue(rule.apply(instance).equals(b));
+  }
+
+  @Test
+  public void testRootMismatch() {
+    Var x = new Var("x", baseType("Int"));
+    Constant f =
+      new Constant("f", new ArrowType(baseType("Int"), arrowType("Int", "Int")));
+    Term one = constantTerm("1", baseType("Int"));
+    Rule rule = new FirstOrderRule(new FunctionalTerm(f, x, one), x);
+
+    assertFalse(rule.applicable(x));
+    assertFalse(rule.applicable(one));
+    assertFalse(rule.applicable(unaryTerm("g", baseType("Int"), one)));
+    assertFalse(rule.applicable(new FunctionalTerm(f, one, x)));
+    assertTrue(rule.apply(new FunctionalTerm(f, x, one)).equals(x));
+  }
 }
 
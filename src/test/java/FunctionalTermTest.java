@@ -362,4 +362,125 @@ public class FunctionalTermTest {
     assertTrue(subst2.get(x).equals(a));
     assertTrue(subst2.get(y).equals(y));
   }
+
+  @Test
+  public void testMetadata() {
+    Var x = new Var("x", baseType("b"));
+    Term s = twoArgTerm();
+    Term t = unaryTerm("g", baseType("a"), x);
+    assertTrue(s.querySize() == 4);
+    assertTrue(s.queryDepth() == 2);
+    assertTrue(s.isGround());
+    assertTrue(t.querySize() == 2);
+    assertTrue(t.queryDepth() == 1);
+    assertFalse(t.isGround());
+    assertTrue(constantTerm("c", baseType("a")).queryDepth() == 0);
+  }
+
+  @Test
+  public void testStructuralHashOfEqualTerms() {
+    Term s = twoArgTerm();
+    Term t = twoArgTerm();
+    assertTrue(s.queryStructuralHash() == t.queryStructuralHash());
+    assertTrue(s.hashCode() == t.hashCode());
+    FunctionSymbol c = new Constant("c", baseType("a"));
+    Term cterm = new FunctionalTerm(c, new ArrayList<Term>());
+    assertTrue(cterm.equals(c));
+    assertTrue(cterm.queryStructuralHash() == c.queryStructuralHash());
+  }
+
+  @Test
+  public void testStructuralHashDistinguishesArgumentOrder() {
+    Type type = new ArrowType(baseType("a"), arrowType("a", "a"));
+    FunctionSymbol f = new Constant("f", type);
+    Term b = constantTerm("b", baseType("a"));
+    Term c = constantTerm("c", baseType("a"));
+    Term s = new FunctionalTerm(f, b, c);
+    Term t = new FunctionalTerm(f, c, b);
+    assertFalse(s.queryStructuralHash() == t.queryStructuralHash());
+    assertFalse(s.equals(t));
+  }
+
+  @Test
+  public void testMatchRejectsSmallerInstance() {
+    Var x = new Var("x", baseType("a"));
+    Type type = new ArrowType(baseType("a"), arrowType("a", "a"));
+    FunctionSymbol f = new Constant("f", type);
+    Term pattern = new FunctionalTerm(f, unaryTerm("g", baseType("a"), x), x);
+    Term instance = new FunctionalTerm(f, x, x);
+    Substitution gamma = new Subst();
+    assertTrue(pattern.match(instance, gamma) != null);
+    assertTrue(gamma.domain().size() == 0);
+  }
+
+  @Test
+  public void testVisitPreOrder() {
+    Term t = twoArgTerm();
+    StringBuilder visited = new StringBuilder();
+    assertTrue(t.visitPreOrder((sub, path) -> {
+      assertTrue(t.querySubterm(path.toPosition()) == sub);
+      visited.append(path.toString() + " ");
+      return true;
+    }));
+    assertEquals("ε 1.ε 2.ε 2.1.ε ", visited.toString());
+  }
+
+  @Test
+  public void testVisitPostOrderFollowsAllPositions() {
+    Term t = twoArgTerm();
+    List<Position> positions = t.queryAllPositions();
+    ArrayList<String> visited = new ArrayList<String>();
+    assertTrue(t.visitPostOrder((sub, path) -> {
+      assertTrue(path.equals(positions.get(visited.size())));
+      assertTrue(t.querySubterm(positions.get(visited.size())) == sub);
+      visited.add(path.toString());
+      return true;
+    }));
+    assertTrue(visited.size() == 4);
+  }
+
+  @Test
+  public void testAbortVisit() {
+    Term t = twoArgTerm();
+    ArrayList<Term> visited = new ArrayList<Term>();
+    assertFalse(t.visitPostOrder((sub, path) -> {
+      visited.add(sub);
+      return !sub.toString().equals("d");
+    }));
+    assertTrue(visited.size() == 2);
+  }
+
+  @Test
+  public void testTransformPostOrder() {
+    Term t = twoArgTerm();
+    Term e = constantTerm("e", baseType("b"));
+    Term s = t.transformPostOrder((sub, path) -> sub.toString().equals("d") ? e : sub);
+    assertEquals("f(c, g(e))", s.toString());
+    assertEquals("f(c, g(d))", t.toString());
+  }
+
+  @Test
+  public void testTransformPostOrderWithoutChanges() {
+    Term t = twoArgTerm();
+    assertTrue(t.transformPostOrder((sub, path) -> sub) == t);
+  }
+
+  @Test
+  public void testTransformSeesTransformedArguments() {
+    Term t = twoArgTerm();
+    Term e = constantTerm("e", baseType("b"));
+    Term h = constantTerm("h", baseType("b"));
+    Term s = t.transformPostOrder((sub, path) -> {
+      if (sub.toString().equals("d")) return e;
+      if (sub.toString().equals("g(e)")) return h;
+      return sub;
+    });
+    assertEquals("f(c, h)", s.toString());
+  }
+
+  @Test(expected = TypingError.class)
+  public void testTransformWithWrongType() {
+    Term t = twoArgTerm();
+    t.transformPostOrder((sub, path) -> path.isEmpty() ? sub : constantTerm("e", baseType("x")));
+  }
 }
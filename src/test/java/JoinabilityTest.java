@@ -0,0 +1,138 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.TreeSet;
+import cora.exceptions.CancelledError;
+import cora.interfaces.provingstrategies.Result;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+import cora.parsers.LcTrsInputReader;
+import cora.parsers.TrsInputReader;
+import cora.provingstrategies.Joinability;
+import cora.provingstrategies.LocalConfluence;
+import cora.rewriting.CancellationToken;
+
+public class JoinabilityTest {
+  private TRS cyclic() throws Exception {
+    return TrsInputReader.readTrsFromString(
+      "(SIG (f o -> o) (g o -> o) (a -> o) (b -> o) (c -> o) (d -> o))\n" +
+      "(RULES\n" +
+      "  a -> b\n" +
+      "  b -> a\n" +
+      "  b -> d\n" +
+      "  f(x) -> g(x)\n" +
+      "  g(d) -> c\n" +
+      ")");
+  }
+
+  private Term term(String str, TRS trs) throws Exception {
+    return TrsInputReader.readTermFromString(str, trs);
+  }
+
+  @Test
+  public void testCommonReductOfDifferentTerms() throws Exception {
+    TRS trs = cyclic();
+    Joinability joinability = new Joinability(trs);
+    Term reduct = joinability.commonReduct(term("f(a)", trs), term("c", trs), CancellationToken.NONE);
+    assertEquals(term("c", trs), reduct);
+    reduct = joinability.commonReduct(term("f(a)", trs), term("g(b)", trs), CancellationToken.NONE);
+    assertNotNull(reduct);
+  }
+
+  @Test
+  public void testCyclesAreNotJoinable() throws Exception {
+    TRS trs = cyclic();
+    Joinability joinability = new Joinability(trs);
+    // a and b reach each other and d, but never c
+    assertNull(joinability.commonReduct(term("a", trs), term("c", trs), CancellationToken.NONE));
+    assertEquals(term("d", trs),
+                 joinability.commonReduct(term("a", trs), term("d", trs), CancellationToken.NONE));
+  }
+
+  @Test
+  public void testCacheIsShared() throws Exception {
+    TRS trs = cyclic();
+    Joinability joinability = new Joinability(trs);
+    joinability.commonReduct(term("f(a)", trs), term("c", trs), CancellationToken.NONE);
+    int size = joinability.queryCacheSize();
+    assertTrue(size > 0);
+    joinability.commonReduct(term("g(a)", trs), term("c", trs), CancellationToken.NONE);
+    assertTrue(joinability.queryCacheSize() <= size + 1);
+  }
+
+  @Test
+  public void testCacheCapacity() throws Exception {
+    TRS trs = cyclic();
+    Joinability joinability = new Joinability(trs, 2);
+    joinability.commonReduct(term("f(a)", trs), term("c", trs), CancellationToken.NONE);
+    assertEquals(2, joinability.queryCacheSize());
+  }
+
+  @Test(expected = CancelledError.class)
+  public void testCancelled() throws Exception {
+    TRS trs = cyclic();
+    CancellationToken token = new CancellationToken();
+    token.cancel();
+    new Joinability(trs).commonReduct(term("a", trs), term("c", trs), token);
+  }
+
+  private TRS guarded() throws Exception {
+    return LcTrsInputReader.readLcTrsFromString(
+      "(SIG\n  (f Int -> Int)\n  (g Int -> Int)\n)\n" +
+      "(RULES\n" +
+      "  f(x) -> g(x) [x ==i 1]\n" +
+      "  f(x) -> g(1) [x ==i 1]\n" +
+      ")");
+  }
+
+  @Test
+  public void testJoinableOnlyUnderConstraint() throws Exception {
+    TRS trs = guarded();
+    TreeSet<Variable> vars = new TreeSet<Variable>();
+    Term s = LcTrsInputReader.readTermFromStringWithEnv("g(x)", trs, vars);
+    vars.addAll(s.vars().getVars());
+    Term t = LcTrsInputReader.readTermFromStringWithEnv("g(1)", trs, vars);
+    Term c = LcTrsInputReader.readLogicalTermFromStringWithEnv("[x ==i 1]", trs, vars);
+    Term d = LcTrsInputReader.readLogicalTermFromStringWithEnv("[x > 0]", trs, vars);
+    Joinability joinability = new Joinability(trs);
+    assertNull(joinability.commonReduct(s, t, CancellationToken.NONE));
+    assertEquals(s, joinability.commonReduct(s, t, c, CancellationToken.NONE));
+    assertNull(joinability.commonReduct(s, t, d, CancellationToken.NONE));
+  }
+
+  @Test
+  public void testLocalConfluenceUsesConstraints() throws Exception {
+    Result result = new LocalConfluence(guarded(), false).apply();
+    assertEquals(Result.RESULT.LOCALLY_CONFLUENT, result.getResult());
+    assertEquals(1, result.getCheckedPairs());
+  }
+
+  @Test
+  public void testLocalConfluenceWithCycles() throws Exception {
+    TRS trs = TrsInputReader.readTrsFromString(
+      "(SIG (f o -> o) (a -> o) (b -> o) (c -> o))\n" +
+      "(RULES\n" +
+      "  f(a) -> b\n" +
+      "  f(a) -> c\n" +
+      "  b -> c\n" +
+      "  c -> b\n" +
+      ")");
+    Result result = new LocalConfluence(trs, false).apply();
+    assertEquals(Result.RESULT.LOCALLY_CONFLUENT, result.getResult());
+  }
+}
@@ -0,0 +1,71 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import cora.exceptions.IndexingError;
+import cora.interfaces.terms.Position;
+import cora.terms.positions.*;
+
+public class MutablePathTest {
+  @Test
+  public void testEmptyPath() {
+    MutablePath path = new MutablePath(0);
+    assertTrue(path.isEmpty());
+    assertTrue(path.length() == 0);
+    assertTrue(path.toPosition().isEmpty());
+    assertEquals("ε", path.toString());
+  }
+
+  @Test
+  public void testPushAndPop() {
+    MutablePath path = new MutablePath(1);
+    path.push(2);
+    path.push(1);
+    path.push(3);
+    assertTrue(path.length() == 3);
+    assertTrue(path.queryIndex(1) == 2);
+    assertTrue(path.queryIndex(3) == 3);
+    assertEquals("2.1.3.ε", path.toString());
+    path.pop();
+    assertEquals("2.1.ε", path.toString());
+  }
+
+  @Test
+  public void testToPosition() {
+    MutablePath path = new MutablePath(2);
+    path.push(2);
+    path.push(1);
+    Position pos = path.toPosition();
+    assertEquals("2.1.ε", pos.toString());
+    assertTrue(path.equals(pos));
+    path.pop();
+    assertEquals("2.1.ε", pos.toString());
+    assertFalse(path.equals(pos));
+    assertTrue(path.equals(new ArgumentPosition(2, new EmptyPosition())));
+  }
+
+  @Test(expected = IndexingError.class)
+  public void testQueryIndexOutOfRange() {
+    MutablePath path = new MutablePath(2);
+    path.push(1);
+    path.queryIndex(2);
+  }
+
+  @Test(expected = IndexingError.class)
+  public void testPopEmpty() {
+    new MutablePath(2).pop();
+  }
+}
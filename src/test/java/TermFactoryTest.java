@@ -0,0 +1,129 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import cora.exceptions.NullCallError;
+import cora.interfaces.types.Type;
+import cora.interfaces.terms.*;
+import cora.types.*;
+import cora.terms.*;
+import cora.terms.positions.*;
+
+public class TermFactoryTest {
+  private Type baseType(String name) {
+    return new Sort(name);
+  }
+
+  private FunctionSymbol f() {
+    return new Constant("f", new ArrowType(baseType("o"), new ArrowType(baseType("o"),
+                                                                        baseType("o"))));
+  }
+
+  private FunctionSymbol g() {
+    return new Constant("g", new ArrowType(baseType("o"), baseType("o")));
+  }
+
+  private FunctionSymbol a() {
+    return new Constant("a", baseType("o"));
+  }
+
+  @Test(expected = NullCallError.class)
+  public void testInternNull() {
+    TermFactory.intern(null);
+  }
+
+  @Test
+  public void testCreateTwiceGivesSameObject() {
+    Term s = TermFactory.createFunctionalTerm(f(), new FunctionalTerm(g(), a()), a());
+    Term t = TermFactory.createFunctionalTerm(f(), new FunctionalTerm(g(), a()), a());
+    assertSame(s, t);
+  }
+
+  @Test
+  public void testArgumentsAreShared() {
+    Term s = new FunctionalTerm(f(), new FunctionalTerm(g(), a()), a());
+    Term t = new FunctionalTerm(g(), new FunctionalTerm(g(), a()));
+    assertNotSame(s, t);
+    assertSame(s.queryImmediateSubterm(1), t.queryImmediateSubterm(1));
+  }
+
+  @Test
+  public void testVariablesAreNotInterned() {
+    Var x = new Var("x", baseType("o"));
+    assertSame(x, TermFactory.intern(x));
+  }
+
+  @Test
+  public void testCopiedVariablesShareTerm() {
+    Var x = new Var("x", baseType("o"));
+    Var y = new Var(x);
+    Term s = TermFactory.createFunctionalTerm(g(), x);
+    Term t = TermFactory.createFunctionalTerm(g(), y);
+    assertSame(s, t);
+  }
+
+  @Test
+  public void testDifferentTermsAreNotMerged() {
+    Var x = new Var("x", baseType("o"));
+    Var y = new Var("x", baseType("o"));
+    Term s = TermFactory.createFunctionalTerm(g(), x);
+    Term t = TermFactory.createFunctionalTerm(g(), y);
+    assertNotSame(s, t);
+    assertFalse(s.equals(t));
+  }
+
+  @Test
+  public void testConstantsWithDifferentPrintingAreNotMerged() {
+    Type o = baseType("o");
+    Type type = new ArrowType(o, new ArrowType(o, o));
+    FunctionSymbol plus = new Constant("+", type, true, true, 2);
+    FunctionSymbol prefix = new Constant("+", type);
+    Term s = TermFactory.createFunctionalTerm(plus, a(), a());
+    Term t = TermFactory.createFunctionalTerm(prefix, a(), a());
+    assertNotSame(s, t);
+    assertTrue(s.equals(t));
+    assertEquals("a+a", s.toString());
+    assertEquals("+(a, a)", t.toString());
+  }
+
+  @Test
+  public void testSubstituteGivesCanonicalTerm() {
+    Var x = new Var("x", baseType("o"));
+    Term s = new FunctionalTerm(f(), x, new FunctionalTerm(g(), x));
+    Term t = s.substitute(new Subst(x, a()));
+    Term expected = TermFactory.createFunctionalTerm(f(), a(), new FunctionalTerm(g(), a()));
+    assertSame(expected, t);
+  }
+
+  @Test
+  public void testReplaceSubtermGivesCanonicalTerm() {
+    Term s = new FunctionalTerm(f(), a(), a());
+    Position pos = new ArgumentPosition(2, new EmptyPosition());
+    Term t = s.replaceSubterm(pos, new FunctionalTerm(g(), a()));
+    Term expected = TermFactory.createFunctionalTerm(f(), a(), new FunctionalTerm(g(), a()));
+    assertSame(expected, t);
+  }
+
+  @Test
+  public void testApplyGivesCanonicalTerm() {
+    ArrayList<Term> args = new ArrayList<Term>();
+    args.add(a());
+    Term s = g().apply(args);
+    Term t = TermFactory.createFunctionalTerm(g(), a());
+    assertSame(s, t);
+  }
+}
@@ -16,6 +16,7 @@
 import org.junit.Test;
 import static org.junit.Assert.*;
 import java.util.ArrayList;
+import java.util.List;
 import cora.interfaces.types.Type;
 import cora.interfaces.terms.Term;
 import cora.interfaces.terms.Position;
@@ -26,6 +27,7 @@ import cora.types.*;
 import cora.terms.*;
 import cora.rewriting.UserDefinedAlphabet;
 import cora.rewriting.AtrsRule;
+import cora.rewriting.FirstOrderRule;
 import cora.rewriting.TermRewritingSystem;
 import cora.parsers.CoraInputReader;
 
@@ -84,6 +86,32 @@ public class TrsTest {
     return new TermRewritingSystem(alf, rules);
   }
 
+  private TermRewritingSystem createFirstOrderSystem() {
+    ArrayList<FunctionSymbol> symbols = new ArrayList<FunctionSymbol>();
+    symbols.add(a());
+    symbols.add(b());
+    symbols.add(f());
+    symbols.add(g());
+    UserDefinedAlphabet alf = new UserDefinedAlphabet(symbols);
+
+    ArrayList<Rule> rules = new ArrayList<Rule>();
+    Var x = new Var("x", baseType("o"));
+    Var y = new Var("y", baseType("o"));
+    rules.add(new FirstOrderRule(new FunctionalTerm(f(), x, a()), x));
+      // f(x, a) -> x
+    ArrayList<Term> args = new ArrayList<Term>();
+    args.add(x);
+    args.add(y);
+    args.add(b());
+    Term gterm = new FunctionalTerm(g(), args);
+    rules.add(new FirstOrderRule(new FunctionalTerm(f(), gterm, b()), a()));
+      // f(g(x, y, b), b) -> a
+    rules.add(new FirstOrderRule(gterm, y));
+      // g(x, y, b) -> y
+
+    return new TermRewritingSystem(alf, rules);
+  }
+
   @Test
   public void testLeftmostInnermostRedex() {
     TermRewritingSystem trs = createTermRewritingSystem();
@@ -109,5 +137,117 @@ public class TrsTest {
     Term term = CoraInputReader.readTermFromString(str, trs);
     assertTrue(trs.leftmostInnermostReduce(term) == null);
   }
-}
 
+  @Test
+  public void testCandidateRulesUseRootAndFirstArgument() {
+    TermRewritingSystem trs = createFirstOrderSystem();
+    Term s = CoraInputReader.readTermFromString("f(a, b)", trs);
+    Term t = CoraInputReader.readTermFromString("f(g(a, a, b), b)", trs);
+    Term u = CoraInputReader.readTermFromString("g(a, a, a)", trs);
+    List<Rule> candidates = trs.queryCandidateRules(s);
+    assertTrue(candidates.size() == 1);
+    assertTrue(candidates.get(0) == trs.queryRule(0));
+    candidates = trs.queryCandidateRules(t);
+    assertTrue(candidates.size() == 2);
+    assertTrue(candidates.get(0) == trs.queryRule(0));
+    assertTrue(candidates.get(1) == trs.queryRule(1));
+    candidates = trs.queryCandidateRules(u);
+    assertTrue(candidates.size() == 1);
+    assertTrue(candidates.get(0) == trs.queryRule(2));
+    assertTrue(trs.queryCandidateRules(a()).size() == 0);
+  }
+
+  @Test
+  public void testCandidateRulesAfterAddRule() {
+    TermRewritingSystem trs = createFirstOrderSystem();
+    Term s = CoraInputReader.readTermFromString("f(b, b)", trs);
+    assertTrue(trs.leftmostInnermostReduce(s) == null);
+    Rule rule = new FirstOrderRule(new FunctionalTerm(f(), b(), b()), a());
+    trs.addRule(rule);
+    List<Rule> candidates = trs.queryCandidateRules(s);
+    assertTrue(candidates.size() == 2);
+    assertTrue(candidates.get(1) == rule);
+    assertTrue(trs.leftmostInnermostReduce(s).toString().equals("a"));
+  }
+
+  @Test
+  public void testCandidateRulesForApplicativeRules() {
+    TermRewritingSystem trs = createTermRewritingSystem();
+    Term s = CoraInputReader.readTermFromString("g(a, a, b)", trs);
+    assertTrue(trs.queryCandidateRules(s).size() == 2);
+  }
+
+  @Test
+  public void testBreadthFirstReduceWithIndex() {
+    TermRewritingSystem trs = createFirstOrderSystem();
+    Term s = CoraInputReader.readTermFromString("f(g(a, a, b), b)", trs);
+    List<Term> reducts = trs.breadthFirstReduce(s);
+    assertTrue(reducts.size() == 2);
+  }
+
+  @Test
+  public void testNormalize() {
+    TermRewritingSystem trs = createFirstOrderSystem();
+    Term s = CoraInputReader.readTermFromString("f(g(a, a, b), b)", trs);
+    Term t = CoraInputReader.readTermFromString("f(f(a, a), g(b, a, b))", trs);
+    assertTrue(trs.normalize(s).toString().equals("f(a, b)"));
+    assertTrue(trs.normalize(t).toString().equals("a"));
+  }
+
+  @Test
+  public void testNormalizeUsesCache() {
+    TermRewritingSystem trs = createFirstOrderSystem();
+    Term s = CoraInputReader.readTermFromString("f(g(a, a, b), g(a, a, b))", trs);
+    Term nf = trs.normalize(s);
+    assertTrue(nf.toString().equals("f(a, a)") || nf.toString().equals("a"));
+    long hits = trs.queryNormalFormCacheHits();
+    assertTrue(hits > 0);
+    assertTrue(trs.queryNormalFormCacheSize() > 0);
+    assertTrue(trs.normalize(s) == nf);
+    assertTrue(trs.queryNormalFormCacheHits() == hits + 1);
+  }
+
+  @Test
+  public void testNormalizeBudget() {
+    TermRewritingSystem trs = createFirstOrderSystem();
+    Term s = CoraInputReader.readTermFromString("f(g(a, a, b), g(b, b, b))", trs);
+    assertTrue(trs.normalize(s, 1) == null);
+    assertTrue(trs.normalize(s, 2).toString().equals("f(a, b)"));
+  }
+
+  @Test
+  public void testNormalizeNonTerminating() {
+    TermRewritingSystem trs = createFirstOrderSystem();
+    Term s = CoraInputReader.readTermFromString("f(b, b)", trs);
+    trs.addRule(new FirstOrderRule(s, new FunctionalTerm(f(), s, b())));
+    assertTrue(trs.normalize(s) == null);
+    trs = createFirstOrderSystem();
+    trs.addRule(new FirstOrderRule(s, s));
+    assertTrue(trs.normalize(s) == null);
+  }
+
+  @Test
+  public void testAddRuleClearsNormalForms() {
+    TermRewritingSystem trs = createFirstOrderSystem();
+    Term s = CoraInputReader.readTermFromString("f(b, b)", trs);
+    assertTrue(trs.normalize(s) == s);
+    trs.addRule(new FirstOrderRule(s, a()));
+    assertTrue(trs.queryNormalFormCacheSize() == 0);
+    assertTrue(trs.normalize(s).toString().equals("a"));
+  }
+
+  @Test
+  public void testTruncateRules() {
+    TermRewritingSystem trs = createFirstOrderSystem();
+    Term s = CoraInputReader.readTermFromString("f(b, b)", trs);
+    int count = trs.queryRuleCount();
+    trs.addRule(new FirstOrderRule(new FunctionalTerm(f(), b(), b()), a()));
+    assertTrue(trs.leftmostInnermostReduce(s).toString().equals("a"));
+    trs.truncateRules(count);
+    assertTrue(trs.queryRuleCount() == count);
+    assertTrue(trs.queryCandidateRules(s).size() == 1);
+    assertTrue(trs.leftmostInnermostReduce(s) == null);
+    trs.truncateRules(count + 5);
+    assertTrue(trs.queryRuleCount() == count);
+  }
+}
@@ -0,0 +1,138 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.TreeSet;
+import cora.exceptions.NullCallError;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.Substitution;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+import cora.interfaces.types.Type;
+import cora.parsers.TrsInputReader;
+import cora.terms.Unifier;
+import cora.terms.Var;
+import cora.terms.VarTerm;
+import cora.types.ArrowType;
+import cora.types.Sort;
+
+public class UnifierTest {
+  private TRS _trs;
+
+  public UnifierTest() throws Exception {
+    _trs = TrsInputReader.readTrsFromString(
+      "(SIG (f o o -> o) (g o -> o) (h o o o -> o) (a -> o) (b -> o)) (RULES a -> b)");
+  }
+
+  /** Reads the two terms with shared variables. */
+  private Term[] terms(String s, String t) throws Exception {
+    Term[] ret = new Term[2];
+    ret[0] = TrsInputReader.readTermFromString("h(" + s + ", " + t + ", a)", _trs);
+    ret[1] = ret[0].queryImmediateSubterm(2);
+    ret[0] = ret[0].queryImmediateSubterm(1);
+    return ret;
+  }
+
+  /** Checks that gamma unifies s and t, and is idempotent. */
+  private void checkUnifier(Substitution gamma, Term s, Term t) {
+    assertNotNull(gamma);
+    assertEquals(s.substitute(gamma), t.substitute(gamma));
+    for (Variable x : gamma.domain()) {
+      for (Variable y : gamma.domain()) {
+        assertFalse(gamma.get(x).vars().contains(y));
+      }
+    }
+  }
+
+  @Test
+  public void testDecompose() throws Exception {
+    Term[] st = terms("f(x, g(y))", "f(g(z), x)");
+    Substitution gamma = Unifier.unify(st[0], st[1]);
+    checkUnifier(gamma, st[0], st[1]);
+    assertEquals(2, gamma.domain().size());
+    assertEquals("g", gamma.get(st[0].queryImmediateSubterm(1).queryVariable()).queryRoot().toString());
+  }
+
+  @Test
+  public void testVariablesOfFirstTermAreBound() throws Exception {
+    Term[] st = terms("f(x, y)", "f(u, v)");
+    Substitution gamma = Unifier.unify(st[0], st[1]);
+    checkUnifier(gamma, st[0], st[1]);
+    TreeSet<Variable> domain = new TreeSet<Variable>(gamma.domain());
+    assertEquals(new TreeSet<Variable>(st[0].vars().getVars()), domain);
+  }
+
+  @Test
+  public void testEqualTerms() throws Exception {
+    Term[] st = terms("f(x, g(y))", "f(x, g(y))");
+    assertTrue(Unifier.unify(st[0], st[1]).domain().isEmpty());
+  }
+
+  @Test
+  public void testClash() throws Exception {
+    Term[] st = terms("f(a, x)", "f(g(y), x)");
+    assertNull(Unifier.unify(st[0], st[1]));
+    st = terms("f(x, a)", "f(y, b)");
+    assertNull(Unifier.unify(st[0], st[1]));
+  }
+
+  @Test
+  public void testOccursCheck() throws Exception {
+    Term[] st = terms("f(x, x)", "f(y, g(y))");
+    assertNull(Unifier.unify(st[0], st[1]));
+    st = terms("x", "g(x)");
+    assertNull(Unifier.unify(st[0], st[1]));
+  }
+
+  @Test
+  public void testCyclicBindingsTerminate() throws Exception {
+    Term[] st = terms("h(x, y, x)", "h(g(x), g(y), y)");
+    assertNull(Unifier.unify(st[0], st[1]));
+  }
+
+  @Test
+  public void testChainsOfVariables() throws Exception {
+    Term[] st = terms("h(x, y, z)", "h(y, z, g(a))");
+    Substitution gamma = Unifier.unify(st[0], st[1]);
+    checkUnifier(gamma, st[0], st[1]);
+    assertEquals("g(a)", st[0].substitute(gamma).queryImmediateSubterm(1).toString());
+  }
+
+  @Test
+  public void testTermUnifyUsesUnifier() throws Exception {
+    Term[] st = terms("f(x, g(y))", "f(g(z), x)");
+    checkUnifier(st[0].unify(st[1]), st[0], st[1]);
+    assertNull(st[1].unify(TrsInputReader.readTermFromString("a", _trs)));
+  }
+
+  @Test
+  public void testAppliedVariables() throws Exception {
+    Type o = new Sort("o");
+    Variable x = new Var("x", o);
+    Variable y = new Var("y", o);
+    Term zy = new VarTerm(new Var("z", new ArrowType(o, o)), y);
+    Substitution gamma = x.unify(zy);
+    assertNotNull(gamma);
+    assertEquals(zy, gamma.get(x));
+    assertNull(y.unify(zy));
+    assertNull(TrsInputReader.readTermFromString("a", _trs).unify(zy));
+  }
+
+  @Test(expected = NullCallError.class)
+  public void testNull() throws Exception {
+    Unifier.unify(TrsInputReader.readTermFromString("a", _trs), null);
+  }
+}
@@ -15,7 +15,11 @@
 
 import org.junit.Test;
 import static org.junit.Assert.*;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 import cora.exceptions.ArityError;
 import cora.exceptions.IndexingError;
 import cora.exceptions.InappropriatePatternDataError;
@@ -242,4 +246,22 @@ public class VarTest {
     assertTrue(gamma.get(x).equals(q));
     assertTrue(gamma.domain().size() == 1);
   }
+
+  @Test
+  public void testMetadata() {
+    Var x = new Var("x", baseType("a"));
+    assertFalse(x.isGround());
+    assertTrue(x.querySize() == 1);
+    assertTrue(x.queryDepth() == 0);
+    assertTrue(x.queryStructuralHash() == new Var(x).queryStructuralHash());
+    assertFalse(x.queryStructuralHash() == new Var("x", baseType("a")).queryStructuralHash());
+  }
+
+  @Test
+  public void testConcurrentCreationGivesDistinctIndexes() {
+    Set<Integer> indexes = ConcurrentHashMap.newKeySet();
+    IntStream.range(0, 10000).parallel().forEach(i ->
+      indexes.add(new Var("x", baseType("a")).queryVariableIndex()));
+    assertTrue(indexes.size() == 10000);
+  }
 }
@@ -0,0 +1,86 @@
+/**************************************************************************************************
+ Copyright 2019 Cynthia Kop
+
+ Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software distributed under the
+ License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ express or implied.
+ See the License for the specific language governing permissions and limitations under the License.
+ *************************************************************************************************/
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import cora.exceptions.NullCallError;
+import cora.interfaces.types.Type;
+import cora.interfaces.terms.*;
+import cora.types.*;
+import cora.terms.*;
+
+public class VariantsTest {
+  private Type baseType(String name) {
+    return new Sort(name);
+  }
+
+  private FunctionSymbol f() {
+    return new Constant("f", new ArrowType(baseType("o"), new ArrowType(baseType("o"),
+                                                                        baseType("o"))));
+  }
+
+  private FunctionSymbol a() {
+    return new Constant("a", baseType("o"));
+  }
+
+  @Test(expected = NullCallError.class)
+  public void testNullTuple() {
+    Variants.areVariants(null, new Term[0]);
+  }
+
+  @Test
+  public void testRenamedTermsAreVariants() {
+    Var x = new Var("x", baseType("o"));
+    Var y = new Var("y", baseType("o"));
+    Var z = new Var("z", baseType("o"));
+    Term s = new FunctionalTerm(f(), x, new FunctionalTerm(f(), y, x));
+    Term t = new FunctionalTerm(f(), z, new FunctionalTerm(f(), x, z));
+    assertTrue(Variants.areVariants(new Term[] { s }, new Term[] { t }));
+    assertEquals(Variants.variantHash(s), Variants.variantHash(t));
+  }
+
+  @Test
+  public void testRenamingIsBijective() {
+    Var x = new Var("x", baseType("o"));
+    Var y = new Var("y", baseType("o"));
+    Term s = new FunctionalTerm(f(), x, x);
+    Term t = new FunctionalTerm(f(), x, y);
+    assertFalse(Variants.areVariants(new Term[] { s }, new Term[] { t }));
+    assertFalse(Variants.areVariants(new Term[] { t }, new Term[] { s }));
+  }
+
+  @Test
+  public void testRenamingIsSharedBetweenComponents() {
+    Var x = new Var("x", baseType("o"));
+    Var y = new Var("y", baseType("o"));
+    assertTrue(Variants.areVariants(new Term[] { x, y }, new Term[] { y, x }));
+    assertFalse(Variants.areVariants(new Term[] { x, x }, new Term[] { x, y }));
+    assertNotEquals(Variants.variantHash(x, x), Variants.variantHash(x, y));
+  }
+
+  @Test
+  public void testVariableIsNotVariantOfConstant() {
+    Var x = new Var("x", baseType("o"));
+    assertFalse(Variants.areVariants(new Term[] { x }, new Term[] { a() }));
+    assertFalse(Variants.areVariants(new Term[] { a() }, new Term[] { x }));
+  }
+
+  @Test
+  public void testTypesMustMatch() {
+    Var x = new Var("x", baseType("o"));
+    Var y = new Var("y", baseType("i"));
+    assertFalse(Variants.areVariants(new Term[] { x }, new Term[] { y }));
+  }
+}
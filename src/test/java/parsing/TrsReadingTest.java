@@ -35,6 +35,7 @@ import cora.types.ArrowType;
 import cora.terms.Var;
 import cora.terms.Constant;
 import cora.terms.FunctionalTerm;
+import cora.rewriting.CancellationToken;
 import cora.parsers.ErrorCollector;
 import cora.parsers.ParseData;
 import cora.parsers.TrsParser;
@@ -204,17 +205,28 @@ public class TrsReadingTest {
 
     public int queryRuleCount() { return 0; }
     public Rule queryRule(int index) { return null; }
+    public List<Rule> queryCandidateRules(Term t) { return null; }
     public Position leftmostInnermostRedexPosition(Term s) { return null; }
     public Term leftmostInnermostReduce(Term s) { return null; }
+    public Term normalize(Term s) { return null; }
+    public Term normalize(Term s, int maxSteps, CancellationToken token) { return null; }
 
     @Override
     public List<Term> breadthFirstReduce(Term s) {
       return null;
     }
 
+    @Override
+    public List<Term> breadthFirstReduce(Term s, CancellationToken token) {
+      return null;
+    }
+
     @Override
     public void addRule(Rule r) {}
 
+    @Override
+    public void truncateRules(int count) {}
+
     @Override
     public List<FunctionSymbol> querySymbols() {
       return null;
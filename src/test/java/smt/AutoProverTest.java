@@ -0,0 +1,82 @@
+package smt;
+
+import cora.exceptions.ParserException;
+import cora.exceptions.invalidruleapplications.InvalidRuleApplicationException;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+import cora.parsers.LcTrsInputReader;
+import cora.smt.AutoProver;
+import cora.smt.BestFirstStrategy;
+import cora.smt.EquivalenceProof;
+import cora.smt.IterativeDeepeningStrategy;
+import cora.smt.ProofBudget;
+import cora.smt.ProofSearchResult;
+import org.junit.Test;
+
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class AutoProverTest {
+    private final static String s = "(SIG\n" +
+            "    (f Int -> Int)\n" +
+            "    (g Int -> Int)\n" +
+            ")\n" +
+            "(RULES\n" +
+            "    f(x) -> x\n" +
+            "    g(x) -> f(x)\n" +
+            ")";
+
+    private EquivalenceProof proof(TRS trs, String l, String r, String c) throws ParserException {
+        TreeSet<Variable> vars = new TreeSet<>();
+        Term left = LcTrsInputReader.readTermFromStringWithEnv(l, trs, vars);
+        vars.addAll(left.vars().getVars());
+        Term right = LcTrsInputReader.readTermFromStringWithEnv(r, trs, vars);
+        vars.addAll(right.vars().getVars());
+        Term constraint = LcTrsInputReader.readLogicalTermFromStringWithEnv(c, trs, vars);
+        return new EquivalenceProof(trs, left, right, constraint);
+    }
+
+    @Test
+    public void testBestFirstProof() throws ParserException, InvalidRuleApplicationException {
+        TRS trs = LcTrsInputReader.readLcTrsFromString(s);
+        ProofSearchResult result = new AutoProver(proof(trs, "g(x)", "x", "[x > 0]")).prove();
+        assertEquals(ProofSearchResult.Outcome.PROVEN, result.getOutcome());
+        assertFalse(result.getScript().isEmpty());
+
+        EquivalenceProof replay = proof(LcTrsInputReader.readLcTrsFromString(s), "g(x)", "x", "[x > 0]");
+        for (String command : result.getScript()) replay.applyNewUserCommand(command);
+        assertTrue(replay.proofIsFinished() != 0);
+    }
+
+    @Test
+    public void testIterativeDeepeningFindsShortestProof() throws ParserException {
+        TRS trs = LcTrsInputReader.readLcTrsFromString(s);
+        AutoProver prover = new AutoProver(proof(trs, "g(x)", "x", "[x > 0]"),
+                new IterativeDeepeningStrategy(5), new ProofBudget(1000, 0));
+        ProofSearchResult result = prover.prove();
+        assertEquals(ProofSearchResult.Outcome.PROVEN, result.getOutcome());
+        assertEquals(3, result.getScript().size());
+        assertEquals(3, prover.getProof().getHistorySize());
+    }
+
+    @Test
+    public void testDisproof() throws ParserException {
+        TRS trs = LcTrsInputReader.readLcTrsFromString(s);
+        ProofSearchResult result = new AutoProver(proof(trs, "f(x)", "x + 1", "[x > 0]")).prove();
+        assertEquals(ProofSearchResult.Outcome.DISPROVEN, result.getOutcome());
+        assertEquals("disprove", result.getScript().get(result.getScript().size() - 1));
+    }
+
+    @Test
+    public void testBudget() throws ParserException {
+        TRS trs = LcTrsInputReader.readLcTrsFromString(s);
+        AutoProver prover = new AutoProver(proof(trs, "g(x)", "x", "[x > 0]"),
+                new BestFirstStrategy(), new ProofBudget(2, 0));
+        ProofSearchResult result = prover.prove();
+        assertEquals(ProofSearchResult.Outcome.BUDGET_EXHAUSTED, result.getOutcome());
+        assertTrue(result.getScript().isEmpty());
+        assertEquals(2, result.getSteps());
+    }
+}
@@ -0,0 +1,86 @@
+package smt;
+
+import cora.exceptions.ParserException;
+import cora.exceptions.invalidruleapplications.InvalidRuleApplicationException;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+import cora.parsers.LcTrsInputReader;
+import cora.smt.Equation;
+import cora.smt.EquivalenceProof;
+import cora.smt.PortfolioProver;
+import cora.smt.ProofSearchResult;
+import org.junit.Test;
+
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class PortfolioProverTest {
+    private final static String s = "(SIG\n" +
+            "    (f Int -> Int)\n" +
+            "    (g Int -> Int)\n" +
+            ")\n" +
+            "(RULES\n" +
+            "    f(x) -> x\n" +
+            "    g(x) -> f(x)\n" +
+            ")";
+
+    private Equation equation(TRS trs, String l, String r, String c) throws ParserException {
+        TreeSet<Variable> vars = new TreeSet<>();
+        Term left = LcTrsInputReader.readTermFromStringWithEnv(l, trs, vars);
+        vars.addAll(left.vars().getVars());
+        Term right = LcTrsInputReader.readTermFromStringWithEnv(r, trs, vars);
+        vars.addAll(right.vars().getVars());
+        Term constraint = LcTrsInputReader.readLogicalTermFromStringWithEnv(c, trs, vars);
+        return new Equation(left, right, constraint);
+    }
+
+    private EquivalenceProof proof(TRS trs, String... eqs) throws ParserException {
+        Equation first = equation(trs, eqs[0], eqs[1], eqs[2]);
+        EquivalenceProof proof = new EquivalenceProof(trs, first.getLeft(), first.getRight(),
+                first.getConstraint());
+        for (int i = 3; i < eqs.length; i += 3) proof.addEquation(equation(trs, eqs[i], eqs[i+1], eqs[i+2]));
+        return proof;
+    }
+
+    @Test
+    public void testMergedProof() throws ParserException, InvalidRuleApplicationException {
+        String[] eqs = { "g(x)", "x", "[x > 0]", "f(y)", "y", "[y < 3]" };
+        EquivalenceProof proof = proof(LcTrsInputReader.readLcTrsFromString(s), eqs);
+        ProofSearchResult result;
+        try (PortfolioProver prover = new PortfolioProver(false, 1000, 0)) {
+            result = prover.prove(proof);
+        }
+        assertEquals(ProofSearchResult.Outcome.PROVEN, result.getOutcome());
+        assertTrue(proof.proofIsFinished() != 0);
+
+        EquivalenceProof replay = proof(LcTrsInputReader.readLcTrsFromString(s), eqs);
+        for (String command : result.getScript()) replay.applyNewUserCommand(command);
+        assertTrue(replay.proofIsFinished() != 0);
+    }
+
+    @Test
+    public void testDisproofStopsSearch() throws ParserException {
+        String[] eqs = { "g(x)", "x", "[x > 0]", "f(y)", "y + 1", "[y > 0]" };
+        EquivalenceProof proof = proof(LcTrsInputReader.readLcTrsFromString(s), eqs);
+        ProofSearchResult result;
+        try (PortfolioProver prover = new PortfolioProver(false, 1000, 0)) {
+            result = prover.prove(proof);
+        }
+        assertEquals(ProofSearchResult.Outcome.DISPROVEN, result.getOutcome());
+        assertTrue(proof.getBottom());
+    }
+
+    @Test
+    public void testBudgetExhausted() throws ParserException {
+        EquivalenceProof proof = proof(LcTrsInputReader.readLcTrsFromString(s), "g(x)", "x", "[x > 0]");
+        ProofSearchResult result;
+        try (PortfolioProver prover = new PortfolioProver(false, 2, 0)) {
+            result = prover.prove(proof);
+        }
+        assertEquals(ProofSearchResult.Outcome.BUDGET_EXHAUSTED, result.getOutcome());
+        assertTrue(result.getScript().isEmpty());
+        assertEquals(1, proof.getEquations().size());
+    }
+}
@@ -0,0 +1,138 @@
+package smt;
+
+import cora.exceptions.ParserException;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.smt.ProofEquation;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+import cora.parsers.LcTrsInputReader;
+import cora.rewriting.FirstOrderRule;
+import cora.smt.Equation;
+import cora.smt.PersistentList;
+import cora.smt.ProofState;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class ProofStateTest {
+    private static TRS lcTrs;
+
+    static {
+        try {
+            lcTrs = LcTrsInputReader.readLcTrsFromString("(SIG\n    (f Int -> Int)\n)\n(RULES\n    f(x) -> x\n)\n");
+        } catch (ParserException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private ProofEquation equation(String s, String t, String c) throws ParserException {
+        TreeSet<Variable> vars = new TreeSet<>();
+        Term l = LcTrsInputReader.readTermFromStringWithEnv(s, lcTrs, vars);
+        vars.addAll(l.vars().getVars());
+        Term r = LcTrsInputReader.readTermFromStringWithEnv(t, lcTrs, vars);
+        vars.addAll(r.vars().getVars());
+        Term con = LcTrsInputReader.readLogicalTermFromStringWithEnv(c, lcTrs, vars);
+        return new Equation(l, r, con);
+    }
+
+    private ProofState state() throws ParserException {
+        ArrayList<ProofEquation> eqs = new ArrayList<>();
+        eqs.add(equation("f(x)", "x", "[x > 0]"));
+        eqs.add(equation("f(y)", "f(f(y))", "[y < 0]"));
+        return new ProofState(eqs, new ArrayList<>(), new ArrayList<FirstOrderRule>(), true);
+    }
+
+    @Test
+    public void testPersistentListOperations() {
+        PersistentList<Integer> lst = PersistentList.empty();
+        for (int i = 0; i < 100; i++) lst = lst.add(i);
+        PersistentList<Integer> removed = lst.remove(0).remove(50).insert(10, -1);
+        PersistentList<Integer> swapped = lst.swap(3, 97);
+        assertEquals(100, lst.size());
+        for (int i = 0; i < 100; i++) assertEquals(i, (int) lst.get(i));
+        assertEquals(99, removed.size());
+        assertEquals(1, (int) removed.get(0));
+        assertEquals(-1, (int) removed.get(10));
+        assertEquals(52, (int) removed.get(51));
+        assertEquals(97, (int) swapped.get(3));
+        assertEquals(3, (int) swapped.get(97));
+        int expected = 0;
+        for (int x : lst) assertEquals(expected++, x);
+    }
+
+    @Test
+    public void testPersistentListFromCollection() {
+        List<String> orig = Arrays.asList("a", "b", "c", "d", "e");
+        PersistentList<String> lst = PersistentList.of(orig);
+        assertEquals(orig, lst.asList());
+        assertEquals("[a, c, d, e]", lst.remove(1).toString());
+        assertTrue(PersistentList.of(new ArrayList<String>()).isEmpty());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testPersistentListOutOfBounds() {
+        PersistentList.of(Arrays.asList(1, 2)).get(2);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testEquationsCannotBeModifiedDirectly() throws ParserException {
+        state().getE().clear();
+    }
+
+    @Test
+    public void testCopySharesEquations() throws ParserException {
+        ProofState ps = state();
+        ProofState copy = new ProofState(ps);
+        assertSame(ps.getCurrentEquation(), copy.getCurrentEquation());
+        assertSame(ps.getE().get(1), copy.getE().get(1));
+    }
+
+    @Test
+    public void testChangingCopyLeavesOriginal() throws ParserException {
+        ProofState ps = state();
+        String before = ps.toString();
+        ProofState copy = new ProofState(ps);
+        copy.setS(copy.getT());
+        copy.swapEquations(0, 1);
+        copy.addEquations(new ArrayList<>(List.of(equation("f(z)", "z", "[z > 1]"))));
+        copy.setCompletenessE(copy.getE());
+        assertEquals(before, ps.toString());
+        assertTrue(ps.getCompletenessE().isEmpty());
+        assertEquals(3, copy.getE().size());
+        assertEquals("f(y)", copy.getS().toString());
+        copy.removeCurrentEquation();
+        assertEquals(2, copy.getE().size());
+        assertEquals(2, ps.getE().size());
+    }
+
+    @Test
+    public void testRenamedEquationsAreEqual() throws ParserException {
+        ProofEquation eq1 = equation("f(x)", "f(f(y))", "[x > y]");
+        ProofEquation eq2 = equation("f(a)", "f(f(b))", "[a > b]");
+        ProofEquation eq3 = equation("f(a)", "f(f(b))", "[b > a]");
+        assertEquals(eq1, eq2);
+        assertEquals(eq1.hashCode(), eq2.hashCode());
+        assertNotEquals(eq1, eq3);
+    }
+
+    @Test
+    public void testAddEquationsSkipsDuplicates() throws ParserException {
+        ProofState ps = state();
+        ArrayList<ProofEquation> eqs = new ArrayList<>();
+        eqs.add(equation("f(a)", "a", "[a > 0]"));
+        eqs.add(equation("f(z)", "z", "[z > 1]"));
+        eqs.add(equation("f(u)", "u", "[u > 1]"));
+        ps.addEquations(eqs);
+        assertEquals(3, ps.getE().size());
+        assertTrue(ps.containsEquation(equation("f(v)", "v", "[v > 1]")));
+        ps.removeCurrentEquation();
+        assertFalse(ps.containsEquation(equation("f(a)", "a", "[a > 0]")));
+        ps.addEquations(new ArrayList<>(List.of(equation("f(a)", "a", "[a > 0]"))));
+        assertEquals(3, ps.getE().size());
+    }
+}
@@ -85,4 +85,61 @@ public class UndoCommandSMTTest {
         eq.applyNewUserCommand("undo");
         assertEquals(eq.getCurrentEquation(), ps.getCurrentEquation());
     }
+
+    @Test
+    public void testUndoExpandRemovesRule() throws ParserException, InvalidRuleApplicationException {
+        TRS trs = LcTrsInputReader.readLcTrsFromString(s);
+        Term l = LcTrsInputReader.readTermFromString("sumrec(n)", trs);
+        TreeSet<Variable> vars = new TreeSet<>();
+        vars.addAll(l.vars().getVars());
+        Term r = LcTrsInputReader.readTermFromStringWithEnv("iter(n, 1, 2)", trs, vars);
+        vars.addAll(r.vars().getVars());
+        Term c = LcTrsInputReader.readLogicalTermFromStringWithEnv("[n >= 1]", trs, vars);
+        EquivalenceProof eq = new EquivalenceProof(trs, l, r, c);
+        int rules = trs.queryRuleCount();
+        eq.applyNewUserCommand("expand 0 terminating");
+        assertEquals(rules + 1, eq.getLcTrs().queryRuleCount());
+        eq.applyNewUserCommand("undo");
+        assertEquals(rules, eq.getLcTrs().queryRuleCount());
+        assertEquals(0, eq.getHistorySize());
+        assertEquals(l, eq.getLeft());
+        assertEquals(r, eq.getRight());
+    }
+
+    @Test
+    public void testRestoreStep() throws ParserException, InvalidRuleApplicationException {
+        Term l = LcTrsInputReader.readTermFromString("f(z)", lcTrs);
+        TreeSet<Variable> vars = new TreeSet<>();
+        vars.addAll(l.vars().getVars());
+        Term r = LcTrsInputReader.readTermFromStringWithEnv("f(x + 0)", lcTrs, vars);
+        vars.addAll(r.vars().getVars());
+        Term c = LcTrsInputReader.readLogicalTermFromStringWithEnv("[z ==i x + 0]", lcTrs, vars);
+        EquivalenceProof eq = new EquivalenceProof(lcTrs, l, r, c);
+        eq.applyNewUserCommand("swap");
+        IProofState ps = eq.getProofState();
+        eq.applyNewUserCommand("simplify");
+        eq.applyNewUserCommand("swap");
+        assertEquals(3, eq.getHistorySize());
+        assertEquals(ps, eq.restoreStep(1));
+        assertEquals(1, eq.getHistorySize());
+        assertEquals(ps.getCurrentEquation(), eq.getCurrentEquation());
+    }
+
+    @Test
+    public void testRestoreStepBeforeCompletion() throws ParserException, InvalidRuleApplicationException {
+        Term l = LcTrsInputReader.readTermFromString("f(z)", lcTrs);
+        TreeSet<Variable> vars = new TreeSet<>();
+        vars.addAll(l.vars().getVars());
+        Term r = LcTrsInputReader.readTermFromStringWithEnv("f(x + 0)", lcTrs, vars);
+        vars.addAll(r.vars().getVars());
+        Term c = LcTrsInputReader.readLogicalTermFromStringWithEnv("[z ==i x + 0]", lcTrs, vars);
+        EquivalenceProof eq = new EquivalenceProof(lcTrs, l, r, c);
+        eq.applyNewUserCommand("swap");
+        eq.applyNewUserCommand("simplify");
+        eq.applyNewUserCommand("delete");
+        assertEquals(1, eq.proofIsFinished());
+        eq.restoreStep(2);
+        assertEquals(0, eq.proofIsFinished());
+        assertEquals(2, eq.getHistorySize());
+    }
 }
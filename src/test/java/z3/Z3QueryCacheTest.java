@@ -0,0 +1,151 @@
+package z3;
+
+import cora.exceptions.ParserException;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+import cora.parsers.LcTrsInputReader;
+import cora.z3.SatisfiabilityEnum;
+import cora.z3.Z3QueryCache;
+import cora.z3.Z3SessionPool;
+import cora.z3.Z3TermHandler;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class Z3QueryCacheTest {
+    private static TRS lcTrs;
+
+    static {
+        try {
+            lcTrs = LcTrsInputReader.readLcTrsFromString("(SIG\n    (f Int -> Int)\n)\n(RULES\n    f(x) -> x\n)\n");
+        } catch (ParserException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Term constraint(String str) throws ParserException {
+        return constraint(str, new TreeSet<>());
+    }
+
+    private Term constraint(String str, TreeSet<Variable> vars) throws ParserException {
+        Term ret = LcTrsInputReader.readLogicalTermFromStringWithEnv(str, lcTrs, vars);
+        vars.addAll(ret.vars().getVars());
+        return ret;
+    }
+
+    @Test
+    public void testVariablesAreRenamed() throws ParserException {
+        Term c = constraint("[x >= 2 /\\ y < x]");
+        Term d = constraint("[a >= 2 /\\ b < a]");
+        assertEquals(Z3QueryCache.canonicalForm(c), Z3QueryCache.canonicalForm(d));
+    }
+
+    @Test
+    public void testConjunctionsAreReordered() throws ParserException {
+        Term c = constraint("[x >= 2 /\\ (y < x /\\ y > 0)]");
+        Term d = constraint("[(y > 0 /\\ x >= 2) /\\ y < x]");
+        assertEquals(Z3QueryCache.canonicalForm(c), Z3QueryCache.canonicalForm(d));
+    }
+
+    @Test
+    public void testDifferentConstraintsAreDistinguished() throws ParserException {
+        Term c = constraint("[x >= 2 /\\ y < x]");
+        Term d = constraint("[x >= 2 /\\ x < y]");
+        Term e = constraint("[x >= 2 \\/ y < x]");
+        assertNotEquals(Z3QueryCache.canonicalForm(c), Z3QueryCache.canonicalForm(d));
+        assertNotEquals(Z3QueryCache.canonicalForm(c), Z3QueryCache.canonicalForm(e));
+    }
+
+    @Test
+    public void testSharedVariablesInImplication() throws ParserException {
+        TreeSet<Variable> vars = new TreeSet<>();
+        Term c = constraint("[x >= 2]", vars);
+        Term d = constraint("[y >= 1]", vars);
+        Term e = constraint("[x >= 1]", vars);
+        assertNotEquals(Z3QueryCache.implicationKey(c, d), Z3QueryCache.implicationKey(c, e));
+    }
+
+    @Test
+    public void testLookupAndStore() {
+        Z3QueryCache cache = new Z3QueryCache(2);
+        assertNull(cache.lookup("a"));
+        cache.store("a", SatisfiabilityEnum.SAT);
+        cache.store("b", SatisfiabilityEnum.UNKNOWN);
+        assertTrue(cache.lookup("a") == SatisfiabilityEnum.SAT);
+        assertNull(cache.lookup("b"));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1.0 / 3, cache.getHitRate(), 0.0001);
+        cache.store("b", SatisfiabilityEnum.UNSAT);
+        cache.store("c", SatisfiabilityEnum.UNSAT);
+        assertEquals(2, cache.size());
+        assertNull(cache.lookup("a"));
+    }
+
+    @Test
+    public void testHandlerUsesCache() throws ParserException {
+        Z3QueryCache cache = Z3QueryCache.getInstance();
+        Term c = constraint("[x >= 2 /\\ x < 5 /\\ x * x ==i 9]");
+        Term d = constraint("[z * z ==i 9 /\\ z < 5 /\\ z >= 2]");
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(lcTrs)) {
+            assertTrue(z3.satisfiable(c) == SatisfiabilityEnum.SAT);
+            long hits = cache.getHits();
+            assertTrue(z3.satisfiable(d) == SatisfiabilityEnum.SAT);
+            assertEquals(hits + 1, cache.getHits());
+        }
+    }
+
+    @Test
+    public void testCacheIgnoredUnderAssertions() throws ParserException {
+        Z3QueryCache cache = Z3QueryCache.getInstance();
+        TreeSet<Variable> vars = new TreeSet<>();
+        Term c = constraint("[x >= 7]", vars);
+        Term d = constraint("[y < 3]", vars);
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(lcTrs)) {
+            assertTrue(z3.satisfiable(c) == SatisfiabilityEnum.SAT);
+            z3.addAssertion(constraint("[x < 0]", vars));
+            long hits = cache.getHits();
+            assertTrue(z3.satisfiable(c) == SatisfiabilityEnum.UNSAT);
+            assertTrue(z3.implies(d, constraint("[x < 7]", vars)));
+            assertEquals(hits, cache.getHits());
+        }
+    }
+
+    @Test
+    public void testImplies() throws ParserException {
+        TreeSet<Variable> vars = new TreeSet<>();
+        Term c = constraint("[x >= 2]", vars);
+        Term d = constraint("[x >= 1]", vars);
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(lcTrs)) {
+            assertTrue(z3.implies(c, d));
+            assertFalse(z3.implies(d, c));
+            assertTrue(z3.getSatStatus() == SatisfiabilityEnum.SAT);
+        }
+    }
+
+    @Test
+    public void testStoreRoundTrip() throws IOException {
+        File file = File.createTempFile("z3cache", ".txt");
+        file.delete();
+        try {
+            Z3QueryCache cache = new Z3QueryCache(10);
+            cache.attachStore(file);
+            cache.store("sat v0:Int", SatisfiabilityEnum.SAT);
+            cache.store("valid v0:Int", SatisfiabilityEnum.UNSAT);
+            cache.detachStore();
+
+            Z3QueryCache other = new Z3QueryCache(10);
+            other.attachStore(file);
+            assertTrue(other.lookup("sat v0:Int") == SatisfiabilityEnum.SAT);
+            assertTrue(other.lookup("valid v0:Int") == SatisfiabilityEnum.UNSAT);
+            other.detachStore();
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package z3;
+
+import com.microsoft.z3.Context;
+import cora.z3.SatisfiabilityEnum;
+import cora.z3.Z3SessionPool;
+import cora.z3.Z3TermHandler;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static cora.z3.Z3Helper.*;
+
+public class Z3SessionPoolTest {
+    @Test
+    public void testHandlersShareContext() {
+        try (Z3TermHandler z1 = Z3SessionPool.acquire(null); Z3TermHandler z2 = Z3SessionPool.acquire(null)) {
+            assertSame(z1.getContext(), z2.getContext());
+        }
+        assertTrue(Z3SessionPool.hasSession());
+    }
+
+    @Test
+    public void testAssertionsArePoppedOnClose() {
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(null)) {
+            assertTrue(z3.satisfiable(getBoolVal(z3.getContext(), false)) == SatisfiabilityEnum.UNSAT);
+        }
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(null)) {
+            assertTrue(z3.satisfiable(getBoolVal(z3.getContext(), true)) == SatisfiabilityEnum.SAT);
+        }
+    }
+
+    @Test
+    public void testNestedHandlers() {
+        try (Z3TermHandler outer = Z3SessionPool.acquire(null)) {
+            Context ctx = outer.getContext();
+            outer.addAssertion(getBoolVar(ctx, "p"));
+            try (Z3TermHandler inner = Z3SessionPool.acquire(null)) {
+                assertTrue(inner.satisfiable(getNot(ctx, getBoolVar(ctx, "p"))) == SatisfiabilityEnum.UNSAT);
+                inner.addAssertion(getNot(ctx, getBoolVar(ctx, "q")));
+            }
+            assertTrue(outer.satisfiable(getBoolVar(ctx, "q")) == SatisfiabilityEnum.SAT);
+            assertTrue(outer.satisfiable(getNot(ctx, getBoolVar(ctx, "p"))) == SatisfiabilityEnum.UNSAT);
+        }
+    }
+
+    @Test
+    public void testCloseOutOfOrder() {
+        Z3TermHandler outer = Z3SessionPool.acquire(null);
+        Z3TermHandler inner = Z3SessionPool.acquire(null);
+        Context ctx = inner.getContext();
+        inner.addAssertion(getBoolVar(ctx, "p"));
+        try {
+            outer.close();
+            fail("closing the outer handler first should not be allowed");
+        } catch (IllegalStateException e) {
+            // both handlers are still open, and the inner assertion is still there
+        }
+        assertTrue(inner.satisfiable(getNot(ctx, getBoolVar(ctx, "p"))) == SatisfiabilityEnum.UNSAT);
+        inner.close();
+        outer.close();
+        try (Z3TermHandler other = Z3SessionPool.acquire(null)) {
+            assertTrue(other.satisfiable(getNot(ctx, getBoolVar(ctx, "p"))) == SatisfiabilityEnum.SAT);
+        }
+    }
+
+    @Test
+    public void testCloseTwice() {
+        Z3TermHandler z3 = Z3SessionPool.acquire(null);
+        z3.close();
+        z3.close();
+        try (Z3TermHandler other = Z3SessionPool.acquire(null)) {
+            assertTrue(other.satisfiable(getBoolVal(other.getContext(), true)) == SatisfiabilityEnum.SAT);
+        }
+    }
+
+    @Test
+    public void testThreadsHaveOwnContext() throws InterruptedException {
+        Context[] contexts = new Context[2];
+        Thread thread = new Thread(() -> {
+            try (Z3TermHandler z3 = Z3SessionPool.acquire(null)) {
+                contexts[1] = z3.getContext();
+            }
+            Z3SessionPool.release();
+        });
+        thread.start();
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(null)) {
+            contexts[0] = z3.getContext();
+        }
+        thread.join();
+        assertNotNull(contexts[1]);
+        assertNotSame(contexts[0], contexts[1]);
+    }
+
+    @Test
+    public void testRelease() {
+        Context first;
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(null)) {
+            first = z3.getContext();
+        }
+        Z3SessionPool.release();
+        assertFalse(Z3SessionPool.hasSession());
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(null)) {
+            assertNotSame(first, z3.getContext());
+        }
+    }
+}
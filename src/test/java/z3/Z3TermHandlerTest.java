@@ -0,0 +1,125 @@
+package z3;
+
+import com.microsoft.z3.Context;
+import com.microsoft.z3.Expr;
+import cora.exceptions.ParserException;
+import cora.interfaces.rewriting.TRS;
+import cora.interfaces.terms.Term;
+import cora.interfaces.terms.Variable;
+import cora.parsers.LcTrsInputReader;
+import cora.z3.SatisfiabilityEnum;
+import cora.z3.Z3Helper;
+import cora.z3.Z3SessionPool;
+import cora.z3.Z3TermHandler;
+import org.junit.Test;
+
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+import static cora.z3.Z3Helper.*;
+
+public class Z3TermHandlerTest {
+    private static TRS lcTrs;
+
+    static {
+        try {
+            lcTrs = LcTrsInputReader.readLcTrsFromString("(SIG\n    (f Int -> Int)\n)\n(RULES\n    f(x) -> x\n)\n");
+        } catch (ParserException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Term constraint(String str, TreeSet<Variable> vars) throws ParserException {
+        Term ret = LcTrsInputReader.readLogicalTermFromStringWithEnv(str, lcTrs, vars);
+        vars.addAll(ret.vars().getVars());
+        return ret;
+    }
+
+    @Test
+    public void testSatisfiableDoesNotAccumulate() {
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(lcTrs)) {
+            Context ctx = z3.getContext();
+            assertTrue(z3.satisfiable(getBoolVar(ctx, "p")) == SatisfiabilityEnum.SAT);
+            assertTrue(z3.satisfiable(getNot(ctx, getBoolVar(ctx, "p"))) == SatisfiabilityEnum.SAT);
+            assertTrue(z3.getSatStatus() == SatisfiabilityEnum.SAT);
+        }
+    }
+
+    @Test
+    public void testPushAndPop() {
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(lcTrs)) {
+            Context ctx = z3.getContext();
+            int depth = z3.getScopeDepth();
+            z3.push();
+            z3.addAssertion(getBoolVal(ctx, false));
+            assertTrue(z3.getScopeDepth() == depth + 1);
+            assertTrue(z3.getSatStatus() == SatisfiabilityEnum.UNSAT);
+            z3.pop();
+            assertTrue(z3.getScopeDepth() == depth);
+            assertTrue(z3.getSatStatus() == SatisfiabilityEnum.SAT);
+        }
+    }
+
+    @Test
+    public void testCheckAssuming() throws ParserException {
+        TreeSet<Variable> vars = new TreeSet<>();
+        Term c = constraint("[x >= 2]", vars);
+        Term d = constraint("[x < 2]", vars);
+        Term e = constraint("[x < 3]", vars);
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(lcTrs)) {
+            z3.addAssertion(c);
+            assertTrue(z3.checkAssuming(d) == SatisfiabilityEnum.UNSAT);
+            assertTrue(z3.checkAssuming(e) == SatisfiabilityEnum.SAT);
+            assertTrue(z3.getSatStatus() == SatisfiabilityEnum.SAT);
+        }
+    }
+
+    @Test
+    public void testTranslationsAreRemembered() throws ParserException {
+        TreeSet<Variable> vars = new TreeSet<>();
+        Term c = constraint("[x >= 2 /\\ x < 5]", vars);
+        Term d = constraint("[x < 5]", vars);
+        Z3Helper helper = new Z3Helper();
+        try (Context ctx = new Context()) {
+            Z3TermHandler z3 = new Z3TermHandler(ctx, ctx.mkSolver(), helper, lcTrs);
+            Expr e = z3.deconstruct(c);
+            int size = helper.getExprCacheSize();
+            long hits = helper.getExprCacheHits();
+            assertTrue(z3.deconstruct(c) == e);
+            assertTrue(helper.getExprCacheHits() == hits + 1);
+            z3.deconstruct(d);
+            assertTrue(helper.getExprCacheHits() == hits + 2);
+            assertTrue(helper.getExprCacheSize() == size);
+        }
+    }
+
+    @Test
+    public void testFuncDeclsAreShared() throws ParserException {
+        TreeSet<Variable> vars = new TreeSet<>();
+        Term s = LcTrsInputReader.readTermFromStringWithEnv("f(x)", lcTrs, vars);
+        vars.addAll(s.vars().getVars());
+        Term t = LcTrsInputReader.readTermFromStringWithEnv("f(y)", lcTrs, vars);
+        Z3Helper helper = new Z3Helper();
+        try (Context ctx = new Context()) {
+            Z3TermHandler z3 = new Z3TermHandler(ctx, ctx.mkSolver(), helper, lcTrs);
+            Expr e1 = z3.deconstruct(s);
+            Expr e2 = z3.deconstruct(t);
+            assertTrue(helper.getFuncDeclCount() == 1);
+            assertTrue(e1.getFuncDecl().equals(e2.getFuncDecl()));
+        }
+    }
+
+    @Test
+    public void testImpliedByAssertions() throws ParserException {
+        TreeSet<Variable> vars = new TreeSet<>();
+        Term c = constraint("[x >= 2]", vars);
+        Term d = constraint("[x > 1]", vars);
+        Term e = constraint("[x > 2]", vars);
+        try (Z3TermHandler z3 = Z3SessionPool.acquire(lcTrs)) {
+            z3.addAssertion(c);
+            assertTrue(z3.impliedByAssertions(d));
+            assertFalse(z3.impliedByAssertions(e));
+            assertTrue(z3.impliedByAssertions(d));
+        }
+    }
+}